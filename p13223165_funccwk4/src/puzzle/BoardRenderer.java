@@ -0,0 +1,226 @@
+package puzzle;
+
+/**
+ * Draws a board as Game.display() does, but keeps the last frame it drew and redraws only
+ * what has changed. A move swaps two tiles, so after one only their two cells, frame
+ * segments included, are drawn again into the existing frame; the rest of it is left as it
+ * is. The rectangles that changed are kept so a caller can write out a partial update.
+ *
+ * A cell can be drawn in place when the layout of the board is the same as in the last
+ * frame, which is when the board has the same number of tiles and every cell has the same
+ * size as the cell that was there before. Any other board is drawn in full, as is the first.
+ * A renderer is not thread-safe; it holds the state of one display.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+public final class BoardRenderer {
+
+	/**
+	 * A rectangle of the frame: depth rows of width chars, from (top, left)
+	 */
+	public static final class Region {
+		private final int top, left, depth, width;
+
+		Region(int top, int left, int depth, int width) {
+			this.top = top;
+			this.left = left;
+			this.depth = depth;
+			this.width = width;
+		}
+
+		/**
+		 * @return		the first row of the region
+		 */
+		public int top() {
+			return top;
+		}
+
+		/**
+		 * @return		the first column of the region
+		 */
+		public int left() {
+			return left;
+		}
+
+		/**
+		 * @return		the number of rows in the region
+		 */
+		public int depth() {
+			return depth;
+		}
+
+		/**
+		 * @return		the number of columns in the region
+		 */
+		public int width() {
+			return width;
+		}
+
+		@Override public boolean equals(Object that) {
+			if (!(that instanceof Region))
+				return false;
+			Region r = (Region)that;
+			return top == r.top && left == r.left && depth == r.depth && width == r.width;
+		}
+
+		@Override public int hashCode() {
+			return ((31 * top + left) * 31 + depth) * 31 + width;
+		}
+
+		@Override public String toString() {
+			return depth + "x" + width + "@(" + top + "," + left + ")";
+		}
+	}
+
+	/** The tiles of the last board, and the layouts and places of their cells */
+	private Tile[] tiles = new Tile[0];
+	private LazyPicture[] cells = new LazyPicture[0];
+	private int[] tops = new int[0], lefts = new int[0];
+	/** The last frame, row-major */
+	private char[] frame = new char[0];
+	private int depth, width;
+	private List<Region> changed = List.emptyList();
+
+	/**
+	 * Draw a board, redrawing only the cells whose tiles have changed since the last board
+	 * @param board		the board
+	 * @return			the rectangles of the frame that changed: the cells drawn again, or
+	 * 					the whole frame if it was drawn in full
+	 */
+	public List<Region> render(List<Tile> board) {
+		Tile[] next = board.toArrayList().toArray(new Tile[0]);
+		LazyPicture[] nextCells = new LazyPicture[next.length];
+		boolean sameLayout = next.length == tiles.length;
+		for (int i = 0; i < next.length; i++) {
+			nextCells[i] = Game.cell(next[i]);
+			if (sameLayout && (nextCells[i].depth() != cells[i].depth() || nextCells[i].width() != cells[i].width()))
+				sameLayout = false;
+		}
+		if (sameLayout && placed())
+			redraw(next, nextCells);
+		else
+			draw(next, nextCells);
+		tiles = next;
+		cells = nextCells;
+		return changed;
+	}
+
+	/**
+	 * @return		true if the place of every cell of the last frame is known
+	 */
+	private boolean placed() {
+		return tops.length == cells.length;
+	}
+
+	/**
+	 * Draw the changed cells into the last frame, where the same cells were before
+	 */
+	private void redraw(Tile[] next, LazyPicture[] nextCells) {
+		ArrayList<Region> regions = new ArrayList<Region>();
+		for (int i = 0; i < next.length; i++) {
+			if (next[i] == tiles[i])
+				continue;
+			LazyPicture cell = nextCells[i];
+			cell.render(0, 0, cell.depth(), cell.width(), frame, width, tops[i], lefts[i]);
+			regions.add(new Region(tops[i], lefts[i], cell.depth(), cell.width()));
+		}
+		changed = List.arrayListToList(regions);
+	}
+
+	/**
+	 * Draw the whole frame, and work out where each cell is if the grid is regular: every
+	 * row holds Game.COLUMNS cells of Game.CELL_WIDTH columns and the cells of a row are the
+	 * same depth, so none of them is padded. If not, the cells have no known place and the
+	 * next board is drawn in full too. The columns left of the first cell are the grid's
+	 * frame, so they are whatever the grid is wider than its cells
+	 */
+	private void draw(Tile[] next, LazyPicture[] nextCells) {
+		LazyPicture grid = Game.grid(List.arrayToList(nextCells));
+		depth = grid.depth();
+		width = grid.width();
+		frame = new char[depth * width];
+		grid.render(0, 0, depth, width, frame, width, 0, 0);
+		changed = List.cons(new Region(0, 0, depth, width), List.emptyList());
+		tops = new int[0];
+		lefts = new int[0];
+		int columns = Game.COLUMNS, cellWidth = Game.CELL_WIDTH, left = width - columns * cellWidth;
+		if (next.length == 0 || next.length % columns != 0 || left < 0)
+			return;
+		int[] t = new int[next.length], l = new int[next.length];
+		int top = 0;
+		for (int i = 0; i < next.length; i++) {
+			LazyPicture cell = nextCells[i];
+			if (cell.width() != cellWidth || cell.depth() != nextCells[i - i % columns].depth())
+				return;
+			t[i] = top;
+			l[i] = left + cellWidth * (i % columns);
+			if (i % columns == columns - 1)
+				top += cell.depth();
+		}
+		tops = t;
+		lefts = l;
+	}
+
+	/**
+	 * @return		the rectangles that changed in the last call to render()
+	 */
+	public List<Region> changedRegions() {
+		return changed;
+	}
+
+	/**
+	 * @return		the depth of the last frame
+	 */
+	public int depth() {
+		return depth;
+	}
+
+	/**
+	 * @return		the width of the last frame
+	 */
+	public int width() {
+		return width;
+	}
+
+	/**
+	 * @param row		the row
+	 * @param col		the column
+	 * @return			the char at that place in the last frame
+	 */
+	public char charAt(int row, int col) {
+		if (row < 0 || row >= depth || col < 0 || col >= width)
+			throw new IndexOutOfBoundsException("charAt(" + row + "," + col + ")");
+		return frame[row * width + col];
+	}
+
+	/**
+	 * Write one row of a region of the last frame to a sink
+	 * @param region		the region
+	 * @param row			the row of the region, from 0
+	 * @param out			the sink
+	 * @return				the sink
+	 * @throws IOException		if the sink does
+	 */
+	public <A extends Appendable> A appendRow(Region region, int row, A out) throws IOException {
+		int start = (region.top + row) * width + region.left;
+		for (int i = start; i < start + region.width; i++)
+			out.append(frame[i]);
+		return out;
+	}
+
+	/**
+	 * @return		a copy of the last frame
+	 */
+	public RasterPicture toRaster() {
+		return RasterPicture.wrap(depth, width, frame.clone());
+	}
+
+	/**
+	 * @return		a copy of the last frame as a list picture, the same as Game.display() gives
+	 */
+	public Picture toPicture() {
+		return toRaster().toPicture();
+	}
+}
@@ -0,0 +1,551 @@
+package puzzle;
+
+/**
+ * A persistent list of unboxed chars with the same Haskell-style API as List.
+ * Values are packed into chunks of up to 32 chars: each cell holds a slice of a char array and
+ * a reference to the rest of the list, so a line of n chars costs about n/32 objects rather
+ * than n cons cells plus n Character references. tail() and drop() share the chunk they start in.
+ */
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+public final class CharList {
+
+	/** A function from char to char */
+	@FunctionalInterface
+	public interface CharUnaryOperator {
+		char applyAsChar(char c);
+	}
+
+	/** A predicate on a char */
+	@FunctionalInterface
+	public interface CharPredicate {
+		boolean test(char c);
+	}
+
+	/** A function from two chars to a char */
+	@FunctionalInterface
+	public interface CharBinaryOperator {
+		char applyAsChar(char a, char b);
+	}
+
+	/** A function from a value and a char to a value, for foldl */
+	@FunctionalInterface
+	public interface ObjCharFunction<F> {
+		F apply(F acc, char c);
+	}
+
+	/** A function from a char and a value to a value, for foldr */
+	@FunctionalInterface
+	public interface CharObjFunction<F> {
+		F apply(char c, F acc);
+	}
+
+
+	private static final int CHUNK = 32;
+	private static final CharList EMPTY = new CharList(new char[0], 0, 0, null, null);
+
+	/** This cell holds values[offset .. offset+count), followed by rest */
+	private final char[] values;
+	private final int offset, count, size;
+	private final CharList rest;
+	/**
+	 * For a chunk made by cons, which fills it from the back: the lowest index that a cell
+	 * holds, shared by every cell over the chunk. The slot below it is free for the next
+	 * cons onto that cell. null for chunks that cons must not write into
+	 */
+	private final AtomicInteger front;
+
+	private CharList(char[] values, int offset, int count, CharList rest, AtomicInteger front) {
+		this.values = values;
+		this.offset = offset;
+		this.count = count;
+		this.rest = rest;
+		this.front = front;
+		this.size = count + (rest == null ? 0 : rest.size);
+	}
+
+	/**
+	 * Accumulates chars and then builds a list whose chunks are slices of one shared array
+	 */
+	static final class Builder {
+		private char[] buffer = new char[CHUNK];
+		private int n = 0;
+
+		Builder add(char x) {
+			if (n == buffer.length)
+				buffer = Arrays.copyOf(buffer, n * 2);
+			buffer[n++] = x;
+			return this;
+		}
+
+		CharList buildOnto(CharList tail) {
+			char[] values = Arrays.copyOf(buffer, n);
+			CharList xs = tail;
+			for (int end = n; end > 0; end -= CHUNK) {
+				int start = Integer.max(0, end - CHUNK);
+				xs = new CharList(values, start, end - start, xs.isEmpty() ? null : xs, null);
+			}
+			n = 0;
+			return xs;
+		}
+
+		CharList build() {
+			return buildOnto(EMPTY);
+		}
+	}
+
+	/*
+	 * Static methods that generate lists
+	 */
+
+	/**
+	 * Create a new empty list
+	 * @return		[]
+	 */
+	public static CharList emptyCharList() {
+		return EMPTY;
+	}
+
+	/**
+	 * Chunks made by cons are filled from the back, so that x can go in the free slot in front
+	 * of the first chunk of xs, which is then shared rather than copied. Only the first cons
+	 * onto a given cell can take the slot; any other, and a cons onto a full chunk or one made
+	 * by a builder, starts a new chunk
+	 * @param x			the head of the new list
+	 * @param xs		the tail of the new list
+	 * @return			the new list (x:xs)
+	 */
+	public static CharList cons(char x, CharList xs) {
+		if (xs.front != null && xs.offset > 0 && xs.front.compareAndSet(xs.offset, xs.offset - 1)) {
+			xs.values[xs.offset - 1] = x;
+			return new CharList(xs.values, xs.offset - 1, xs.count + 1, xs.rest, xs.front);
+		}
+		char[] values = new char[CHUNK];
+		values[CHUNK - 1] = x;
+		return new CharList(values, CHUNK - 1, 1, xs.isEmpty() ? null : xs, new AtomicInteger(CHUNK - 1));
+	}
+
+	/**
+	 * Create a list from the given values
+	 * @param xs		the chars x0,x1,x2...
+	 * @return			the list x0:x1:x2...
+	 */
+	public static CharList of(char... xs) {
+		Builder b = new Builder();
+		for (char x : xs)
+			b.add(x);
+		return b.build();
+	}
+
+	/**
+	 * Copy the chars of a string into a packed list
+	 * @param s		the string to be converted
+	 * @return		the list of its chars
+	 */
+	public static CharList fromString(CharSequence s) {
+		Builder b = new Builder();
+		for (int i = 0; i < s.length(); i++)
+			b.add(s.charAt(i));
+		return b.build();
+	}
+
+	/**
+	 * Convert a list of boxed characters
+	 * @param list		the list x0:x1:x2...
+	 * @return			the corresponding unboxed list
+	 */
+	public static CharList fromList(List<Character> list) {
+		Builder b = new Builder();
+		for (Character x : list)
+			b.add(x);
+		return b.build();
+	}
+
+	/**
+	 * Generate a list from multiple copies of the same element
+	 * @param n		the number of copies
+	 * @param x		the item to be replicated
+	 * @return		the list [x,x,x,x...] (n times)
+	 */
+	public static CharList repeat(int n, char x) {
+		Builder b = new Builder();
+		for (int i = 0; i < n; i++)
+			b.add(x);
+		return b.build();
+	}
+
+	/*
+	 * Instance methods
+	 */
+
+	/**
+	 * @return		the list of boxed values, for use with the generic List functions
+	 */
+	public List<Character> boxed() {
+		return mapToObj(c -> Character.valueOf((char)c));
+	}
+
+	/**
+	 * Convert the list to a string, copying the chunks straight into the string's buffer
+	 * @return		the string of chars
+	 */
+	public String implode() {
+		StringBuilder sb = new StringBuilder(size);
+		for (CharList xs = this; xs != null && xs.count > 0; xs = xs.rest)
+			sb.append(xs.values, xs.offset, xs.count);
+		return sb.toString();
+	}
+
+	/**
+	 * @return		the values in a new array
+	 */
+	public char[] toArray() {
+		char[] array = new char[size];
+		int i = 0;
+		for (CharList xs = this; xs != null && xs.count > 0; xs = xs.rest) {
+			System.arraycopy(xs.values, xs.offset, array, i, xs.count);
+			i += xs.count;
+		}
+		return array;
+	}
+
+	/**
+	 * Test if a list is empty.
+	 * @return		true if empty, false otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Return the length of a list. This is O(1)
+	 * @return		the number of items
+	 */
+	public int length() {
+		return size;
+	}
+
+	/**
+	 * Return the first item in the list
+	 * @return		nothing if empty, otherwise the first item in the list
+	 */
+	public char head() {
+		if (isEmpty())
+			throw new NoSuchElementException("head");
+		return values[offset];
+	}
+
+	/**
+	 * Return the sublist starting from the second element. This shares the current chunk
+	 * @return		nothing if empty, otherwise the list without the first item
+	 */
+	public CharList tail() {
+		if (isEmpty())
+			throw new NoSuchElementException("tail");
+		return drop(1);
+	}
+
+	/**
+	 * Look up item in list at index (first item is at index zero). Whole chunks are skipped
+	 * @param k		the index
+	 * @return		error if index out of range, otherwise item at index
+	 */
+	public char at(int k) {
+		if (k < 0)
+			throw new IndexOutOfBoundsException("at");
+		if (k >= size)
+			throw new NoSuchElementException("at");
+		CharList xs = this;
+		while (k >= xs.count) {
+			k -= xs.count;
+			xs = xs.rest;
+		}
+		return xs.values[xs.offset + k];
+	}
+
+	/**
+	 * Drop n elements from the front of a list. Whole chunks are skipped
+	 * @param n		the number of elements to drop
+	 * @return		the final subsequence after the first n elements have been removed
+	 */
+	public CharList drop(int n) {
+		if (n <= 0)
+			return this;
+		if (n >= size)
+			return EMPTY;
+		CharList xs = this;
+		while (n >= xs.count) {
+			n -= xs.count;
+			xs = xs.rest;
+		}
+		return n == 0 ? xs : new CharList(xs.values, xs.offset + n, xs.count - n, xs.rest, xs.front);
+	}
+
+	/**
+	 * Take n elements from the front of a list
+	 * @param n		the number of elements to take
+	 * @return		the initial subsequence of length &le; n
+	 */
+	public CharList take(int n) {
+		if (n >= size)
+			return this;
+		Builder b = new Builder();
+		for (CharList xs = this; n > 0; xs = xs.rest)
+			for (int i = xs.offset; i < xs.offset + xs.count && n > 0; i++, n--)
+				b.add(xs.values[i]);
+		return b.build();
+	}
+
+	/**
+	 * Initial subsequence while the condition is true
+	 * @param p		the condition each value must pass
+	 * @return		the initial subsequence of elements that all satisfy p
+	 */
+	public CharList takeWhile(CharPredicate p) {
+		int n = 0;
+		for (CharList xs = this; !xs.isEmpty() && p.test(xs.head()); xs = xs.tail())
+			n++;
+		return take(n);
+	}
+
+	/**
+	 * Final subsequence with all initial elements satisfying the condition dropped
+	 * @param p		the condition each element in the dropped initial sequence must pass
+	 * @return		the final subsequence once the initial elements satisfying p are removed
+	 */
+	public CharList dropWhile(CharPredicate p) {
+		int n = 0;
+		for (CharList xs = this; !xs.isEmpty() && p.test(xs.head()); xs = xs.tail())
+			n++;
+		return drop(n);
+	}
+
+	/**
+	 * Append two lists. This copies this list only; that list is shared
+	 * @return		the two lists joined together
+	 */
+	public CharList append(CharList that) {
+		if (that.isEmpty())
+			return this;
+		Builder b = new Builder();
+		for (char x : toArray())
+			b.add(x);
+		return b.buildOnto(that);
+	}
+
+	/**
+	 * Reverse a list
+	 * @return		the list with the items in the reverse order
+	 */
+	public CharList reverse() {
+		char[] array = toArray();
+		Builder b = new Builder();
+		for (int i = array.length - 1; i >= 0; i--)
+			b.add(array[i]);
+		return b.build();
+	}
+
+	/**
+	 * The items from the list that satisfy the condition in the original order
+	 * @param p		the condition each kept element must satisfy
+	 * @return		the sequence generated from all elements satisfying p in the original order
+	 */
+	public CharList filter(CharPredicate p) {
+		Builder b = new Builder();
+		for (CharList xs = this; xs != null && xs.count > 0; xs = xs.rest)
+			for (int i = xs.offset; i < xs.offset + xs.count; i++)
+				if (p.test(xs.values[i]))
+					b.add(xs.values[i]);
+		return b.build();
+	}
+
+	/**
+	 * Apply a function to each item in the list
+	 * @param f		the function to apply to each element
+	 * @return		the transformed list
+	 */
+	public CharList map(CharUnaryOperator f) {
+		Builder b = new Builder();
+		for (CharList xs = this; xs != null && xs.count > 0; xs = xs.rest)
+			for (int i = xs.offset; i < xs.offset + xs.count; i++)
+				b.add(f.applyAsChar(xs.values[i]));
+		return b.build();
+	}
+
+	/**
+	 * Apply a function to each item in the list, giving a list of objects. Each char is widened
+	 * @param f		the function to apply to each element
+	 * @return		the transformed list
+	 */
+	public <F> List<F> mapToObj(IntFunction<F> f) {
+		List.Builder<F> b = new List.Builder<F>();
+		for (CharList xs = this; xs != null && xs.count > 0; xs = xs.rest)
+			for (int i = xs.offset; i < xs.offset + xs.count; i++)
+				b.add(f.apply(xs.values[i]));
+		return b.build();
+	}
+
+	/**
+	 * Returns true if all elements in the list satisfy the condition
+	 * @param p		the condition each element must satisfy
+	 * @return		true if all elements satisfy p, else false
+	 */
+	public boolean all(CharPredicate p) {
+		for (CharList xs = this; xs != null && xs.count > 0; xs = xs.rest)
+			for (int i = xs.offset; i < xs.offset + xs.count; i++)
+				if (!p.test(xs.values[i]))
+					return false;
+		return true;
+	}
+
+	/**
+	 * Returns true if any elements in the list satisfy the condition
+	 * @param p		the condition each element must satisfy
+	 * @return		true if any element satisfies p, else false
+	 */
+	public boolean any(CharPredicate p) {
+		return !all(c -> !p.test(c));
+	}
+
+	/**
+	 * Reduce a list by applying a binary operator between all elements bracketing to the left
+	 * foldl op accumulator [x1, x2,... , xk] = (((accumulator op x1) op x2) ... op xk)
+	 * @param op				the operator to apply between elements
+	 * @param accumulator		the accumulator value (and the initial left value)
+	 * @return					the value generated by reducing the list
+	 */
+	public <F> F foldl(ObjCharFunction<F> op, F accumulator) {
+		F acc = accumulator;
+		for (CharList xs = this; xs != null && xs.count > 0; xs = xs.rest)
+			for (int i = xs.offset; i < xs.offset + xs.count; i++)
+				acc = op.apply(acc, xs.values[i]);
+		return acc;
+	}
+
+	/**
+	 * Reduce a list by applying a binary operator between all elements bracketing to the left
+	 * foldl1 op [x1, x2,... , xk] = ((x1 op x2) op x3) ... op xk
+	 * @param op				the operator to apply between elements
+	 * @return					the value generated by reducing the list
+	 */
+	public char foldl1(CharBinaryOperator op) {
+		if (isEmpty())
+			throw new UnsupportedOperationException("foldl1 emptylist");
+		char acc = head();
+		for (CharList xs = this; xs != null && xs.count > 0; xs = xs.rest)
+			for (int i = xs == this ? xs.offset + 1 : xs.offset; i < xs.offset + xs.count; i++)
+				acc = op.applyAsChar(acc, xs.values[i]);
+		return acc;
+	}
+
+	/**
+	 * Reduce a list by applying a binary operator between all elements bracketing to the right
+	 * foldr op lastElement [x1, x2,... , xk] = x1 op (x2 op (... (xk op lastElement)...))
+	 * @param op				the operator to apply between elements
+	 * @param lastElement		the last element in the reduction
+	 * @return					the value generated by reducing the list
+	 */
+	public <F> F foldr(CharObjFunction<F> op, F lastElement) {
+		char[] array = toArray();
+		F acc = lastElement;
+		for (int i = array.length - 1; i >= 0; i--)
+			acc = op.apply(array[i], acc);
+		return acc;
+	}
+
+	/**
+	 * Reduce a list by applying a binary operator between all elements bracketing to the right
+	 * foldr1 op [x1, x2,... , xk] = x1 op (x2 op (...(x[k-1] op xk)...)
+	 * @param op				the operator to apply between elements
+	 * @return					the value generated by reducing the list
+	 */
+	public char foldr1(CharBinaryOperator op) {
+		if (isEmpty())
+			throw new UnsupportedOperationException("foldr1 emptylist");
+		char[] array = toArray();
+		char acc = array[array.length - 1];
+		for (int i = array.length - 2; i >= 0; i--)
+			acc = op.applyAsChar(array[i], acc);
+		return acc;
+	}
+
+	/**
+	 * Apply a binary operator to corresponding elements in two lists
+	 * The length of the result is the length of the shortest input list
+	 * @param that		the list to zip with this
+	 * @param op		the operator to apply to corresponding items
+	 * @return			the new list of items formed from the operator applied to corresponding pairs
+	 */
+	public CharList zipWith(CharList that, CharBinaryOperator op) {
+		char[] xs = this.toArray(), ys = that.toArray();
+		Builder b = new Builder();
+		for (int i = 0; i < Integer.min(xs.length, ys.length); i++)
+			b.add(op.applyAsChar(xs[i], ys[i]));
+		return b.build();
+	}
+
+	/**
+	 * Place an item in between elements in a list
+	 * e.g. [x1, x2, x3, ...].intersperse(sep) = [x1, sep, x2, sep, x3, sep, ...]
+	 * @param sep		the separator item
+	 * @return			the list with the separator interspersed between items
+	 */
+	public CharList intersperse(char sep) {
+		Builder b = new Builder();
+		for (CharList xs = this; xs != null && xs.count > 0; xs = xs.rest)
+			for (int i = xs.offset; i < xs.offset + xs.count; i++) {
+				if (xs != this || i > xs.offset)
+					b.add(sep);
+				b.add(xs.values[i]);
+			}
+		return b.build();
+	}
+
+	/**
+	 * Group a list into sublists of size n. Each sublist is copied into its own chunks
+	 * @param n			the size of each sublist (except possibly the last which may be shorter)
+	 * @return			the list of n-sized sublists
+	 */
+	public List<CharList> group(int n) {
+		if (n<1)
+			throw new IllegalArgumentException("group(n): n must be > 0");
+		List.Builder<CharList> b = new List.Builder<CharList>();
+		for (CharList xs = this; !xs.isEmpty(); xs = xs.drop(n))
+			b.add(xs.take(n));
+		return b.build();
+	}
+
+	/**
+	 * Perform a structural equality check (same elements in same order).
+	 */
+	@Override public boolean equals(Object that) {
+		return this == that || (that instanceof CharList
+				&& ((CharList)that).size == size && Arrays.equals(toArray(), ((CharList)that).toArray()));
+	}
+
+	/**
+	 * A structural hash consistent with equals, and with List.hashCode() of the boxed list
+	 * (Character.hashCode() is the char value)
+	 */
+	@Override public int hashCode() {
+		char[] array = toArray();
+		int h = 1;
+		for (int i = array.length - 1; i >= 0; i--)
+			h = 31 * h + array[i];
+		return h;
+	}
+
+	/**
+	 * Convert a list to a string for, e.g., printing
+	 */
+	@Override public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		for (char x : toArray())
+			sb.append(sb.length() > 1 ? "," : "").append(x);
+		return sb.append(']').toString();
+	}
+}
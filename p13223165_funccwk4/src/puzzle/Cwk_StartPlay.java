@@ -1,5 +1,9 @@
 package puzzle;
 
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
 import java.util.Scanner;
 import java.util.stream.Stream;
 
@@ -10,6 +14,22 @@ import java.util.stream.Stream;
  */
 public class Cwk_StartPlay {
 
+	/** The lines written below the board before it is drawn again: the moves, a blank, the move typed, an error */
+	private static final int PROMPT_LINES = 4;
+
+	/**
+	 * The console, written a whole frame at a time; on an ANSI terminal only the changes are sent,
+	 * unless the board and the prompts are too tall for it
+	 */
+	private static final TerminalWriter console = new TerminalWriter(
+			Channels.newChannel(new FileOutputStream(FileDescriptor.out)),
+			TerminalWriter.ansiSupported(),
+			"\n\n" + System.lineSeparator(),
+			TerminalWriter.terminalRows() - PROMPT_LINES);
+	
+	/** Keeps the last board drawn, so a move only redraws the two tiles it swaps */
+	private static final BoardRenderer renderer = new BoardRenderer();
+
 	/**
 	 * Main method to begin the game. Creates the Scanner for input, then uses a Stream for iteration, 
 	 * calling startNewGame() method of the Game class which returns the List of Tiles/Board into the arguments
@@ -65,7 +85,7 @@ public class Cwk_StartPlay {
 		}
 		
 		//Display the board
-		System.out.println(Game.display(board) + "\n\n");
+		show(board);
 
 		
 		//Check if Complete
@@ -100,6 +120,27 @@ public class Cwk_StartPlay {
 		
 		
 	}
+
+	/**
+	 * Prints a picture of the board followed by two blank lines. The renderer redraws the tiles
+	 * that have changed since the last board, and the frame is written to the console with a
+	 * single channel write. On an ANSI terminal with room for the board and the prompts, only
+	 * the chars that changed are sent, with cursor moves, and the prompts below the board are
+	 * cleared; otherwise the whole frame is printed as before. System.out is flushed first so any prompt it is holding comes out
+	 * before the board.
+	 * @param board The List of Tiles to print
+	 */
+	private static void show(List<Tile> board) {
+		renderer.render(board);
+		
+		System.out.flush();
+		try {
+			console.show(renderer.toRaster());
+		}
+		catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
 }
 
 
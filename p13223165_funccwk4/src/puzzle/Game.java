@@ -1,15 +1,16 @@
 package puzzle;
 
-import static puzzle.List.streamToList;
 import static puzzle.Picture.*;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
 import java.nio.file.Paths;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Random;
-import java.util.function.IntPredicate;
+import java.util.WeakHashMap;
 import java.util.function.UnaryOperator;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -40,12 +41,24 @@ public class Game {
 	/** Increment e.g. 0..1..2..3.. */
 	private static UnaryOperator<Integer> increment = n -> n + 1;
 	
+	/** The ASCII pictures, loaded from the compiled atlas on the first game and kept after that */
+	private static GlyphAtlas glyphs;
+	
+	/** Number of cells in each row of the displayed grid */
+	static final int COLUMNS = 3;
+	
+	/** Width of each cell of the displayed grid, its frame on the right included */
+	static final int CELL_WIDTH = 15;
+	
+	/** The drawn cell of each Tile, made the first time it is shown; dropped with the Tile */
+	private static final Map<Tile, LazyPicture> cells = Collections.synchronizedMap(new WeakHashMap<>());
+	
 	/* *******************************************************************************
 	 * 									Public Methods
 	 *********************************************************************************/
 	/**
 	 * Starts the game by returning the list of tiles necessary for the game to start, 
-	 * It sets up the list by initiating the processes of mapping the picture to a name, 
+	 * It sets up the list by loading the atlas of pictures by name, 
 	 * and then creating the tiles consisting of that picture, which contains further set-ups, 
 	 * such as randomising the list. This happens behind the scenes, removing the workload for the
 	 * 'client'/Play class.
@@ -53,10 +66,10 @@ public class Game {
 	 */
 	public static List<Tile> startNewGame() {
 		//Setup the ASCII art seeded from text file
-		final HashMap<String, Picture> picmap = setPicturesToMap();
+		final GlyphAtlas pictures = loadPictures();
 		
 		//Create a 'board' with random placement
-		final List<Tile> board = setTilesToBoard(picmap);
+		final List<Tile> board = setTilesToBoard(pictures);
 		
 		//Return the board
 		return board;
@@ -68,30 +81,18 @@ public class Game {
 	 * It applies the design-elements of frames at relevant points to get a coherent-looking structure
 	 * exclusively using higher-order functions. The list is grouped into three's, and then piled on top of
 	 * each other via the methods in the Picture library, and that Picture is returned.
+	 * The composition is done with LazyPicture, which records the layout and draws the whole
+	 * grid in one pass at the end, rather than making a new Picture at every step.
+	 * To redraw only the tiles that a move changes, use a BoardRenderer instead.
 	 * @param board The List of Tiles to be printed
 	 * @return The Picture grid-representation of the board
 	 */
 	public static Picture display(List<Tile> board) {
-		//Fix the width of each tile (height is already same)
-		//Group each three Pictures into a List of a List of Pictures
-		//Then 'join' side-by-side each List of Picture into a single Picture
-		//Frame at certain points to make a decent-looking display
-		List<Picture> rows = board
-			.map(tile -> tile.fixWidth(14, CTR, ' '))
-			.map(tile -> tile.rightFrame())
-			.group(3)
-			.map(group -> group.map(tile -> tile.topFrame()))
-			.map(list -> Picture.spread(list, CTR));
+		//Lay each tile out in its framed cell
+		List<LazyPicture> cells = board.map(Game::cell);
 		
-		//Take each 'row' in the List of Pictures, and stack them on top of each other
-		//And add final frames
-		Picture grid = Picture
-				.stack(rows.group(rows.length()).at(0), Picture.CTR)
-				.bottomFrame()
-				.leftFrame();
-		
-		//Return the final picture
-		return grid;
+		//Draw the layout once, and return the final picture
+		return grid(cells).toPicture();
 	}
 	
 	/**
@@ -206,31 +207,43 @@ public class Game {
 		return boardSwapped;
 	}
 	
+	/**
+	 * Applies a whole sequence of moves to the board in one pass. The moves are the
+	 * characters the client accepts: u, d, l and r, in either case. Each one follows the
+	 * same rules as moveUp(), moveDown(), moveLeft() and moveRight(), so a move that is
+	 * invalid for the board at that point leaves it as it is. The board is held in a
+	 * ListZipper whose cursor follows the empty tile, so each move only walks the cells
+	 * between the empty tile and the tile it swaps with, and the list is rebuilt once at the end.
+	 * @param board The List of Tiles representing the board
+	 * @param moves The moves to make, in order
+	 * @return The List of Tiles after every move has been made.
+	 */
+	public static List<Tile> applyMoves(List<Tile> board, List<Character> moves) {
+		//Put the cursor on the empty tile
+		final ListZipper<Tile> start = ListZipper.fromList(board).moveTo(findZero(board));
+		
+		//Slide the empty tile for each move, keeping the cursor on it
+		//Then rebuild the list
+		return moves
+				.foldl((zipper, move) -> slideEmpty(zipper, move), start)
+				.toList();
+	}
+	
 	/**
 	 * Checks if the List of Tiles is complete as to the rules of the 8-game
 	 * i.e. ordering will be 1..2..3..4..5..6..7..8..empty..,.
-	 * Uses a stream to make a list 0..7, and uses those values as the index to check
-	 * that Tile's 1..8 are in order. If a Tile is out of place, it filters out that
-	 * Tile, and at the end checks that all 8 elements remain in the stream, implying it is complete.
+	 * Takes the first 8 Tiles of the board, maps each to its number, and checks that
+	 * those numbers are the list 1..8, implying it is complete.
 	 * @param board The List of Tiles representing a grid board to be checked for completeness.
 	 * @return True if the board is complete (1..8, 0), else false
 	 */
 	public static boolean isComplete(List<Tile> board) {
-		//Generate a Stream of 0..7
-		final Stream<Integer> a = Stream.iterate(0, increment).limit(8);
-		
-		//Check that the tile at index i equals i+1, otherwise remove from list
-		//i.e. index 0 is Tile 1
-		final long result = 
-				a
-				.filter(value -> board.at(value).getNumber() == value+1)
-				.count();
-
-		//If all elements remain in the stream, then board is complete
-		if(result == 8)
-			return true;
-		else
-			return false;
+		//Map the first 8 Tiles to their numbers
+		//The board is complete if they are 1..8 in order, i.e. index 0 is Tile 1
+		return board
+				.take(8)
+				.map(tile -> tile.getNumber())
+				.equals(List.rangeClosed(1, 8));
 	}
 	
 	
@@ -239,39 +252,69 @@ public class Game {
 	 *********************************************************************************/
 	
 	/**
-	 * A helper method which processes the mapping of a name to an ASCII image. 
-	 * The ASCII image is from the pictures.txt file, which contains one line of a
-	 * name, and seven lines of ASCII art. This is therefore grouped by every 8 lines, 
-	 * and the first String in the List of Strings is assigned as the key of the map, and the
-	 * tail/remaining strings as the Value in a Picture representation. This hashmap is then
-	 * returned to be used by another method.
-	 * @return The Hashmap of Pictures and its numerical name as the key.
+	 * A helper method for display() and BoardRenderer which lays out the cell of one tile:
+	 * the tile with its width fixed, and the frame on its right and top. Each cell of the
+	 * board is CELL_WIDTH characters wide, and one line deeper than its tile.
+	 * The cell is drawn the first time a Tile is shown and kept in the cells map while the
+	 * Tile is in use, so a frame only copies the cells.
+	 * @param tile The Tile to lay out
+	 * @return The layout of the Tile's cell
 	 */
-	private static HashMap<String, Picture> setPicturesToMap() {
-		//Create a HashMap object
-		final HashMap<String, Picture> picmap = new HashMap<>();
+	static LazyPicture cell(Tile tile) {
+		//Fix the width of the tile (height is already same)
+		//Frame at certain points to make a decent-looking display
+		//Draw it once, and keep only the drawn chars, so the map does not keep the Tile alive
+		return cells.computeIfAbsent(tile, t -> LazyPicture.of(
+				LazyPicture.of(t)
+				.fixWidth(CELL_WIDTH - 1, CTR, ' ')
+				.rightFrame()
+				.topFrame()
+				.toRaster()));
+	}
+	
+	/**
+	 * A helper method for display() and BoardRenderer which lays the cells of the board out
+	 * as a grid. Cell i goes in row i/COLUMNS and column i%COLUMNS, and the grid has a frame
+	 * on its left and bottom, so cell i starts at column 1 + CELL_WIDTH * (i%COLUMNS).
+	 * @param cells The cells made by cell(), in board order
+	 * @return The layout of the whole board
+	 */
+	static LazyPicture grid(List<LazyPicture> cells) {
+		//Group each row's cells into a List of a List of Pictures
+		//Then 'join' side-by-side each List of Picture into a single Picture
+		List<LazyPicture> rows = cells
+				.group(COLUMNS)
+				.map(list -> LazyPicture.spread(list, CTR));
 		
-		//Get all the lines from the pictures text file
-		//Group them per every 8 line
-		//The 'key' is the first line of each group, which is the name/description
-		//The value is the Picture object it creates
-		try (Stream<String> lines = Files.lines(Paths.get("dat/pictures.txt"))) {
-			
-			streamToList(lines)
-				.group(8)
-				.listToStream()
-				.forEach(group -> 
-					picmap.put(group.head(), 
-					new Picture(group.tail().map(Picture::stringToListOfCharacters)))
-				);
-			
-		} 
-		catch (IOException e) {
-			e.printStackTrace();
+		//Take each 'row' in the List of Pictures, and stack them on top of each other
+		//And add final frames
+		return LazyPicture
+				.stack(rows, LazyPicture.CTR)
+				.bottomFrame()
+				.leftFrame();
+	}
+	
+	/**
+	 * A helper method which loads the ASCII images by name. The ASCII image is from the
+	 * pictures.txt file, which contains one line of a name, and seven lines of ASCII art.
+	 * That file is compiled once into a binary atlas next to it (compiled again if the text
+	 * file changes), which is memory-mapped, so no text is parsed to look a picture up.
+	 * The atlas is loaded on the first game and kept for every game after it.
+	 * @return The atlas of Pictures with their numerical names.
+	 */
+	private static synchronized GlyphAtlas loadPictures() {
+		if (glyphs == null) {
+			//Open the atlas of the text file, whose glyphs are a name line and 7 lines of art each
+			try {
+				glyphs = GlyphAtlas.open(Paths.get("dat/pictures.txt"), 8, Paths.get("dat/pictures.atlas"));
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
 		}
 		
-		//Return the hashmap
-		return picmap;
+		//Return the atlas
+		return glyphs;
 	}
 	
 	/**
@@ -280,34 +323,34 @@ public class Game {
 	 * List of Integers for the Tiles to be mapped to. The generation of this List includes
 	 * calling the methods to generate random numbers, and calculate its solvability.
 	 * This essentially mimics loops, and shows off functional techniques such as
-	 * infinite streams, higher-order functions and laziness; a Stream of a 
-	 * lists of Integers will be created until a list is 'solvable'. That list is then
+	 * infinite lists, higher-order functions and laziness; a LazyList of 
+	 * lists of Integers is evaluated until a list is 'solvable'. That list is then
 	 * used to map the values to the 'numbers' of the Tiles, which is also used to retrieve
-	 * the image from the hashmap.
-	 * @param picmap The hashmap containing the name, and the ASCII art of an image of numbers
+	 * the image from the atlas.
+	 * @param pictures The atlas containing the name, and the ASCII art of an image of numbers
 	 * @return The List of Tiles representing the initial state of the grid board
 	 */
-	private static List<Tile> setTilesToBoard(HashMap<String, Picture> picmap) {
-		//A lazy 'infinite' stream essentially mimicking a while loop
-		//Make a stream of Lists of unique random Integers 0..8
+	private static List<Tile> setTilesToBoard(GlyphAtlas pictures) {
+		//A lazy 'infinite' list essentially mimicking a while loop
+		//Make a lazy list of Lists of unique random Integers 0..8
 		//Then perform the method to check if it is solvable and keep the list if true
-		//Then gets the first element
-		List<Integer> randomSolvableNumbers = 
-				Stream.iterate(0, increment)
+		//Then gets the first element; only the lists up to it are ever made
+		IntList randomSolvableNumbers = 
+				LazyList.iterate(increment, 0)
 					.map(numb -> randomZeroToEight())
-					.filter(list -> isSolvable(list)==true)
-					.limit(1)
-					.findFirst()
-					.get();
+					.filter(list -> isSolvable(list))
+					.head();
 		
 		
 		//Take the list of random numbers 0..8
-		//Create a Stream of Tile's using the index to get the name of the picture from the hashmap
+		//Create a Stream of Tile's using the index to get the name of the picture from the atlas
+		//The Tiles are the canonical ones, shared with every other game
 		List<Tile> associated = 
 				randomSolvableNumbers
-				.map(numb -> 
-					new Tile(
-							picmap.get(NUMBERS.values()[numb].toString()).toString(), 
+				.mapToObj(numb -> 
+					Tile.of(
+							pictures,
+							NUMBERS.values()[numb].toString(), 
 							numb)
 					);
 		
@@ -320,19 +363,18 @@ public class Game {
 	/**
 	 * A helper method which generates a stream of numbers 0 to 8 in a random order.
 	 * It uses the Random() class to generate a list of integers between 0 and 8 inclusive,
-	 * then calls distinct() to make sure there are no duplicates. This stream of Integer
-	 * objects are then converted to a List.
-	 * @return A List of random, non-repeat numbers between 0 and 8.
+	 * then calls distinct() to make sure there are no duplicates. This stream of ints
+	 * is then collected into an unboxed IntList.
+	 * @return An IntList of random, non-repeat numbers between 0 and 8.
 	 */
-	private static List<Integer> randomZeroToEight() {
-		//Produce a stream of distinct Integers 0..8 inclusive
-		Stream<Integer> random0to8 = 
+	private static IntList randomZeroToEight() {
+		//Produce a stream of distinct ints 0..8 inclusive
+		IntStream random0to8 = 
 				new Random().ints(0,9).distinct()
-				.limit(9)
-				.mapToObj(n -> n);
+				.limit(9);
 		
 		//Return as a list
-		return List.streamToList(random0to8);
+		return IntList.of(random0to8.toArray());
 	}
 	
 	/**
@@ -344,17 +386,18 @@ public class Game {
 	 * which are smaller than the 'current element', for each 'element'. You then add all those
 	 * values, and if the sum is even, then it is solvable, otherwise any odd value for a 3x3 board
 	 * is unsolvable.
-	 * @param numbersAsIs A list of random and distinct Integers (including the 0) between 0..8
+	 * @param numbersAsIs A list of random and distinct ints (including the 0) between 0..8
 	 * @return true if the sum of inversions is even, false if odd.
 	 */
-	private static boolean isSolvable(List<Integer> numbersAsIs) {
+	private static boolean isSolvable(IntList numbersAsIs) {
 		//Create an array to store the count of the inversions for each index
 		//Can use int variable too but useful for debugging
 		final int[] countInversions = {0,0,0,0,0,0,0,0};
 		
 		//Remove 0 as it will always be 0, hence not included
-		List<Integer> numbsWithoutZero = numbersAsIs
-										.filter(numb -> numb!=0);
+		final int[] numbsWithoutZero = numbersAsIs
+										.filter(numb -> numb!=0)
+										.toArray();
 		
 		//Create an index of 0..7
 		//For each 'loop', create a sublist of the elements after it
@@ -363,9 +406,9 @@ public class Game {
 		Stream.iterate(0, increment).limit(7)
 		.forEach(index -> {
 			
-			numbsWithoutZero.toArrayList().subList(index+1, 8).stream()
+			Arrays.stream(numbsWithoutZero, index+1, 8)
 			.forEach(value ->{
-				if(numbsWithoutZero.toArrayList().get(index) > value) countInversions[index]++;
+				if(numbsWithoutZero[index] > value) countInversions[index]++;
 			});
 			
 		});
@@ -383,50 +426,87 @@ public class Game {
 	}
 
 	/**
-	 * A helper method to swap two elements within a List of Tiles using Streams. The
-	 * two index's are given, in addition to the List 'passed-by-value'. A Stream
-	 * of Integers is generated to act as the index for the list, and if's are
-	 * used to map it to the Tile at that position, or the swapped tile at the 'other'
-	 * index. The stream is converted to a List and returned.
+	 * A helper method to swap two elements within a List of Tiles. The two index's are
+	 * given, in addition to the List 'passed-by-value'. A ListZipper cursor is moved to the
+	 * first position and then on to the second, each position is set to the other's Tile, and
+	 * the list is rebuilt. The cells after the second position are shared with the original list.
 	 * @param index1 Position of the first Tile to be swapped
 	 * @param index2 Position of the second Tile to be swapped
 	 * @param board The List of Tile's which is to be changed.
 	 * @return The List of Tile's with the index's changed.
 	 */
 	private static List<Tile> swapElements(int index1, int index2, List<Tile> board) {
-		//Make a Stream of 0..8
-		//For each index, map to its associated tile excluding the 'swap' tiles...
-		//..which maps to the 'to be swapped with' tile
-		Stream<Tile> s = IntStream.range(0, 9)
-		.mapToObj(index -> {
-			if(index==index1) return board.at(index2);
-			else if(index==index2) return board.at(index1);
-			else return board.at(index);
-		});
+		//Move a cursor to each position in turn
+		final ListZipper<Tile> first = ListZipper.fromList(board).moveTo(Integer.min(index1, index2));
+		final ListZipper<Tile> second = first.moveTo(Integer.max(index1, index2));
 		
+		//Set each position to the 'to be swapped with' tile
 		//Returns the List
-		return List.streamToList(s);
+		return second
+				.set(first.focus())
+				.moveTo(first.index())
+				.set(second.focus())
+				.toList();
+	}
+	
+	/**
+	 * A helper method for applyMoves() which makes one move on a board held in a zipper
+	 * focused on the empty tile. It works out where the empty tile would go using the same
+	 * checks as the single move methods, swaps the two tiles, and leaves the cursor on the
+	 * empty tile in its new position.
+	 * @param zipper The board, with the cursor on the empty tile
+	 * @param move The move to make: u, d, l or r, in either case
+	 * @return The board after the move, with the cursor on the empty tile
+	 */
+	private static ListZipper<Tile> slideEmpty(ListZipper<Tile> zipper, char move) {
+		final int zeroPosition = zipper.index();
+		
+		//Find the position the empty tile moves to; the same position if the move is invalid
+		final int target;
+		switch (Character.toLowerCase(move)) {
+		case 'u':
+			target = zeroPosition >= ((3 * 3) - 3) ? zeroPosition : zeroPosition + 3;
+			break;
+		case 'd':
+			target = zeroPosition < 3 ? zeroPosition : zeroPosition - 3;
+			break;
+		case 'l':
+			target = zeroPosition % 3 == 2 ? zeroPosition : zeroPosition + 1;
+			break;
+		case 'r':
+			target = zeroPosition % 3 == 0 ? zeroPosition : zeroPosition - 1;
+			break;
+		default:
+			throw new IllegalArgumentException("Incorrect move '" + move + "', use only u, d, l and r");
+		}
+		
+		//Swap the empty tile with the tile at the target, and follow it there
+		final ListZipper<Tile> atTarget = zipper.moveTo(target);
+		return atTarget
+				.set(zipper.focus())
+				.moveTo(zeroPosition)
+				.set(atTarget.focus())
+				.moveTo(target);
 	}
 	
 	/**
 	 * A helper method to find the position of the '0'/empty tile in a List of Tiles
-	 * for the game. Using the IntStream as an index, it checks if the tile at that 
-	 * position in the list equals 0 by filtering it, keeping only the index that
-	 * return true, and retrieving it as an int.
+	 * for the game. It takes the Tiles while they are not 0, and the number of Tiles
+	 * taken is the position of the Tile that stopped it.
 	 * @param board The List of Tiles to be searched for a 0 representation.
 	 * @return The position of the Tile with the number 0.
 	 */
 	private static int findZero(List<Tile> board) {
-		//Predicate to check if element equals 0
-		IntPredicate isTileZero = index -> board.at(index).getNumber() == 0;
+		//Take the Tiles before the first Tile numbered 0, and count them
+		//There should only be one result as values are unique
+		final int position = board
+				.takeWhile(tile -> tile.getNumber() != 0)
+				.length();
 		
-		//Create a stream of values 0..8
-		//If 'Tile' at that index in the 'board' equals zero, then keep the index value
-		//There should only be one result as values are unique, so retrieve
-		return IntStream.range(0, board.length())
-					.filter(isTileZero)
-					.findFirst()
-					.getAsInt();
+		//If every Tile was taken, there is no empty tile
+		if (position == board.length())
+			throw new NoSuchElementException("findZero: no empty tile");
+		return position;
 	}
 
 }
@@ -0,0 +1,282 @@
+package puzzle;
+
+/**
+ * A set of named glyphs compiled from a text file of ASCII art into a compact binary file,
+ * which is memory-mapped when it is loaded. Looking up a glyph reads its chars straight out
+ * of the mapped file; nothing is parsed but the small header.
+ *
+ * The text file is a sequence of groups of lines, as in dat/pictures.txt: the name of the
+ * glyph, then its rows. The atlas file, in big-endian order, is
+ *
+ *	int		magic ('PZGA') and int format version
+ *	long	size and long last-modified time of the text file it was compiled from
+ *	int		number of glyphs, then for each glyph:
+ *				short name length, the name in UTF-8, int offset, int depth, int width
+ *	byte[]	the chars of every glyph, row after row, one byte each (ISO-8859-1); rows are
+ *			left justified with spaces as a Picture's are, and offsets count from here
+ *
+ * open() compiles the atlas the first time it is needed, and again whenever the text file
+ * has changed since, so the atlas never has to be built or shipped separately.
+ */
+
+import static puzzle.List.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+public final class GlyphAtlas {
+
+	private static final int MAGIC = 0x505A4741, VERSION = 1;
+
+	/** Where a glyph is in the data, and its size */
+	private static final class Entry {
+		final int offset, depth, width;
+
+		Entry(int offset, int depth, int width) {
+			this.offset = offset;
+			this.depth = depth;
+			this.width = width;
+		}
+	}
+
+	private final HashMap<String, Entry> entries;
+	private final List<String> names;
+	private final ByteBuffer data;
+
+	private GlyphAtlas(ByteBuffer atlas) {
+		if (atlas.getInt() != MAGIC || atlas.getInt() != VERSION)
+			throw new IllegalArgumentException("GlyphAtlas: not a version " + VERSION + " atlas");
+		atlas.getLong();
+		atlas.getLong();
+		int count = atlas.getInt();
+		entries = new HashMap<String, Entry>(count * 2);
+		Builder<String> order = new Builder<String>();
+		for (int i = 0; i < count; i++) {
+			byte[] name = new byte[atlas.getShort()];
+			atlas.get(name);
+			String key = new String(name, StandardCharsets.UTF_8);
+			entries.put(key, new Entry(atlas.getInt(), atlas.getInt(), atlas.getInt()));
+			order.add(key);
+		}
+		names = order.build();
+		data = atlas.slice();
+	}
+
+	/**
+	 * Load an atlas, compiling it from the text file first if it is missing or out of date.
+	 * If the compiled atlas cannot be written, e.g. because the directory is read-only, it is
+	 * compiled into memory instead
+	 * @param text			the text file of glyphs
+	 * @param linesEach		the number of lines in each group: the name and the rows
+	 * @param atlas			where the compiled atlas is kept
+	 * @return				the atlas
+	 * @throws IOException		if the text file cannot be read
+	 */
+	public static GlyphAtlas open(Path text, int linesEach, Path atlas) throws IOException {
+		if (!isCurrent(atlas, text)) {
+			ByteBuffer compiled = compile(text, linesEach);
+			try {
+				write(compiled.duplicate(), atlas);
+			}
+			catch (IOException e) {
+				return new GlyphAtlas(compiled);
+			}
+		}
+		return load(atlas);
+	}
+
+	/**
+	 * Memory-map a compiled atlas
+	 * @param atlas		the atlas file
+	 * @return			the atlas
+	 * @throws IOException		if the file cannot be read
+	 */
+	public static GlyphAtlas load(Path atlas) throws IOException {
+		try (FileChannel channel = FileChannel.open(atlas, StandardOpenOption.READ)) {
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return new GlyphAtlas(mapped);
+		}
+	}
+
+	/**
+	 * Compile a text file of glyphs into an atlas
+	 * @param text			the text file of glyphs
+	 * @param linesEach		the number of lines in each group: the name and the rows
+	 * @return				the atlas, ready to be written or read
+	 * @throws IOException		if the text file cannot be read
+	 */
+	public static ByteBuffer compile(Path text, int linesEach) throws IOException {
+		List<List<String>> groups = arrayListToList(new ArrayList<String>(Files.readAllLines(text, StandardCharsets.ISO_8859_1)))
+				.group(linesEach);
+		ByteArrayOutputStream header = new ByteArrayOutputStream();
+		ByteArrayOutputStream chars = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(header);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeLong(Files.size(text));
+		out.writeLong(Files.getLastModifiedTime(text).toMillis());
+		out.writeInt(groups.length());
+		for (List<String> group : groups) {
+			List<String> rows = group.tail();
+			int width = rows.foldl((w, row) -> Integer.max(w, row.length()), 0);
+			byte[] name = group.head().getBytes(StandardCharsets.UTF_8);
+			out.writeShort(name.length);
+			out.write(name);
+			out.writeInt(chars.size());
+			out.writeInt(rows.length());
+			out.writeInt(width);
+			for (String row : rows)
+				for (int i = 0; i < width; i++) {
+					char c = i < row.length() ? row.charAt(i) : ' ';
+					if (c >= 0x100)
+						throw new IllegalArgumentException("GlyphAtlas: " + group.head() + " has a char outside ISO-8859-1");
+					chars.write(c);
+				}
+		}
+		out.flush();
+		ByteBuffer atlas = ByteBuffer.allocate(header.size() + chars.size());
+		atlas.put(header.toByteArray()).put(chars.toByteArray()).flip();
+		return atlas;
+	}
+
+	/**
+	 * @return		true if the atlas exists and was compiled from the text file as it is now
+	 */
+	private static boolean isCurrent(Path atlas, Path text) throws IOException {
+		if (!Files.isRegularFile(atlas))
+			return false;
+		try (FileChannel channel = FileChannel.open(atlas, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(24);
+			while (header.hasRemaining() && channel.read(header) >= 0)
+				;
+			header.flip();
+			return header.remaining() == 24
+					&& header.getInt() == MAGIC && header.getInt() == VERSION
+					&& header.getLong() == Files.size(text)
+					&& header.getLong() == Files.getLastModifiedTime(text).toMillis();
+		}
+	}
+
+	/**
+	 * Write a compiled atlas to a temporary file and move it into place, so that a reader
+	 * never maps a half-written atlas
+	 */
+	private static void write(ByteBuffer compiled, Path atlas) throws IOException {
+		Path dir = atlas.toAbsolutePath().getParent();
+		Path temp = Files.createTempFile(dir, "atlas", ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+				while (compiled.hasRemaining())
+					channel.write(compiled);
+			}
+			try {
+				Files.move(temp, atlas, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, atlas, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * @return		the names of the glyphs, in the order of the text file
+	 */
+	public List<String> names() {
+		return names;
+	}
+
+	/**
+	 * @param name		the name of a glyph
+	 * @return			true if the atlas has it
+	 */
+	public boolean contains(String name) {
+		return entries.containsKey(name);
+	}
+
+	/**
+	 * @param name		the name of the glyph
+	 * @return			the entry for it; error if there is none
+	 */
+	private Entry entry(String name) {
+		Entry e = entries.get(name);
+		if (e == null)
+			throw new IllegalArgumentException("GlyphAtlas: no glyph named " + name);
+		return e;
+	}
+
+	/**
+	 * Copy a glyph's chars out of the atlas
+	 * @param e			the glyph
+	 * @param rowEnd	the char to put after each row but the last, or 0 for none
+	 * @return			the chars
+	 */
+	private char[] chars(Entry e, char rowEnd) {
+		int stride = rowEnd == 0 ? e.width : e.width + 1;
+		char[] chars = new char[e.depth == 0 ? 0 : e.depth * stride - (stride - e.width)];
+		for (int row = 0; row < e.depth; row++) {
+			int from = e.offset + row * e.width, to = row * stride;
+			for (int i = 0; i < e.width; i++)
+				chars[to + i] = (char)(data.get(from + i) & 0xff);
+			if (rowEnd != 0 && row < e.depth - 1)
+				chars[to + e.width] = rowEnd;
+		}
+		return chars;
+	}
+
+	/**
+	 * @param name		the name of the glyph
+	 * @return			the glyph with its rows separated by newlines, as Picture.toString() gives it
+	 */
+	public String text(String name) {
+		return new String(chars(entry(name), '\n'));
+	}
+
+	/**
+	 * @param name		the name of the glyph
+	 * @return			the glyph as a raster picture
+	 */
+	public RasterPicture raster(String name) {
+		Entry e = entry(name);
+		return RasterPicture.wrap(e.depth, e.width, chars(e, (char)0));
+	}
+
+	/**
+	 * @param name		the name of the glyph
+	 * @return			the glyph as a list picture
+	 */
+	public Picture picture(String name) {
+		return new Picture(text(name));
+	}
+
+	/**
+	 * Compile an atlas ahead of time, e.g. as a build step:
+	 * GlyphAtlas dat/pictures.txt 8 dat/pictures.atlas
+	 * @param args		the text file, the number of lines in each group, and the atlas file
+	 * @throws IOException		if a file cannot be read or written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 3) {
+			System.err.println("usage: GlyphAtlas <text file> <lines per glyph> <atlas file>");
+			System.exit(2);
+		}
+		ByteBuffer compiled = compile(Paths.get(args[0]), Integer.parseInt(args[1]));
+		write(compiled.duplicate(), Paths.get(args[2]));
+		System.out.println(args[2] + ": " + load(Paths.get(args[2])).names().length() + " glyphs, " + compiled.remaining() + " bytes");
+	}
+}
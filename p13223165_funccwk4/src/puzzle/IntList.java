@@ -0,0 +1,517 @@
+package puzzle;
+
+/**
+ * A persistent list of unboxed ints with the same Haskell-style API as List.
+ * Values are packed into chunks of up to 32 ints: each cell holds a slice of an int array and
+ * a reference to the rest of the list, so a list of n ints costs about n/32 objects rather
+ * than n cons cells plus n Integers. tail() and drop() share the chunk they start in.
+ */
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+public final class IntList {
+
+	private static final int CHUNK = 32;
+	private static final IntList EMPTY = new IntList(new int[0], 0, 0, null, null);
+
+	/** This cell holds values[offset .. offset+count), followed by rest */
+	private final int[] values;
+	private final int offset, count, size;
+	private final IntList rest;
+	/**
+	 * For a chunk made by cons, which fills it from the back: the lowest index that a cell
+	 * holds, shared by every cell over the chunk. The slot below it is free for the next
+	 * cons onto that cell. null for chunks that cons must not write into
+	 */
+	private final AtomicInteger front;
+
+	private IntList(int[] values, int offset, int count, IntList rest, AtomicInteger front) {
+		this.values = values;
+		this.offset = offset;
+		this.count = count;
+		this.rest = rest;
+		this.front = front;
+		this.size = count + (rest == null ? 0 : rest.size);
+	}
+
+	/**
+	 * Accumulates ints and then builds a list whose chunks are slices of one shared array
+	 */
+	static final class Builder {
+		private int[] buffer = new int[CHUNK];
+		private int n = 0;
+
+		Builder add(int x) {
+			if (n == buffer.length)
+				buffer = Arrays.copyOf(buffer, n * 2);
+			buffer[n++] = x;
+			return this;
+		}
+
+		IntList buildOnto(IntList tail) {
+			int[] values = Arrays.copyOf(buffer, n);
+			IntList xs = tail;
+			for (int end = n; end > 0; end -= CHUNK) {
+				int start = Integer.max(0, end - CHUNK);
+				xs = new IntList(values, start, end - start, xs.isEmpty() ? null : xs, null);
+			}
+			n = 0;
+			return xs;
+		}
+
+		IntList build() {
+			return buildOnto(EMPTY);
+		}
+	}
+
+	/*
+	 * Static methods that generate lists
+	 */
+
+	/**
+	 * Create a new empty list
+	 * @return		[]
+	 */
+	public static IntList emptyIntList() {
+		return EMPTY;
+	}
+
+	/**
+	 * Chunks made by cons are filled from the back, so that x can go in the free slot in front
+	 * of the first chunk of xs, which is then shared rather than copied. Only the first cons
+	 * onto a given cell can take the slot; any other, and a cons onto a full chunk or one made
+	 * by a builder, starts a new chunk
+	 * @param x			the head of the new list
+	 * @param xs		the tail of the new list
+	 * @return			the new list (x:xs)
+	 */
+	public static IntList cons(int x, IntList xs) {
+		if (xs.front != null && xs.offset > 0 && xs.front.compareAndSet(xs.offset, xs.offset - 1)) {
+			xs.values[xs.offset - 1] = x;
+			return new IntList(xs.values, xs.offset - 1, xs.count + 1, xs.rest, xs.front);
+		}
+		int[] values = new int[CHUNK];
+		values[CHUNK - 1] = x;
+		return new IntList(values, CHUNK - 1, 1, xs.isEmpty() ? null : xs, new AtomicInteger(CHUNK - 1));
+	}
+
+	/**
+	 * Create a list from the given values
+	 * @param xs		the values x0,x1,x2...
+	 * @return			the list x0:x1:x2...
+	 */
+	public static IntList of(int... xs) {
+		Builder b = new Builder();
+		for (int x : xs)
+			b.add(x);
+		return b.build();
+	}
+
+	/**
+	 * Convert a list of boxed integers
+	 * @param list		the list x0:x1:x2...
+	 * @return			the corresponding unboxed list
+	 */
+	public static IntList fromList(List<Integer> list) {
+		Builder b = new Builder();
+		for (Integer x : list)
+			b.add(x);
+		return b.build();
+	}
+
+	/**
+	 * Return an integer subrange
+	 * @param a		the start value
+	 * @param b		the end value (inclusive)
+	 * @return		[a, a+1, a+2, ..., b]
+	 */
+	public static IntList rangeClosed(int a, int b) {
+		Builder builder = new Builder();
+		for (long i = a; i <= b; i++)
+			builder.add((int)i);
+		return builder.build();
+	}
+
+	/**
+	 * Return an integer subrange
+	 * @param a		the start value
+	 * @param b		the end value (exclusive)
+	 * @return		[a, a+1, a+2, ..., b-1]
+	 */
+	public static IntList range(int a, int b) {
+		Builder builder = new Builder();
+		for (int i = a; i < b; i++)
+			builder.add(i);
+		return builder.build();
+	}
+
+	/**
+	 * Generate a list from multiple copies of the same element
+	 * @param n		the number of copies
+	 * @param x		the item to be replicated
+	 * @return		the list [x,x,x,x...] (n times)
+	 */
+	public static IntList repeat(int n, int x) {
+		Builder b = new Builder();
+		for (int i = 0; i < n; i++)
+			b.add(x);
+		return b.build();
+	}
+
+	/*
+	 * Instance methods
+	 */
+
+	/**
+	 * @return		the list of boxed values, for use with the generic List functions
+	 */
+	public List<Integer> boxed() {
+		return mapToObj(Integer::valueOf);
+	}
+
+	/**
+	 * @return		the values in a new array
+	 */
+	public int[] toArray() {
+		int[] array = new int[size];
+		int i = 0;
+		for (IntList xs = this; xs != null && xs.count > 0; xs = xs.rest) {
+			System.arraycopy(xs.values, xs.offset, array, i, xs.count);
+			i += xs.count;
+		}
+		return array;
+	}
+
+	/**
+	 * Test if a list is empty.
+	 * @return		true if empty, false otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Return the length of a list. This is O(1)
+	 * @return		the number of items
+	 */
+	public int length() {
+		return size;
+	}
+
+	/**
+	 * Return the first item in the list
+	 * @return		nothing if empty, otherwise the first item in the list
+	 */
+	public int head() {
+		if (isEmpty())
+			throw new NoSuchElementException("head");
+		return values[offset];
+	}
+
+	/**
+	 * Return the sublist starting from the second element. This shares the current chunk
+	 * @return		nothing if empty, otherwise the list without the first item
+	 */
+	public IntList tail() {
+		if (isEmpty())
+			throw new NoSuchElementException("tail");
+		return drop(1);
+	}
+
+	/**
+	 * Look up item in list at index (first item is at index zero). Whole chunks are skipped
+	 * @param k		the index
+	 * @return		error if index out of range, otherwise item at index
+	 */
+	public int at(int k) {
+		if (k < 0)
+			throw new IndexOutOfBoundsException("at");
+		if (k >= size)
+			throw new NoSuchElementException("at");
+		IntList xs = this;
+		while (k >= xs.count) {
+			k -= xs.count;
+			xs = xs.rest;
+		}
+		return xs.values[xs.offset + k];
+	}
+
+	/**
+	 * Drop n elements from the front of a list. Whole chunks are skipped
+	 * @param n		the number of elements to drop
+	 * @return		the final subsequence after the first n elements have been removed
+	 */
+	public IntList drop(int n) {
+		if (n <= 0)
+			return this;
+		if (n >= size)
+			return EMPTY;
+		IntList xs = this;
+		while (n >= xs.count) {
+			n -= xs.count;
+			xs = xs.rest;
+		}
+		return n == 0 ? xs : new IntList(xs.values, xs.offset + n, xs.count - n, xs.rest, xs.front);
+	}
+
+	/**
+	 * Take n elements from the front of a list
+	 * @param n		the number of elements to take
+	 * @return		the initial subsequence of length &le; n
+	 */
+	public IntList take(int n) {
+		if (n >= size)
+			return this;
+		Builder b = new Builder();
+		for (IntList xs = this; n > 0; xs = xs.rest)
+			for (int i = xs.offset; i < xs.offset + xs.count && n > 0; i++, n--)
+				b.add(xs.values[i]);
+		return b.build();
+	}
+
+	/**
+	 * Initial subsequence while the condition is true
+	 * @param p		the condition each value must pass
+	 * @return		the initial subsequence of elements that all satisfy p
+	 */
+	public IntList takeWhile(IntPredicate p) {
+		int n = 0;
+		for (IntList xs = this; !xs.isEmpty() && p.test(xs.head()); xs = xs.tail())
+			n++;
+		return take(n);
+	}
+
+	/**
+	 * Final subsequence with all initial elements satisfying the condition dropped
+	 * @param p		the condition each element in the dropped initial sequence must pass
+	 * @return		the final subsequence once the initial elements satisfying p are removed
+	 */
+	public IntList dropWhile(IntPredicate p) {
+		int n = 0;
+		for (IntList xs = this; !xs.isEmpty() && p.test(xs.head()); xs = xs.tail())
+			n++;
+		return drop(n);
+	}
+
+	/**
+	 * Append two lists. This copies this list only; that list is shared
+	 * @return		the two lists joined together
+	 */
+	public IntList append(IntList that) {
+		if (that.isEmpty())
+			return this;
+		Builder b = new Builder();
+		for (int x : toArray())
+			b.add(x);
+		return b.buildOnto(that);
+	}
+
+	/**
+	 * Reverse a list
+	 * @return		the list with the items in the reverse order
+	 */
+	public IntList reverse() {
+		int[] array = toArray();
+		Builder b = new Builder();
+		for (int i = array.length - 1; i >= 0; i--)
+			b.add(array[i]);
+		return b.build();
+	}
+
+	/**
+	 * The items from the list that satisfy the condition in the original order
+	 * @param p		the condition each kept element must satisfy
+	 * @return		the sequence generated from all elements satisfying p in the original order
+	 */
+	public IntList filter(IntPredicate p) {
+		Builder b = new Builder();
+		for (IntList xs = this; xs != null && xs.count > 0; xs = xs.rest)
+			for (int i = xs.offset; i < xs.offset + xs.count; i++)
+				if (p.test(xs.values[i]))
+					b.add(xs.values[i]);
+		return b.build();
+	}
+
+	/**
+	 * Apply a function to each item in the list
+	 * @param f		the function to apply to each element
+	 * @return		the transformed list
+	 */
+	public IntList map(IntUnaryOperator f) {
+		Builder b = new Builder();
+		for (IntList xs = this; xs != null && xs.count > 0; xs = xs.rest)
+			for (int i = xs.offset; i < xs.offset + xs.count; i++)
+				b.add(f.applyAsInt(xs.values[i]));
+		return b.build();
+	}
+
+	/**
+	 * Apply a function to each item in the list, giving a list of objects
+	 * @param f		the function to apply to each element
+	 * @return		the transformed list
+	 */
+	public <F> List<F> mapToObj(IntFunction<F> f) {
+		List.Builder<F> b = new List.Builder<F>();
+		for (IntList xs = this; xs != null && xs.count > 0; xs = xs.rest)
+			for (int i = xs.offset; i < xs.offset + xs.count; i++)
+				b.add(f.apply(xs.values[i]));
+		return b.build();
+	}
+
+	/**
+	 * Returns true if all elements in the list satisfy the condition
+	 * @param p		the condition each element must satisfy
+	 * @return		true if all elements satisfy p, else false
+	 */
+	public boolean all(IntPredicate p) {
+		for (IntList xs = this; xs != null && xs.count > 0; xs = xs.rest)
+			for (int i = xs.offset; i < xs.offset + xs.count; i++)
+				if (!p.test(xs.values[i]))
+					return false;
+		return true;
+	}
+
+	/**
+	 * Returns true if any elements in the list satisfy the condition
+	 * @param p		the condition each element must satisfy
+	 * @return		true if any element satisfies p, else false
+	 */
+	public boolean any(IntPredicate p) {
+		return !all(p.negate());
+	}
+
+	/**
+	 * Reduce a list by applying a binary operator between all elements bracketing to the left
+	 * foldl op accumulator [x1, x2,... , xk] = (((accumulator op x1) op x2) ... op xk)
+	 * @param op				the operator to apply between elements
+	 * @param accumulator		the accumulator value (and the initial left value)
+	 * @return					the value generated by reducing the list
+	 */
+	public int foldl(IntBinaryOperator op, int accumulator) {
+		int acc = accumulator;
+		for (IntList xs = this; xs != null && xs.count > 0; xs = xs.rest)
+			for (int i = xs.offset; i < xs.offset + xs.count; i++)
+				acc = op.applyAsInt(acc, xs.values[i]);
+		return acc;
+	}
+
+	/**
+	 * Reduce a list by applying a binary operator between all elements bracketing to the left
+	 * foldl1 op [x1, x2,... , xk] = ((x1 op x2) op x3) ... op xk
+	 * @param op				the operator to apply between elements
+	 * @return					the value generated by reducing the list
+	 */
+	public int foldl1(IntBinaryOperator op) {
+		if (isEmpty())
+			throw new UnsupportedOperationException("foldl1 emptylist");
+		return tail().foldl(op, head());
+	}
+
+	/**
+	 * Reduce a list by applying a binary operator between all elements bracketing to the right
+	 * foldr op lastElement [x1, x2,... , xk] = x1 op (x2 op (... (xk op lastElement)...))
+	 * @param op				the operator to apply between elements
+	 * @param lastElement		the last element in the reduction
+	 * @return					the value generated by reducing the list
+	 */
+	public int foldr(IntBinaryOperator op, int lastElement) {
+		int[] array = toArray();
+		int acc = lastElement;
+		for (int i = array.length - 1; i >= 0; i--)
+			acc = op.applyAsInt(array[i], acc);
+		return acc;
+	}
+
+	/**
+	 * Reduce a list by applying a binary operator between all elements bracketing to the right
+	 * foldr1 op [x1, x2,... , xk] = x1 op (x2 op (...(x[k-1] op xk)...)
+	 * @param op				the operator to apply between elements
+	 * @return					the value generated by reducing the list
+	 */
+	public int foldr1(IntBinaryOperator op) {
+		if (isEmpty())
+			throw new UnsupportedOperationException("foldr1 emptylist");
+		int[] array = toArray();
+		int acc = array[array.length - 1];
+		for (int i = array.length - 2; i >= 0; i--)
+			acc = op.applyAsInt(array[i], acc);
+		return acc;
+	}
+
+	/**
+	 * Apply a binary operator to corresponding elements in two lists
+	 * The length of the result is the length of the shortest input list
+	 * @param that		the list to zip with this
+	 * @param op		the operator to apply to corresponding items
+	 * @return			the new list of items formed from the operator applied to corresponding pairs
+	 */
+	public IntList zipWith(IntList that, IntBinaryOperator op) {
+		int[] xs = this.toArray(), ys = that.toArray();
+		Builder b = new Builder();
+		for (int i = 0; i < Integer.min(xs.length, ys.length); i++)
+			b.add(op.applyAsInt(xs[i], ys[i]));
+		return b.build();
+	}
+
+	/**
+	 * Place an item in between elements in a list
+	 * e.g. [x1, x2, x3, ...].intersperse(sep) = [x1, sep, x2, sep, x3, sep, ...]
+	 * @param sep		the separator item
+	 * @return			the list with the separator interspersed between items
+	 */
+	public IntList intersperse(int sep) {
+		Builder b = new Builder();
+		for (IntList xs = this; xs != null && xs.count > 0; xs = xs.rest)
+			for (int i = xs.offset; i < xs.offset + xs.count; i++) {
+				if (xs != this || i > xs.offset)
+					b.add(sep);
+				b.add(xs.values[i]);
+			}
+		return b.build();
+	}
+
+	/**
+	 * Group a list into sublists of size n. Each sublist is copied into its own chunks
+	 * @param n			the size of each sublist (except possibly the last which may be shorter)
+	 * @return			the list of n-sized sublists
+	 */
+	public List<IntList> group(int n) {
+		if (n<1)
+			throw new IllegalArgumentException("group(n): n must be > 0");
+		List.Builder<IntList> b = new List.Builder<IntList>();
+		for (IntList xs = this; !xs.isEmpty(); xs = xs.drop(n))
+			b.add(xs.take(n));
+		return b.build();
+	}
+
+	/**
+	 * Perform a structural equality check (same elements in same order).
+	 */
+	@Override public boolean equals(Object that) {
+		return this == that || (that instanceof IntList
+				&& ((IntList)that).size == size && Arrays.equals(toArray(), ((IntList)that).toArray()));
+	}
+
+	/**
+	 * A structural hash consistent with equals, and with List.hashCode() of the boxed list
+	 */
+	@Override public int hashCode() {
+		return foldr((x, h) -> 31 * h + x, 1);
+	}
+
+	/**
+	 * Convert a list to a string for, e.g., printing
+	 */
+	@Override public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		for (int x : toArray())
+			sb.append(sb.length() > 1 ? "," : "").append(x);
+		return sb.append(']').toString();
+	}
+}
@@ -0,0 +1,375 @@
+package puzzle;
+
+/**
+ * A lazy list in the style of Haskell's lists: every tail is a memoized thunk that is
+ * evaluated at most once, and only when it is first inspected. Transformations such as map,
+ * filter, takeWhile and zipWith do no work when they are called; a chain of them is evaluated
+ * in a single pass, one element at a time, as the result is consumed. Infinite lists such as
+ * iterate(f, x) and repeat(x) are fine so long as only a finite prefix is consumed.
+ */
+
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+public final class LazyList<E> {
+
+	/** An evaluated cell: a head and a (possibly unevaluated) tail */
+	private static final class Cell<E> {
+		final E head;
+		final LazyList<E> tail;
+
+		Cell(E head, LazyList<E> tail) {
+			this.head = head;
+			this.tail = tail;
+		}
+	}
+
+	private static final LazyList<?> EMPTY = new LazyList<Object>((Cell<Object>)null);
+
+	/** The pending computation, or null once it has been evaluated */
+	private volatile Supplier<Cell<E>> thunk;
+	/** The evaluated cell, or null for the empty list. Written before thunk is cleared */
+	private Cell<E> cell;
+
+	private LazyList(Supplier<Cell<E>> thunk) {
+		this.thunk = thunk;
+	}
+
+	private LazyList(Cell<E> cell) {
+		this.cell = cell;
+	}
+
+	/**
+	 * Evaluate this list to weak head normal form, remembering the result
+	 * @return		the cell, or null if the list is empty
+	 */
+	private Cell<E> force() {
+		Supplier<Cell<E>> t = thunk;
+		if (t != null) {
+			synchronized (this) {
+				if (thunk != null) {
+					cell = thunk.get();
+					thunk = null;
+				}
+			}
+		}
+		return cell;
+	}
+
+	/*
+	 * Static methods that generate lazy lists
+	 */
+
+	/**
+	 * Create a new empty lazy list
+	 * @return		[]
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> LazyList<E> emptyLazyList() {
+		return (LazyList<E>)EMPTY;
+	}
+
+	/**
+	 * @param x			the head of the new list
+	 * @param xs		the tail of the new list, evaluated only when it is needed
+	 * @return			the new list (x:xs)
+	 */
+	public static <E> LazyList<E> cons(E x, Supplier<LazyList<E>> xs) {
+		return new LazyList<E>(new Cell<E>(x, delay(xs)));
+	}
+
+	/**
+	 * Defer the construction of a whole list
+	 * @param xs		how to build the list
+	 * @return			a list that calls xs the first time it is inspected
+	 */
+	public static <E> LazyList<E> delay(Supplier<LazyList<E>> xs) {
+		return new LazyList<E>(() -> xs.get().force());
+	}
+
+	/**
+	 * The infinite list of repeated applications of f
+	 * @param f					how to generate the successor value
+	 * @param startingValue		the initial value
+	 * @return					the list [startingValue, f(startingValue), f(f(startingValue))...]
+	 */
+	public static <E> LazyList<E> iterate(UnaryOperator<E> f, E startingValue) {
+		return new LazyList<E>(() -> new Cell<E>(startingValue, iterate(f, f.apply(startingValue))));
+	}
+
+	/**
+	 * The infinite list of the same element
+	 * @param x		the item to be repeated
+	 * @return		the list [x,x,x,...]
+	 */
+	public static <E> LazyList<E> repeat(E x) {
+		LazyList<E>[] xs = newArray();
+		xs[0] = new LazyList<E>(() -> new Cell<E>(x, xs[0]));
+		return xs[0];
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <E> LazyList<E>[] newArray() {
+		return (LazyList<E>[])new LazyList<?>[1];
+	}
+
+	/**
+	 * View a list lazily. Nothing is copied; each cell is wrapped as it is reached
+	 * @param list		the list x0:x1:x2...
+	 * @return			the corresponding lazy list
+	 */
+	public static <E> LazyList<E> fromList(List<E> list) {
+		return new LazyList<E>(() -> list.isEmpty()
+				? null
+				: new Cell<E>(list.head(), fromList(list.tail())));
+	}
+
+	/*
+	 * Instance methods. Those returning a LazyList do no work until the result is inspected.
+	 */
+
+	/**
+	 * Evaluate the whole list into a List. The list must be finite
+	 * @return		the corresponding list x0:x1:x2...
+	 */
+	public List<E> toList() {
+		List.Builder<E> b = new List.Builder<E>();
+		for (Cell<E> c = force(); c != null; c = c.tail.force())
+			b.add(c.head);
+		return b.build();
+	}
+
+	/**
+	 * Test if a list is empty. This evaluates the first cell only
+	 * @return		true if empty, false otherwise
+	 */
+	public boolean isEmpty() {
+		return force() == null;
+	}
+
+	/**
+	 * Return the first item in the list
+	 * @return		nothing if empty, otherwise the first item in the list
+	 */
+	public E head() {
+		Cell<E> c = force();
+		if (c == null)
+			throw new NoSuchElementException("head");
+		return c.head;
+	}
+
+	/**
+	 * Return the sublist starting from the second element
+	 * @return		nothing if empty, otherwise the list without the first item
+	 */
+	public LazyList<E> tail() {
+		Cell<E> c = force();
+		if (c == null)
+			throw new NoSuchElementException("tail");
+		return c.tail;
+	}
+
+	/**
+	 * Look up item in list at index (first item is at index zero)
+	 * @param k		the index
+	 * @return		error if index out of range, otherwise item at index
+	 */
+	public E at(int k) {
+		if (k<0)
+			throw new IndexOutOfBoundsException("at");
+		return drop(k).head();
+	}
+
+	/**
+	 * Return the length of a list. The list must be finite
+	 * @return		the number of items
+	 */
+	public int length() {
+		int n = 0;
+		for (Cell<E> c = force(); c != null; c = c.tail.force())
+			n++;
+		return n;
+	}
+
+	/**
+	 * Apply a function to each item in the list, lazily
+	 * @param f		the function to apply to each element
+	 * @return		the transformed list
+	 */
+	public <F> LazyList<F> map(Function<E,F> f) {
+		return new LazyList<F>(() -> {
+			Cell<E> c = force();
+			return c == null ? null : new Cell<F>(f.apply(c.head), c.tail.map(f));
+		});
+	}
+
+	/**
+	 * The items from the list that satisfy the condition in the original order, lazily.
+	 * Runs of rejected items are skipped in a loop, not by recursion
+	 * @param p		the condition each kept element must satisfy
+	 * @return		the sequence generated from all elements satisfying p in the original order
+	 */
+	public LazyList<E> filter(Predicate<E> p) {
+		return new LazyList<E>(() -> {
+			Cell<E> c = force();
+			while (c != null && !p.test(c.head))
+				c = c.tail.force();
+			return c == null ? null : new Cell<E>(c.head, c.tail.filter(p));
+		});
+	}
+
+	/**
+	 * Initial subsequence while the condition is true, lazily
+	 * @param p		the condition each value must pass
+	 * @return		the initial subsequence of elements that all satisfy p
+	 */
+	public LazyList<E> takeWhile(Predicate<E> p) {
+		return new LazyList<E>(() -> {
+			Cell<E> c = force();
+			return c == null || !p.test(c.head) ? null : new Cell<E>(c.head, c.tail.takeWhile(p));
+		});
+	}
+
+	/**
+	 * Final subsequence with all initial elements satisfying the condition dropped
+	 * @param p		the condition each element in the dropped initial sequence must pass
+	 * @return		the final subsequence once the initial elements satisfying p are removed
+	 */
+	public LazyList<E> dropWhile(Predicate<E> p) {
+		return new LazyList<E>(() -> {
+			LazyList<E> xs = this;
+			while (!xs.isEmpty() && p.test(xs.head()))
+				xs = xs.tail();
+			return xs.force();
+		});
+	}
+
+	/**
+	 * Take n elements from the front of a list, lazily
+	 * @param n		the number of elements to take
+	 * @return		the initial subsequence of length &le; n
+	 */
+	public LazyList<E> take(int n) {
+		if (n<=0)
+			return emptyLazyList();
+		return new LazyList<E>(() -> {
+			Cell<E> c = force();
+			return c == null ? null : new Cell<E>(c.head, c.tail.take(n-1));
+		});
+	}
+
+	/**
+	 * Drop n elements from the front of a list. This evaluates the first n cells
+	 * @param n		the number of elements to drop
+	 * @return		the final subsequence after the first n elements have been removed
+	 */
+	public LazyList<E> drop(int n) {
+		LazyList<E> xs = this;
+		for (int i = 0; i < n && !xs.isEmpty(); i++)
+			xs = xs.tail();
+		return xs;
+	}
+
+	/**
+	 * Apply a binary operator to corresponding elements in two lists, lazily
+	 * The length of the result is the length of the shortest input list
+	 * @param that		the list to zip with this
+	 * @param op		the operator to apply to corresponding items
+	 * @return			the new list of items formed from the operator applied to corresponding pairs
+	 */
+	public <F,G> LazyList<G> zipWith(LazyList<F> that, BiFunction<E,F,G> op) {
+		return new LazyList<G>(() -> {
+			Cell<E> c = force();
+			Cell<F> d = c == null ? null : that.force();
+			return d == null ? null : new Cell<G>(op.apply(c.head, d.head), c.tail.zipWith(d.tail, op));
+		});
+	}
+
+	/**
+	 * Append two lists, lazily. The second list is not inspected until the first is exhausted
+	 * @param that		the list to follow this one
+	 * @return			the two lists joined together
+	 */
+	public LazyList<E> append(LazyList<E> that) {
+		return new LazyList<E>(() -> {
+			Cell<E> c = force();
+			return c == null ? that.force() : new Cell<E>(c.head, c.tail.append(that));
+		});
+	}
+
+	/**
+	 * Group a list into sublists of size n, lazily. Each group is an ordinary List
+	 * @param n			the size of each sublist (except possibly the last which may be shorter)
+	 * @return			the lazy list of n-sized sublists
+	 */
+	public LazyList<List<E>> group(int n) {
+		if (n<1)
+			throw new IllegalArgumentException("group(n): n must be > 0");
+		return new LazyList<List<E>>(() -> {
+			List.Builder<E> b = new List.Builder<E>();
+			LazyList<E> xs = this;
+			for (int i = 0; i < n && !xs.isEmpty(); i++, xs = xs.tail())
+				b.add(xs.head());
+			List<E> group = b.build();
+			return group.isEmpty() ? null : new Cell<List<E>>(group, xs.group(n));
+		});
+	}
+
+	/**
+	 * Reduce a list by applying a binary operator between all elements bracketing to the left.
+	 * The list must be finite
+	 * @param op				the operator to apply between elements
+	 * @param accumulator		the accumulator value (and the initial left value)
+	 * @return					the value generated by reducing the list
+	 */
+	public <F> F foldl(BiFunction<F,E,F> op, F accumulator) {
+		F acc = accumulator;
+		for (Cell<E> c = force(); c != null; c = c.tail.force())
+			acc = op.apply(acc, c.head);
+		return acc;
+	}
+
+	/**
+	 * Returns true if any elements in the list satisfy the condition. Stops at the first match
+	 * @param p		the condition each element must satisfy
+	 * @return		true if any element satisfies p, else false
+	 */
+	public boolean any(Predicate<E> p) {
+		for (Cell<E> c = force(); c != null; c = c.tail.force())
+			if (p.test(c.head))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Returns true if all elements in the list satisfy the condition. Stops at the first failure
+	 * @param p		the condition each element must satisfy
+	 * @return		true if all elements satisfy p, else false
+	 */
+	public boolean all(Predicate<E> p) {
+		for (Cell<E> c = force(); c != null; c = c.tail.force())
+			if (!p.test(c.head))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Convert a list to a string. Only the cells evaluated so far are shown, so this never
+	 * forces an infinite list
+	 */
+	@Override public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		LazyList<E> xs = this;
+		while (xs.thunk == null && xs.cell != null) {
+			if (xs != this)
+				sb.append(',');
+			sb.append(xs.cell.head);
+			xs = xs.cell.tail;
+		}
+		return sb.append(xs.thunk == null ? "]" : "...]").toString();
+	}
+}
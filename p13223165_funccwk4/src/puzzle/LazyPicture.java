@@ -0,0 +1,616 @@
+package puzzle;
+
+import java.util.Arrays;
+
+/**
+ * A picture that is laid out now and drawn later. Each operation builds a small node that
+ * records only the depth and width of its result and where its parts go; no characters are
+ * copied until the picture is rasterised, which happens once, the first time toString(),
+ * toRaster() or toPicture() is called. Rasterising visits each node once and writes each part
+ * straight into its place in a single array, so a long chain of compositions makes no
+ * intermediate pictures at all. The results are the same as Picture's, character for character.
+ *
+ * There are four kinds of node: a raster (the leaves), a canvas of one fill char with other
+ * pictures placed on it at given offsets and clipped to it (which covers boxes, padding,
+ * clipping, above, beside, stack and spread), a reflection, and a transposition.
+ */
+public abstract class LazyPicture {
+
+	private static final char space = ' ', horiz = '-', vert = '|';
+	public static final int TOP = 0, MID = 50, BOT = 100, LFT = 0, CTR = 50, RGT = 100;
+
+	private final int depth, width;
+	private volatile RasterPicture raster;
+
+	private LazyPicture(int depth, int width) {
+		this.depth = depth;
+		this.width = width;
+	}
+
+	/**
+	 * Draw a rectangle of this picture into a raster. A picture that has been drawn before
+	 * is copied from its raster; otherwise the node draws itself
+	 * @param row			the first row of the rectangle
+	 * @param col			the first column of the rectangle
+	 * @param rows			the number of rows in the rectangle
+	 * @param cols			the number of columns in the rectangle
+	 * @param target		the rows of the raster
+	 * @param targetWidth	the width of the raster
+	 * @param top			the row of the raster that the rectangle goes in
+	 * @param left			the column of the raster that the rectangle goes in
+	 */
+	void render(int row, int col, int rows, int cols, char[] target, int targetWidth, int top, int left) {
+		RasterPicture r = raster;
+		if (r != null)
+			r.blitTo(row, col, rows, cols, target, targetWidth, top, left);
+		else
+			paint(row, col, rows, cols, target, targetWidth, top, left);
+	}
+
+	/**
+	 * Draw a rectangle of this node into a raster, with the same arguments as render
+	 */
+	abstract void paint(int row, int col, int rows, int cols, char[] target, int targetWidth, int top, int left);
+
+	/*
+	 * Static methods that generate pictures
+	 */
+
+	/**
+	 * Lay out a raster picture. The raster is used as it is, not copied
+	 * @param picture		the picture
+	 * @return				the same picture, as a leaf of a layout
+	 */
+	public static LazyPicture of(RasterPicture picture) {
+		return new Leaf(picture);
+	}
+
+	/**
+	 * Lay out a list picture. Its characters are copied into a raster now, once
+	 * @param picture		the picture
+	 * @return				the same picture, as a leaf of a layout
+	 */
+	public static LazyPicture of(Picture picture) {
+		return of(RasterPicture.fromPicture(picture));
+	}
+
+	/**
+	 * An empty picture constructor
+	 * @return		the empty picture
+	 */
+	public static LazyPicture emptyPicture() {
+		return new Canvas(1, 0, space, new LazyPicture[0], new int[0], new int[0]);
+	}
+
+	/**
+	 * Construct a picture from a single char with given depth and width
+	 * @param d		depth of the picture
+	 * @param w		width of the picture
+	 * @param c		char to fill the picture
+	 * @return		the new rectangular picture
+	 */
+	public static LazyPicture box(int d, int w, Character c) {
+		if (d<=0 || w<=0)
+			return emptyPicture();
+		return new Canvas(d, w, c, new LazyPicture[0], new int[0], new int[0]);
+	}
+
+	/**
+	 * Place a single picture on a canvas
+	 */
+	private static LazyPicture place(int d, int w, char fill, LazyPicture p, int top, int left) {
+		return new Canvas(d, w, fill, new LazyPicture[] {p}, new int[] {top}, new int[] {left});
+	}
+
+	/*
+	 * Instance methods
+	 */
+
+	/**
+	 * Predicate to test if picture is empty
+	 * @return		true if picture is empty, else false
+	 */
+	public boolean isEmpty() {
+		return depth==0 || width==0;
+	}
+
+	/**
+	 * @return		the depth of a picture
+	 */
+	public int depth() {
+		return depth;
+	}
+
+	/**
+	 * @return		the width of a picture
+	 */
+	public int width() {
+		return width;
+	}
+
+	/**
+	 * Draw the picture. This is done once; later calls return the same raster
+	 * @return		the picture as a raster
+	 */
+	public RasterPicture toRaster() {
+		RasterPicture r = raster;
+		if (r == null) {
+			char[] chars = new char[depth * width];
+			paint(0, 0, depth, width, chars, width, 0, 0);
+			r = RasterPicture.wrap(depth, width, chars);
+			raster = r;
+		}
+		return r;
+	}
+
+	/**
+	 * @return		the drawn picture as a list picture
+	 */
+	public Picture toPicture() {
+		return toRaster().toPicture();
+	}
+
+	/**
+	 * Convert a picture to a string with lines separated by newline chars. This draws the
+	 * picture if it has not been drawn yet
+	 */
+	@Override
+	public String toString() {
+		return toRaster().toString();
+	}
+
+	/**
+	 * Put one picture above another.  These should be of same width; if they are not, the
+	 * narrower one is padded with spaces
+	 * @param that		the picture that goes underneath
+	 * @return			the joined picture
+	 */
+	private LazyPicture aboveAligned(LazyPicture that) {
+		// empty pictures are aligned with any picture
+		if (this.isEmpty())
+			return that;
+		else if (that.isEmpty())
+			return this;
+		else
+			return new Canvas(this.depth + that.depth, Integer.max(this.width, that.width), space,
+					new LazyPicture[] {this, that}, new int[] {0, this.depth}, new int[] {0, 0});
+	}
+
+	/**
+	 * Put one picture beside another.  These should be of same depth; if they are not, the
+	 * deeper one is cut short
+	 * @param that		the picture that goes on the right
+	 * @return			the joined picture
+	 */
+	private LazyPicture besideAligned(LazyPicture that) {
+		// empty pictures are aligned with any picture
+		if (this.isEmpty())
+			return that;
+		else if (that.isEmpty())
+			return this;
+		else
+			return new Canvas(Integer.min(this.depth, that.depth), this.width + that.width, space,
+					new LazyPicture[] {this, that}, new int[] {0, 0}, new int[] {0, this.width});
+	}
+
+	/**
+	 * Make a picture a fixed width.  If the given width is too small then the picture is
+	 * clipped to fit.  If the given width is bigger than the picture width then padding
+	 * is added to the left/right.
+	 * @param width			the width that the picture must fit
+	 * @param position		proportion of whitespace to add (or columns to cut) from the left
+	 * @param fill			the char to use for padding
+	 * @return				the picture adjusted for width
+	 */
+	public LazyPicture fixWidth(int width, int position, Character fill) {
+		int pos = Integer.min(Integer.max(position, 0), 100); // ensure in range 0..100
+		int len = Math.abs(width - this.width());
+		int leftWidth = len * pos / 100;
+		if (width < 1)
+			return emptyPicture();
+		else if (width > this.width())
+			// a picture with no rows pads to the empty picture; one with no columns to a box
+			return this.depth() == 0 ? emptyPicture() : place(this.depth(), width, fill, this, 0, leftWidth);
+		else
+			return place(this.depth(), this.depth() == 0 ? 0 : width, fill, this, 0, -leftWidth);
+	}
+
+	/**
+	 * Make a picture a fixed depth.  If the given depth is too small then the picture is
+	 * clipped to fit.  If the given width is bigger than the picture width then padding
+	 * is added to the top/bottom.
+	 * @param depth			the depth that the picture must fit
+	 * @param position		proportion of whitespace to add (or columns to cut) from the top
+	 * @param fill			the char to use for padding
+	 * @return				the picture adjusted for depth
+	 */
+	public LazyPicture fixDepth(int depth, int position, Character fill) {
+		int pos = Integer.min(Integer.max(position, 0), 100); // ensure in range 0..100
+		int len = Math.abs(depth - this.depth());
+		int topDepth = len * pos / 100;
+		if (depth < 1)
+			return emptyPicture();
+		else if (depth > this.depth())
+			// a picture with no columns pads to the empty picture; one with no rows to a box
+			return this.width() == 0 ? emptyPicture() : place(depth, this.width(), fill, this, topDepth, 0);
+		else
+			return place(depth, this.width(), fill, this, -topDepth, 0);
+	}
+
+	/**
+	 * Put one picture above another. If one has smaller width then padding is added
+	 * @param that			the picture that goes underneath
+	 * @param position		proportion of whitespace to add (or columns to cut) from the left
+	 * @param fill			the char to use for padding
+	 * @return				the joined picture
+	 */
+	private LazyPicture above(LazyPicture that, int position, Character fill) {
+		if (this.isEmpty())
+			return that;
+		else if (that.isEmpty())
+			return this;
+		else if (this.width() < that.width())
+			return this.fixWidth(that.width(), position, fill).aboveAligned(that);
+		else
+			return this.aboveAligned(that.fixWidth(this.width(), position, fill));
+	}
+
+	/**
+	 * Put one picture beside another. If one has smaller depth then padding is added
+	 * @param that			the picture that goes on the right
+	 * @param position		proportion of whitespace to add (or columns to cut) from the top
+	 * @param fill			the char to use for padding
+	 * @return				the joined picture
+	 */
+	private LazyPicture beside(LazyPicture that, int position, Character fill) {
+		if (this.isEmpty())
+			return that;
+		else if (that.isEmpty())
+			return this;
+		else if (this.depth() < that.depth())
+			return this.fixDepth(that.depth(), position, fill).besideAligned(that);
+		else
+			return this.besideAligned(that.fixDepth(this.depth(), position, fill));
+	}
+
+	/**
+	 * Put one picture above another. If one has smaller width then space padding is added
+	 * @param that			the picture that goes underneath
+	 * @param position		proportion of whitespace to add (or columns to cut) from the left
+	 * @return				the joined picture
+	 */
+	public LazyPicture above(LazyPicture that, int position) {
+		return this.above(that, position, space);
+	}
+
+	/**
+	 * Put one picture beside another. If one has smaller depth then space padding is added
+	 * @param that			the picture that goes on the right
+	 * @param position		proportion of whitespace to add (or columns to cut) from the top
+	 * @return				the joined picture
+	 */
+	public LazyPicture beside(LazyPicture that, int position) {
+		return this.beside(that, position, space);
+	}
+
+	/**
+	 * Transpose a picture by making lines into rows and rows into lines
+	 * @return		the transposed picture
+	 */
+	public LazyPicture transpose() {
+		// as for lists of rows, a picture with no columns transposes to no rows at all
+		if (width == 0)
+			return new Canvas(0, 0, space, new LazyPicture[0], new int[0], new int[0]);
+		return new Transpose(this);
+	}
+
+	/**
+	 * Reflect a picture about its horizontal mid-axis
+	 * @return		the reflected picture
+	 */
+	public LazyPicture reflectHorizontal() {
+		return new Reflect(this, true);
+	}
+
+	/**
+	 * Reflect a picture about its vertical mid-axis
+	 * @return		the reflected picture
+	 */
+	public LazyPicture reflectVertical() {
+		return new Reflect(this, false);
+	}
+
+	/**
+	 * Rotate the picture a given number of quadrants:
+	 * @param quadrants		the rotation: 1=90 degrees; 2=180 degrees; 3=270 degrees
+	 * @return				the rotated picture
+	 */
+	public LazyPicture rotate(int quadrants) {
+		switch (quadrants % 4) {
+		case 1:	return this.transpose().reflectVertical();
+		case 2: return this.reflectHorizontal().reflectVertical();
+		case 3: return this.transpose().reflectHorizontal();
+		default: return this;
+		}
+	}
+
+	/**
+	 * Stack a list of pictures
+	 * @param pictures		the pictures to stack
+	 * @param position		the justification (percentage from left)
+	 * @param fill			the padding character
+	 * @return				the picture representing the stacked pictures
+	 */
+	public static LazyPicture stack(List<LazyPicture> pictures, int position, Character fill) {
+		return join(pictures, position, fill, true);
+	}
+
+	/**
+	 * Stack a list of pictures using space for padding
+	 * @param pictures		the pictures to stack
+	 * @param position		the justification (percentage from left)
+	 * @return				the picture representing the stacked pictures
+	 */
+	public static LazyPicture stack(List<LazyPicture> pictures, int position) {
+		return stack(pictures, position, space);
+	}
+
+	/**
+	 * Spread a list of pictures (join them side by side)
+	 * @param pictures		the pictures to spread
+	 * @param position		the justification (percentage from top)
+	 * @param fill			the padding character
+	 * @return				the picture representing the spread pictures
+	 */
+	public static LazyPicture spread(List<LazyPicture> pictures, int position, Character fill) {
+		return join(pictures, position, fill, false);
+	}
+
+	/**
+	 * Spread a list of pictures (join them side by side) using space for padding
+	 * @param pictures		the pictures to spread
+	 * @param position		the justification (percentage from top)
+	 * @return				the picture representing the spread pictures
+	 */
+	public static LazyPicture spread(List<LazyPicture> pictures, int position) {
+		return spread(pictures, position, space);
+	}
+
+	/**
+	 * Stack or spread a list of pictures onto one canvas. The offsets are worked out as in
+	 * RasterPicture.join, so the result is the same as folding above (or beside) from the right
+	 * @param pictures		the pictures to join
+	 * @param position		the justification (percentage from left, or from top for a spread)
+	 * @param fill			the padding character
+	 * @param vertical		true to stack, false to spread
+	 * @return				the joined picture
+	 */
+	private static LazyPicture join(List<LazyPicture> pictures, int position, char fill, boolean vertical) {
+		int pos = Integer.min(Integer.max(position, 0), 100);
+		List<LazyPicture> parts = pictures.filter(p -> !p.isEmpty());
+		int n = parts.length();
+		if (n == 0)
+			return emptyPicture();
+		LazyPicture[] ps = new LazyPicture[n];
+		int[] offsets = new int[n];
+		int across = 0, joinedOffset = 0, i = n;
+		for (LazyPicture p : parts.reverse()) {
+			int size = vertical ? p.width() : p.depth();
+			int offset = 0;
+			if (size < across)
+				offset = (across - size) * pos / 100;
+			else {
+				if (i < n)
+					joinedOffset += (size - across) * pos / 100;
+				across = size;
+			}
+			ps[--i] = p;
+			offsets[i] = offset - joinedOffset;
+		}
+		int[] starts = new int[n];
+		int along = 0;
+		for (i = 0; i < n; i++) {
+			offsets[i] += joinedOffset;
+			starts[i] = along;
+			along += vertical ? ps[i].depth() : ps[i].width();
+		}
+		return vertical
+				? new Canvas(along, across, fill, ps, starts, offsets)
+				: new Canvas(across, along, fill, ps, offsets, starts);
+	}
+
+	/**
+	 * Place a border to the left of the picture. The border is a box one column wide, which
+	 * is what stacking depth boxes of size 1x1 makes
+	 * @param fill		the character to form the border
+	 * @return		the picture with a border
+	 */
+	public LazyPicture leftBorder(Character fill) {
+		return box(this.depth(), 1, fill).beside(this, TOP);
+	}
+
+	/**
+	 * Place a border to the right of the picture
+	 * @param fill		the character to form the border
+	 * @return		the picture with a border
+	 */
+	public LazyPicture rightBorder(Character fill) {
+		return this.beside(box(this.depth(), 1, fill), TOP);
+	}
+
+	/**
+	 * Place a border to the top of the picture. The border is a box one row deep, which is
+	 * what spreading width boxes of size 1x1 makes
+	 * @param fill		the character to form the border
+	 * @return		the picture with a border
+	 */
+	public LazyPicture topBorder(Character fill) {
+		return box(1, this.width(), fill).above(this, LFT);
+	}
+
+	/**
+	 * Place a border to the bottom of the picture
+	 * @param fill		the character to form the border
+	 * @return			the picture with a border
+	 */
+	public LazyPicture bottomBorder(Character fill) {
+		return this.above(box(1, this.width(), fill), LFT);
+	}
+
+	/**
+	 * Place a border to the around the picture
+	 * @param fill		the character to form the border
+	 * @return			the picture with a border
+	 */
+	public LazyPicture border(Character fill) {
+		return this.topBorder(fill).bottomBorder(fill).leftBorder(fill).rightBorder(fill);
+	}
+
+	/**
+	 * Place a frame to the left of the picture
+	 * @return		the picture with a frame
+	 */
+	public LazyPicture leftFrame() {
+		return leftBorder(vert);
+	}
+
+	/**
+	 * Place a frame to the right of the picture
+	 * @return		the picture with a frame
+	 */
+	public LazyPicture rightFrame() {
+		return rightBorder(vert);
+	}
+
+	/**
+	 * Place a frame to the top of the picture
+	 * @return		the picture with a frame
+	 */
+	public LazyPicture topFrame() {
+		return topBorder(horiz);
+	}
+
+	/**
+	 * Place a frame around the picture
+	 * @return		the picture with a frame
+	 */
+	public LazyPicture frame() {
+		return this.leftFrame().rightFrame().topFrame().bottomFrame();
+	}
+
+	/**
+	 * Place a frame to the bottom of the picture
+	 * @return		the picture with a frame
+	 */
+	public LazyPicture bottomFrame() {
+		return bottomBorder(horiz);
+	}
+
+	/*
+	 * The nodes
+	 */
+
+	/** A picture that has already been drawn */
+	private static final class Leaf extends LazyPicture {
+		private final RasterPicture picture;
+
+		Leaf(RasterPicture picture) {
+			super(picture.depth(), picture.width());
+			this.picture = picture;
+		}
+
+		@Override public RasterPicture toRaster() {
+			return picture;
+		}
+
+		@Override void paint(int row, int col, int rows, int cols, char[] target, int targetWidth, int top, int left) {
+			picture.blitTo(row, col, rows, cols, target, targetWidth, top, left);
+		}
+	}
+
+	/** A canvas of one char with pictures placed on it, each clipped to the canvas */
+	private static final class Canvas extends LazyPicture {
+		private final char fill;
+		private final LazyPicture[] parts;
+		private final int[] tops, lefts;
+
+		Canvas(int depth, int width, char fill, LazyPicture[] parts, int[] tops, int[] lefts) {
+			super(depth, width);
+			this.fill = fill;
+			this.parts = parts;
+			this.tops = tops;
+			this.lefts = lefts;
+		}
+
+		@Override void paint(int row, int col, int rows, int cols, char[] target, int targetWidth, int top, int left) {
+			for (int i = 0; i < rows; i++) {
+				int start = (top + i) * targetWidth + left;
+				Arrays.fill(target, start, start + cols, fill);
+			}
+			for (int k = 0; k < parts.length; k++) {
+				LazyPicture p = parts[k];
+				// the part of the requested rectangle that this picture covers
+				int r0 = Integer.max(row, tops[k]), r1 = Integer.min(row + rows, tops[k] + p.depth());
+				int c0 = Integer.max(col, lefts[k]), c1 = Integer.min(col + cols, lefts[k] + p.width());
+				if (r0 < r1 && c0 < c1)
+					p.render(r0 - tops[k], c0 - lefts[k], r1 - r0, c1 - c0,
+							target, targetWidth, top + r0 - row, left + c0 - col);
+			}
+		}
+	}
+
+	/** A picture reflected top to bottom (horizontal) or left to right */
+	private static final class Reflect extends LazyPicture {
+		private final LazyPicture picture;
+		private final boolean horizontal;
+
+		Reflect(LazyPicture picture, boolean horizontal) {
+			super(picture.depth(), picture.width());
+			this.picture = picture;
+			this.horizontal = horizontal;
+		}
+
+		@Override void paint(int row, int col, int rows, int cols, char[] target, int targetWidth, int top, int left) {
+			if (horizontal) {
+				// draw the mirror-image rows, then reverse their order in place
+				picture.render(depth() - row - rows, col, rows, cols, target, targetWidth, top, left);
+				char[] line = new char[cols];
+				for (int i = 0, j = rows - 1; i < j; i++, j--) {
+					int a = (top + i) * targetWidth + left, b = (top + j) * targetWidth + left;
+					System.arraycopy(target, a, line, 0, cols);
+					System.arraycopy(target, b, target, a, cols);
+					System.arraycopy(line, 0, target, b, cols);
+				}
+			}
+			else {
+				// draw the mirror-image columns, then reverse each row in place
+				picture.render(row, width() - col - cols, rows, cols, target, targetWidth, top, left);
+				for (int i = 0; i < rows; i++)
+					for (int a = (top + i) * targetWidth + left, b = a + cols - 1; a < b; a++, b--) {
+						char c = target[a];
+						target[a] = target[b];
+						target[b] = c;
+					}
+			}
+		}
+	}
+
+	/** A picture with its rows and columns exchanged */
+	private static final class Transpose extends LazyPicture {
+		private final LazyPicture picture;
+
+		Transpose(LazyPicture picture) {
+			super(picture.width(), picture.depth());
+			this.picture = picture;
+		}
+
+		@Override void paint(int row, int col, int rows, int cols, char[] target, int targetWidth, int top, int left) {
+			// draw the matching rectangle of the original, then copy it across transposed
+			char[] scratch = new char[rows * cols];
+			picture.render(col, row, cols, rows, scratch, rows, 0, 0);
+			for (int i = 0; i < rows; i++)
+				for (int j = 0; j < cols; j++)
+					target[(top + i) * targetWidth + left + j] = scratch[j * rows + i];
+		}
+	}
+}
@@ -6,17 +6,27 @@ package puzzle;
  */
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
 import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class List<E> {
+public abstract class List<E> implements Iterable<E> {
 
 	/*
 	 * We begin with some static methods. These represent functions that generate list
@@ -36,8 +46,9 @@ public class List<E> {
 	 * Create a new empty list
 	 * @return		[]
 	 */
+	@SuppressWarnings("unchecked")
 	public static <E> List<E> emptyList() {
-		return new List<E>();
+		return (List<E>)Nil.INSTANCE;
 	}
 
 	/**
@@ -50,11 +61,19 @@ public class List<E> {
 	}
 
 	/**
-	 * Concatenate a list of lists into a single list
+	 * Concatenate a list of lists into a single list. Every list but the last is copied
+	 * once, in a single pass; the last list is shared
 	 * @param xss	The list of lists to be flattened
 	 */
 	public static <E> List<E> concat(List<List<E>> xss) {
-		return xss.foldr(List::append, emptyList());
+		if (xss.isEmpty())
+			return emptyList();
+		Builder<E> b = new Builder<E>();
+		List<List<E>> rest = xss;
+		for (; !rest.tail().isEmpty(); rest = rest.tail())
+			for (E x : rest.head())
+				b.add(x);
+		return b.buildOnto(rest.head());
 	}
 
 	/**
@@ -64,10 +83,10 @@ public class List<E> {
 	 * @return		the list [x,x,x,x...] (n times)
 	 */
 	public static <E> List<E> repeat(int n, E x) {
-		if (n<=0)
-			return emptyList();
-		else
-			return cons(x, repeat(n-1, x));
+		List<E> xs = emptyList();
+		for (int i = 0; i < n; i++)
+			xs = cons(x, xs);
+		return xs;
 	}
 
 	/**
@@ -80,10 +99,10 @@ public class List<E> {
 	 * 							for all 0&le;k such that p(f^k(startingValue)) is true
 	 */
 	public static <E> List<E> iterateWhile(Predicate<E> p, UnaryOperator<E> f, E startingValue) {
-		if (p.negate().test(startingValue))
-			return emptyList();
-		else
-			return cons(startingValue, iterateWhile(p, f, f.apply(startingValue)));
+		Builder<E> b = new Builder<E>();
+		for (E x = startingValue; p.test(x); x = f.apply(x))
+			b.add(x);
+		return b.build();
 	}
 
 	/**
@@ -92,7 +111,7 @@ public class List<E> {
 	 * @return		the corresponding list x0:x1:x2...
 	 */
 	public static <E> List<E> arrayToList(E[] array) {
-		List<E> xs = new List<E>();
+		List<E> xs = emptyList();
 		for(int i = array.length - 1; i>=0; i--)
 			xs = cons(array[i], xs);
 		return xs;
@@ -104,7 +123,7 @@ public class List<E> {
 	 * @return				the corresponding list x0:x1:x2...
 	 */
 	public static <E> List<E> arrayListToList(ArrayList<E> arrayList) {
-		List<E> xs = new List<E>();
+		List<E> xs = emptyList();
 		for(E x : arrayList)
 			xs = cons(x, xs);
 		return xs.reverse();
@@ -121,22 +140,30 @@ public class List<E> {
 
 	/**
 	 * Turn rows into columns and columns into rows.
-	 * This algorithm translated from Haskell's Data.List.transpose implementation
+	 * This has the semantics of Haskell's Data.List.transpose (rows of different lengths are
+	 * allowed, and column j holds the j-th item of every row long enough to have one), but it
+	 * walks the rows with one iterator each, so it is O(rows &times; cols) with a fixed stack depth
 	 * @param list		a two-dimensional list  (list of lists)
 	 * @return 			a list of lists for which p.transpose(i,j) = p(j,i)
 	 */
 	public static <E> List<List<E>> transpose(List<List<E>> list) {
-		if (list.isEmpty())
-			return emptyList();
-		else
-			if (list.head().isEmpty())
-				return transpose(list.tail());
-			else {
-				E x = list.head().head();
-				List<E> xs = list.head().tail();
-				List<List<E>> xss = list.tail().filter(l -> !l.isEmpty());
-				return cons(cons(x, xss.map(List::head)), transpose(cons(xs,xss.map(List::tail))));
+		ArrayList<Iterator<E>> rows = new ArrayList<Iterator<E>>();
+		for (List<E> row : list)
+			if (!row.isEmpty())
+				rows.add(row.iterator());
+		Builder<List<E>> columns = new Builder<List<E>>();
+		Builder<E> column = new Builder<E>();
+		while (!rows.isEmpty()) {
+			int remaining = 0;
+			for (Iterator<E> row : rows) {
+				column.add(row.next());
+				if (row.hasNext())
+					rows.set(remaining++, row);
 			}
+			rows.subList(remaining, rows.size()).clear();
+			columns.add(column.build());
+		}
+		return columns.build();
 	}
 
 	/**
@@ -146,7 +173,7 @@ public class List<E> {
 	 * @return		[a, a+1, a+2, ..., b]
 	 */
 	public static List<Integer> rangeClosed(int a, int b) {
-		return arrayToList(IntStream.rangeClosed(a, b).boxed().toArray(Integer[]::new));
+		return IntList.rangeClosed(a, b).boxed();
 	}
 
 	/**
@@ -156,7 +183,7 @@ public class List<E> {
 	 * @return		[a, a+1, a+2, ..., b-1]
 	 */
 	public static List<Integer> range(int a, int b) {
-		return arrayToList(IntStream.range(a, b).boxed().toArray(Integer[]::new));
+		return IntList.range(a, b).boxed();
 	}
 
 	/**
@@ -173,38 +200,145 @@ public class List<E> {
 
 
 	/**
-	 * Convert a list of characters to a string
+	 * Convert a list of characters to a string. The chars are written straight into one
+	 * StringBuilder; a list viewing a string is copied from it in a single call
 	 */
 	public static String implode(List<Character> list) {
-		return list	.map(x -> x.toString())
-					.foldr((a,b) -> a+b, "");
+		StringBuilder sb = new StringBuilder(list.length());
+		if (list instanceof StringList)
+			return ((StringList)list).appendTo(sb).toString();
+		for (Character c : list)
+			sb.append(c.charValue());
+		return sb.toString();
 	}
 
 	/**
-	 * Convert a string to a list of characters
+	 * Convert a string to a list of characters. The list is a view of the string, so nothing
+	 * is copied until the list is transformed
 	 */
 	public static List<Character> explode(String s) {
-		return streamToList(s.chars().mapToObj(i -> (char)i));
+		return new StringList(s, 0, s.length());
+	}
+
+	/**
+	 * Accumulates items in order and then builds the list from the back, so that the bulk
+	 * operations below can be written as loops rather than one level of recursion per element.
+	 * A builder may be reused after build(); the lists it has produced are never changed.
+	 */
+	static final class Builder<E> {
+		private final ArrayList<E> items = new ArrayList<E>();
+
+		/**
+		 * @param x		the item to add at the end
+		 * @return		this builder
+		 */
+		Builder<E> add(E x) {
+			items.add(x);
+			return this;
+		}
+
+		/**
+		 * Build the list of added items in front of an existing list, then clear the builder
+		 * @param rest	the list that follows the added items (shared, not copied)
+		 * @return		x0:x1:...:rest
+		 */
+		List<E> buildOnto(List<E> rest) {
+			List<E> xs = rest;
+			for (int i = items.size() - 1; i >= 0; i--)
+				xs = cons(items.get(i), xs);
+			items.clear();
+			return xs;
+		}
+
+		/**
+		 * @return		true if nothing has been added since the builder was created or last built
+		 */
+		boolean isEmpty() {
+			return items.isEmpty();
+		}
+
+		/**
+		 * Build the list of added items, then clear the builder
+		 * @return		x0:x1:...
+		 */
+		List<E> build() {
+			return buildOnto(emptyList());
+		}
 	}
 
 	/**
-	 * Any instance represents an empty list.  All instance methods act upon empty lists.
-	 * Overridden versions for non-empty lists are handled in an anonymous subclass that
-	 * is defined within the addFront() method.
+	 * A list is either the shared empty list (Nil) or a cell x:xs (Cons). Both are private
+	 * final classes below, and the constructor is package-private, so the only other
+	 * subclasses are the read-only views in this package.
+	 * The instance methods are written once here as loops over isEmpty(), head() and tail(),
+	 * or over iterator() where they only read the items, so that a view whose tail() makes a
+	 * new view is walked without one per item. Nil and Cons override only the handful of
+	 * methods that each can answer directly.
 	 */
+	List() {
+	}
 
 	/**
 	 * Perform a structural equality check (same elements in same order).
 	 * Two empty lists are equal.
 	 */
-	@SuppressWarnings("unchecked")
 	@Override public boolean equals(Object that) {
-		return (that != null && this.getClass() == that.getClass() && ((List<E>)that).isEmpty());
+		if (this == that)
+			return true;
+		if (!(that instanceof List))
+			return false;
+		List<?> xs = this;
+		List<?> ys = (List<?>)that;
+		if (xs.length() != ys.length())
+			return false;
+		int hx = xs.knownHash(), hy = ys.knownHash();
+		if (hx != 0 && hy != 0 && hx != hy)
+			return false;
+		// the lengths are equal, so walk that many cells of each; cells shared from there on are equal
+		xs = xs.cells();
+		ys = ys.cells();
+		for (int n = this.length(); n > 0; n--, xs = xs.tail(), ys = ys.tail()) {
+			if (xs == ys)
+				return true;
+			if (!Objects.equals(xs.head(), ys.head()))
+				return false;
+		}
+		return true;
+	}
 
+	/**
+	 * The cells this list's items are read from: a list whose first length() items are this
+	 * list's. Views that are a prefix of a longer list return that list, so that walking it
+	 * does not make a new view per item
+	 * @return		this list, or the list it is a view of
+	 */
+	List<E> cells() {
+		return this;
+	}
+
+	/**
+	 * A structural hash consistent with equals: 1 for [], and 31 * hash(xs) + hash(x) for x:xs.
+	 * Cons cells compute theirs the first time it is asked for, and keep it.
+	 */
+	@Override public int hashCode() {
+		Object[] items = this.toArray();
+		int h = 1;
+		for (int i = items.length - 1; i >= 0; i--)
+			h = 31 * h + Objects.hashCode(items[i]);
+		return h;
+	}
+
+	/**
+	 * @return		the hash if it is already known, so that equals can use it for free;
+	 * 				otherwise 0
+	 */
+	int knownHash() {
+		return 0;
 	}
 
 	/**
-	 * Group a list into sublists of size n
+	 * Group a list into sublists of size n. Each sublist is a view of this list (see take), so
+	 * grouping allocates a view and a cons cell per group and copies no cells
 	 * Note that this method is inherited by subclasses, and not overridden
 	 * @param n			the size of each sublist (except possibly the last which may be shorter)
 	 * @return			the list of n-sized sublists
@@ -212,8 +346,10 @@ public class List<E> {
 	public List<List<E>> group(int n) {
 		if (n<1)
 			throw new IllegalArgumentException("group(n): n must be > 0");
-		else
-			return iterateWhile(xs -> !xs.isEmpty(), xs -> xs.drop(n), this).map(xs -> xs.take(n));
+		Builder<List<E>> b = new Builder<List<E>>();
+		for (List<E> xs = this; !xs.isEmpty(); xs = xs.drop(n))
+			b.add(xs.take(n));
+		return b.build();
 	}
 
 	/**
@@ -222,63 +358,704 @@ public class List<E> {
 	 * @return		a stream with the values drawn from the list
 	 */
 	public Stream<E> listToStream() {
-		return this.toArrayList().stream();
+		return stream();
+	}
+
+	/**
+	 * A sequential stream drawn directly from the list, in linear time
+	 * Note that this method is inherited by subclasses, and not overridden
+	 * @return		a stream with the values drawn from the list
+	 */
+	public Stream<E> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * A parallel stream drawn directly from the list. The list is split by skipping ahead
+	 * Note that this method is inherited by subclasses, and not overridden
+	 * @return		a possibly parallel stream with the values drawn from the list
+	 */
+	public Stream<E> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+
+	/**
+	 * Iterate over the list from the front
+	 * Note that this method is inherited by subclasses, and not overridden
+	 */
+	@Override public Iterator<E> iterator() {
+		return new Iterator<E>() {
+			private List<E> remain = List.this;
+
+			@Override
+			public boolean hasNext() {
+				return !remain.isEmpty();
+			}
+
+			@Override
+			public E next() {
+				E x = remain.head();
+				remain = remain.tail();
+				return x;
+			}
+		};
+	}
+
+	/**
+	 * A spliterator that knows its exact size (lengths are stored in each cell) and splits
+	 * by handing off the first half of what remains
+	 * Note that this method is inherited by subclasses, and not overridden
+	 */
+	@Override public Spliterator<E> spliterator() {
+		return new ListSpliterator<E>(this, this.length());
+	}
+
+	/**
+	 * Traverses the first n items of a list; trySplit() gives away the first half and skips ahead
+	 */
+	private static final class ListSpliterator<E> implements Spliterator<E> {
+		private List<E> remain;
+		private int n;
+
+		ListSpliterator(List<E> remain, int n) {
+			this.remain = remain;
+			this.n = n;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super E> action) {
+			if (n <= 0)
+				return false;
+			action.accept(remain.head());
+			remain = remain.tail();
+			n--;
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super E> action) {
+			for (; n > 0; n--, remain = remain.tail())
+				action.accept(remain.head());
+		}
+
+		@Override
+		public Spliterator<E> trySplit() {
+			if (n < 2)
+				return null;
+			int half = n / 2;
+			Spliterator<E> prefix = new ListSpliterator<E>(remain, half);
+			remain = remain.drop(half);
+			n -= half;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return n;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED | IMMUTABLE;
+		}
 	}
 
 	/**
 	 * Convert a list to an array list
+	 * Note that this method is inherited by subclasses, and not overridden
 	 * @return		an array list with the values drawn from the list
 	 */
 	public ArrayList<E> toArrayList() {
-		return new ArrayList<E>();
+		ArrayList<E> l = new ArrayList<E>(this.length());
+		for (E x : this)
+			l.add(x);
+		return l;
+	}
+
+	/*
+	 * Parallel bulk operations. Each copies the list into an array once, processes segments
+	 * of it on the common ForkJoinPool, and rebuilds a list in the original order, so the
+	 * results are the same as the sequential versions. Lists shorter than the threshold are
+	 * processed sequentially. These are inherited by subclasses, and not overridden.
+	 */
+
+	/** The default length below which the parallel operations run sequentially */
+	public static final int PARALLEL_THRESHOLD = 8192;
+
+	/** The work done on one segment [lo, hi) of the array */
+	@FunctionalInterface
+	private interface SegmentBody {
+		void run(int lo, int hi);
 	}
 
 	/**
-	 * Convert a list to a string for, e.g., printing
+	 * Runs a segment body over [lo, hi), halving the range until it is no longer than leaf
 	 */
-	@Override public String toString() {
-		return "[]";
+	@SuppressWarnings("serial")
+	private static final class Segments extends RecursiveAction {
+		private final int lo, hi, leaf;
+		private final SegmentBody body;
+
+		Segments(int lo, int hi, int leaf, SegmentBody body) {
+			this.lo = lo;
+			this.hi = hi;
+			this.leaf = leaf;
+			this.body = body;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo <= leaf)
+				body.run(lo, hi);
+			else {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new Segments(lo, mid, leaf, body), new Segments(mid, hi, leaf, body));
+			}
+		}
 	}
 
 	/**
-	 * Test if a list is empty.
-	 * @return		true if empty, false otherwise
+	 * Process the whole array in segments on the common pool
+	 * @param n				the array length
+	 * @param threshold		the caller's sequential threshold, also the smallest segment size
+	 * @param body			the work for each segment
 	 */
-	public boolean isEmpty() {
-		return true;
+	private static void inSegments(int n, int threshold, SegmentBody body) {
+		int leaf = Integer.max(Integer.max(threshold, 1), n / (4 * ForkJoinPool.getCommonPoolParallelism()));
+		ForkJoinPool.commonPool().invoke(new Segments(0, n, leaf, body));
 	}
 
 	/**
-	 * Return the length of a list.
-	 * @return		0 if empty, 1 + length of tail otherwise
+	 * @return		the items of the list in a new array
 	 */
-	public int length() {
-		return 0;
+	private Object[] toArray() {
+		Object[] items = new Object[this.length()];
+		int i = 0;
+		for (E x : this)
+			items[i++] = x;
+		return items;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <E> E item(Object[] items, int i) {
+		return (E)items[i];
 	}
 
 	/**
-	 * Look up item in list at index (first item is at index zero)
-	 * @param k		the index
-	 * @return		error if empty or index out of range, otherwise item at index
+	 * Apply a function to each item in the list, in parallel
+	 * @param f		the function to apply to each element
+	 * @return		the transformed list, equal to map(f)
 	 */
-	public E at(int k) {
-		throw new NoSuchElementException("at");
+	public <F> List<F> parallelMap(Function<E,F> f) {
+		return parallelMap(f, PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * Apply a function to each item in the list, in parallel
+	 * @param f				the function to apply to each element
+	 * @param threshold		the length below which the list is mapped sequentially
+	 * @return				the transformed list, equal to map(f)
+	 */
+	@SuppressWarnings("unchecked")
+	public <F> List<F> parallelMap(Function<E,F> f, int threshold) {
+		if (this.length() < threshold)
+			return this.map(f);
+		Object[] items = this.toArray();
+		Object[] results = new Object[items.length];
+		inSegments(items.length, threshold, (lo, hi) -> {
+			for (int i = lo; i < hi; i++)
+				results[i] = f.apply(item(items, i));
+		});
+		return arrayToList((F[])results);
+	}
+
+	/**
+	 * The items from the list that satisfy the condition in the original order, tested in parallel
+	 * @param p		the condition each kept element must satisfy
+	 * @return		the filtered list, equal to filter(p)
+	 */
+	public List<E> parallelFilter(Predicate<E> p) {
+		return parallelFilter(p, PARALLEL_THRESHOLD);
 	}
 
+	/**
+	 * The items from the list that satisfy the condition in the original order, tested in parallel
+	 * @param p				the condition each kept element must satisfy
+	 * @param threshold		the length below which the list is filtered sequentially
+	 * @return				the filtered list, equal to filter(p)
+	 */
+	public List<E> parallelFilter(Predicate<E> p, int threshold) {
+		if (this.length() < threshold)
+			return this.filter(p);
+		Object[] items = this.toArray();
+		boolean[] keep = new boolean[items.length];
+		inSegments(items.length, threshold, (lo, hi) -> {
+			for (int i = lo; i < hi; i++)
+				keep[i] = p.test(item(items, i));
+		});
+		List<E> xs = emptyList();
+		for (int i = items.length - 1; i >= 0; i--)
+			if (keep[i])
+				xs = cons(item(items, i), xs);
+		return xs;
+	}
+
+	/**
+	 * Reduce a list in parallel. Each segment is folded from the identity with op, and the
+	 * segment results are joined left to right with combiner. The result equals
+	 * foldl(op, identity) provided combiner is associative, identity is an identity for it,
+	 * and combiner(a, op(identity, x)) == op(a, x)
+	 * @param op			the operator to apply between an accumulator and an element
+	 * @param combiner		the associative operator that joins two partial results
+	 * @param identity		the accumulator for each segment
+	 * @return				the value generated by reducing the list
+	 */
+	public <F> F parallelFoldl(BiFunction<F,E,F> op, BinaryOperator<F> combiner, F identity) {
+		return parallelFoldl(op, combiner, identity, PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * Reduce a list in parallel, as parallelFoldl(op, combiner, identity)
+	 * @param op			the operator to apply between an accumulator and an element
+	 * @param combiner		the associative operator that joins two partial results
+	 * @param identity		the accumulator for each segment
+	 * @param threshold		the length below which the list is folded sequentially
+	 * @return				the value generated by reducing the list
+	 */
+	public <F> F parallelFoldl(BiFunction<F,E,F> op, BinaryOperator<F> combiner, F identity, int threshold) {
+		if (this.length() < threshold)
+			return this.foldl(op, identity);
+		Object[] items = this.toArray();
+		int leaf = Integer.max(Integer.max(threshold, 1), items.length / (4 * ForkJoinPool.getCommonPoolParallelism()));
+		return ForkJoinPool.commonPool().invoke(new Fold<E,F>(items, 0, items.length, leaf, op, combiner, identity));
+	}
+
+	/**
+	 * Folds [lo, hi) of the array, halving the range until it is no longer than leaf
+	 */
+	@SuppressWarnings("serial")
+	private static final class Fold<E,F> extends RecursiveTask<F> {
+		private final Object[] items;
+		private final int lo, hi, leaf;
+		private final BiFunction<F,E,F> op;
+		private final BinaryOperator<F> combiner;
+		private final F identity;
+
+		Fold(Object[] items, int lo, int hi, int leaf, BiFunction<F,E,F> op, BinaryOperator<F> combiner, F identity) {
+			this.items = items;
+			this.lo = lo;
+			this.hi = hi;
+			this.leaf = leaf;
+			this.op = op;
+			this.combiner = combiner;
+			this.identity = identity;
+		}
+
+		@Override
+		protected F compute() {
+			if (hi - lo <= leaf) {
+				F acc = identity;
+				for (int i = lo; i < hi; i++)
+					acc = op.apply(acc, item(items, i));
+				return acc;
+			}
+			int mid = (lo + hi) >>> 1;
+			Fold<E,F> left = new Fold<E,F>(items, lo, mid, leaf, op, combiner, identity);
+			left.fork();
+			F right = new Fold<E,F>(items, mid, hi, leaf, op, combiner, identity).compute();
+			return combiner.apply(left.join(), right);
+		}
+	}
+
+	/**
+	 * Returns true if any elements in the list satisfy the condition, testing in parallel.
+	 * Segments stop early once any match has been found
+	 * @param p		the condition each element must satisfy
+	 * @return		true if any element satisfies p, else false
+	 */
+	public boolean parallelAny(Predicate<E> p) {
+		return parallelAny(p, PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * Returns true if any elements in the list satisfy the condition, testing in parallel
+	 * @param p				the condition each element must satisfy
+	 * @param threshold		the length below which the list is tested sequentially
+	 * @return				true if any element satisfies p, else false
+	 */
+	public boolean parallelAny(Predicate<E> p, int threshold) {
+		if (this.length() < threshold)
+			return this.any(p);
+		Object[] items = this.toArray();
+		AtomicBoolean found = new AtomicBoolean(false);
+		inSegments(items.length, threshold, (lo, hi) -> {
+			for (int i = lo; i < hi && !found.get(); i++)
+				if (p.test(item(items, i)))
+					found.set(true);
+		});
+		return found.get();
+	}
+
+	/**
+	 * Returns true if all elements in the list satisfy the condition, testing in parallel.
+	 * Segments stop early once any failure has been found
+	 * @param p		the condition each element must satisfy
+	 * @return		true if all elements satisfy p, else false
+	 */
+	public boolean parallelAll(Predicate<E> p) {
+		return !parallelAny(p.negate(), PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * Returns true if all elements in the list satisfy the condition, testing in parallel
+	 * @param p				the condition each element must satisfy
+	 * @param threshold		the length below which the list is tested sequentially
+	 * @return				true if all elements satisfy p, else false
+	 */
+	public boolean parallelAll(Predicate<E> p, int threshold) {
+		return !parallelAny(p.negate(), threshold);
+	}
+
+	/*
+	 * Sorting. The list is copied into an array once, sorted there with a stable bottom-up
+	 * merge sort, and rebuilt. Lists at least as long as the threshold are sorted on the
+	 * common ForkJoinPool: segments are sorted in parallel, and the merges of large runs are
+	 * themselves split between tasks. Equal items keep their original order either way.
+	 */
+
+	/** Runs this short are insertion sorted before the merging starts */
+	private static final int SORT_RUN = 16;
+
+	/**
+	 * Sort a list, keeping equal items in their original order
+	 * @param cmp		the ordering
+	 * @return			the sorted list
+	 */
+	public List<E> sort(Comparator<? super E> cmp) {
+		return sort(cmp, PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * Sort a list, keeping equal items in their original order
+	 * @param cmp			the ordering
+	 * @param threshold		the length below which the list is sorted sequentially
+	 * @return				the sorted list
+	 */
+	@SuppressWarnings("unchecked")
+	public List<E> sort(Comparator<? super E> cmp, int threshold) {
+		if (this.length() < 2)
+			return this;
+		Object[] items = this.toArray();
+		sortArray(items, null, (Comparator<Object>)cmp, threshold);
+		return arrayToList((E[])items);
+	}
+
+	/**
+	 * Sort a list by a key computed from each item. Each key is computed once, not once per
+	 * comparison. Items with equal keys keep their original order
+	 * @param key		the function giving the key of an item
+	 * @return			the list sorted by key
+	 */
+	public <K extends Comparable<? super K>> List<E> sortBy(Function<E,K> key) {
+		return sortBy(key, PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * Sort a list by a key computed from each item, as sortBy(key)
+	 * @param key			the function giving the key of an item
+	 * @param threshold		the length below which the keys are computed and sorted sequentially
+	 * @return				the list sorted by key
+	 */
+	@SuppressWarnings("unchecked")
+	public <K extends Comparable<? super K>> List<E> sortBy(Function<E,K> key, int threshold) {
+		if (this.length() < 2)
+			return this;
+		Object[] items = this.toArray();
+		Object[] keys = new Object[items.length];
+		SegmentBody body = (lo, hi) -> {
+			for (int i = lo; i < hi; i++)
+				keys[i] = key.apply(item(items, i));
+		};
+		if (items.length < threshold)
+			body.run(0, items.length);
+		else
+			inSegments(items.length, threshold, body);
+		sortArray(keys, items, (a, b) -> ((K)a).compareTo((K)b), threshold);
+		return arrayToList((E[])items);
+	}
+
+	/**
+	 * Split a list into runs of adjacent items that are equal to the first item of their run
+	 * e.g. [1,1,2,3,3,3,1].groupBy(Integer::equals) = [[1,1],[2],[3,3,3],[1]]
+	 * Each run is a view of this list (see take). Sort first to bring all equal items together
+	 * @param eq		the equality test, applied as eq(first item of run, next item)
+	 * @return			the list of runs, none of them empty, that concatenate to this list
+	 */
+	public List<List<E>> groupBy(BiPredicate<E,E> eq) {
+		Builder<List<E>> b = new Builder<List<E>>();
+		List<E> run = this;
+		E first = null;
+		int n = 0;
+		for (E x : this) {
+			if (n > 0 && !eq.test(first, x)) {
+				b.add(run.take(n));
+				run = run.drop(n);
+				n = 0;
+			}
+			if (n++ == 0)
+				first = x;
+		}
+		if (n > 0)
+			b.add(run);
+		return b.build();
+	}
+
+	/**
+	 * Sort keys in place, moving the corresponding vals (if there are any) to match
+	 * @param keys			the items to sort
+	 * @param vals			the items that move with the keys, or null
+	 * @param cmp			the ordering of the keys
+	 * @param threshold		the length below which the keys are sorted sequentially
+	 */
+	private static void sortArray(Object[] keys, Object[] vals, Comparator<Object> cmp, int threshold) {
+		int n = keys.length;
+		Object[] tmpKeys = new Object[n];
+		Object[] tmpVals = vals == null ? null : new Object[n];
+		if (n < threshold)
+			sortRange(keys, vals, tmpKeys, tmpVals, 0, n, cmp);
+		else {
+			int leaf = Integer.max(Integer.max(threshold, SORT_RUN), n / (4 * ForkJoinPool.getCommonPoolParallelism()));
+			ForkJoinPool.commonPool().invoke(new MergeSort(keys, vals, tmpKeys, tmpVals, 0, n, leaf, cmp));
+		}
+	}
+
+	/**
+	 * Sort [lo, hi) of the keys sequentially: insertion sort short runs, then merge runs of
+	 * doubling width, alternating between the arrays and the scratch arrays
+	 */
+	private static void sortRange(Object[] keys, Object[] vals, Object[] tmpKeys, Object[] tmpVals,
+			int lo, int hi, Comparator<Object> cmp) {
+		for (int run = lo; run < hi; run += SORT_RUN) {
+			int end = Integer.min(run + SORT_RUN, hi);
+			for (int i = run + 1; i < end; i++) {
+				Object k = keys[i];
+				Object v = vals == null ? null : vals[i];
+				int j = i;
+				for (; j > run && cmp.compare(keys[j - 1], k) > 0; j--) {
+					keys[j] = keys[j - 1];
+					if (vals != null)
+						vals[j] = vals[j - 1];
+				}
+				keys[j] = k;
+				if (vals != null)
+					vals[j] = v;
+			}
+		}
+		Object[] srcKeys = keys, srcVals = vals, dstKeys = tmpKeys, dstVals = tmpVals;
+		for (int width = SORT_RUN; width < hi - lo; width *= 2) {
+			for (int i = lo; i < hi; i += 2 * width) {
+				int mid = Integer.min(i + width, hi), end = Integer.min(i + 2 * width, hi);
+				merge(srcKeys, srcVals, i, mid, mid, end, dstKeys, dstVals, i, cmp);
+			}
+			Object[] t = srcKeys; srcKeys = dstKeys; dstKeys = t;
+			t = srcVals; srcVals = dstVals; dstVals = t;
+		}
+		if (srcKeys != keys) {
+			System.arraycopy(srcKeys, lo, keys, lo, hi - lo);
+			if (vals != null)
+				System.arraycopy(srcVals, lo, vals, lo, hi - lo);
+		}
+	}
+
+	/**
+	 * Merge the sorted ranges [lo1, hi1) and [lo2, hi2) of src into dst starting at out.
+	 * On equal keys the first range goes first, which keeps the sort stable
+	 */
+	private static void merge(Object[] srcKeys, Object[] srcVals, int lo1, int hi1, int lo2, int hi2,
+			Object[] dstKeys, Object[] dstVals, int out, Comparator<Object> cmp) {
+		int i = lo1, j = lo2;
+		while (i < hi1 && j < hi2) {
+			if (cmp.compare(srcKeys[i], srcKeys[j]) <= 0) {
+				dstKeys[out] = srcKeys[i];
+				if (srcVals != null)
+					dstVals[out] = srcVals[i];
+				i++;
+			}
+			else {
+				dstKeys[out] = srcKeys[j];
+				if (srcVals != null)
+					dstVals[out] = srcVals[j];
+				j++;
+			}
+			out++;
+		}
+		System.arraycopy(srcKeys, i, dstKeys, out, hi1 - i);
+		System.arraycopy(srcKeys, j, dstKeys, out + hi1 - i, hi2 - j);
+		if (srcVals != null) {
+			System.arraycopy(srcVals, i, dstVals, out, hi1 - i);
+			System.arraycopy(srcVals, j, dstVals, out + hi1 - i, hi2 - j);
+		}
+	}
+
+	/**
+	 * Sorts [lo, hi) of the keys: the two halves in parallel, then a parallel merge of the
+	 * halves into the scratch arrays, which is copied back
+	 */
+	@SuppressWarnings("serial")
+	private static final class MergeSort extends RecursiveAction {
+		private final Object[] keys, vals, tmpKeys, tmpVals;
+		private final int lo, hi, leaf;
+		private final Comparator<Object> cmp;
+
+		MergeSort(Object[] keys, Object[] vals, Object[] tmpKeys, Object[] tmpVals,
+				int lo, int hi, int leaf, Comparator<Object> cmp) {
+			this.keys = keys;
+			this.vals = vals;
+			this.tmpKeys = tmpKeys;
+			this.tmpVals = tmpVals;
+			this.lo = lo;
+			this.hi = hi;
+			this.leaf = leaf;
+			this.cmp = cmp;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo <= leaf) {
+				sortRange(keys, vals, tmpKeys, tmpVals, lo, hi, cmp);
+				return;
+			}
+			int mid = (lo + hi) >>> 1;
+			invokeAll(new MergeSort(keys, vals, tmpKeys, tmpVals, lo, mid, leaf, cmp),
+					new MergeSort(keys, vals, tmpKeys, tmpVals, mid, hi, leaf, cmp));
+			new Merge(keys, vals, lo, mid, mid, hi, tmpKeys, tmpVals, lo, leaf, cmp).invoke();
+			System.arraycopy(tmpKeys, lo, keys, lo, hi - lo);
+			if (vals != null)
+				System.arraycopy(tmpVals, lo, vals, lo, hi - lo);
+		}
+	}
+
+	/**
+	 * Merges two sorted ranges as merge() does, splitting the work when it is longer than leaf.
+	 * The middle item of the longer range is located in the other range by binary search, which
+	 * divides both into a part that goes before it and a part that goes after it
+	 */
+	@SuppressWarnings("serial")
+	private static final class Merge extends RecursiveAction {
+		private final Object[] srcKeys, srcVals, dstKeys, dstVals;
+		private final int lo1, hi1, lo2, hi2, out, leaf;
+		private final Comparator<Object> cmp;
+
+		Merge(Object[] srcKeys, Object[] srcVals, int lo1, int hi1, int lo2, int hi2,
+				Object[] dstKeys, Object[] dstVals, int out, int leaf, Comparator<Object> cmp) {
+			this.srcKeys = srcKeys;
+			this.srcVals = srcVals;
+			this.lo1 = lo1;
+			this.hi1 = hi1;
+			this.lo2 = lo2;
+			this.hi2 = hi2;
+			this.dstKeys = dstKeys;
+			this.dstVals = dstVals;
+			this.out = out;
+			this.leaf = leaf;
+			this.cmp = cmp;
+		}
+
+		@Override
+		protected void compute() {
+			int n1 = hi1 - lo1, n2 = hi2 - lo2;
+			if (n1 + n2 <= leaf) {
+				merge(srcKeys, srcVals, lo1, hi1, lo2, hi2, dstKeys, dstVals, out, cmp);
+				return;
+			}
+			int i, j;
+			if (n1 >= n2) {
+				// items of the second range equal to the pivot go after it
+				i = (lo1 + hi1) >>> 1;
+				j = search(lo2, hi2, srcKeys[i], false);
+			}
+			else {
+				// items of the first range equal to the pivot go before it
+				j = (lo2 + hi2) >>> 1;
+				i = search(lo1, hi1, srcKeys[j], true);
+			}
+			int split = out + (i - lo1) + (j - lo2);
+			invokeAll(new Merge(srcKeys, srcVals, lo1, i, lo2, j, dstKeys, dstVals, out, leaf, cmp),
+					new Merge(srcKeys, srcVals, i, hi1, j, hi2, dstKeys, dstVals, split, leaf, cmp));
+		}
+
+		/**
+		 * @return		the first index in [lo, hi) whose key is after x, or not before x if
+		 * 				!orEqual
+		 */
+		private int search(int lo, int hi, Object x, boolean orEqual) {
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				int c = cmp.compare(srcKeys[mid], x);
+				if (c < 0 || (orEqual && c == 0))
+					lo = mid + 1;
+				else
+					hi = mid;
+			}
+			return lo;
+		}
+	}
+
+	/**
+	 * Convert a list to a string for, e.g., printing
+	 */
+	@Override public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		boolean first = true;
+		for (E x : this) {
+			if (!first)
+				sb.append(',');
+			sb.append(x);
+			first = false;
+		}
+		return sb.append(']').toString();
+	}
+
+	/**
+	 * Test if a list is empty.
+	 * @return		true if empty, false otherwise
+	 */
+	public abstract boolean isEmpty();
+
+	/**
+	 * Return the length of a list. Each cell stores its length when it is built, so this is O(1)
+	 * @return		0 if empty, 1 + length of tail otherwise
+	 */
+	public abstract int length();
+
 	/**
 	 * Return the first item in the list
 	 * @return		nothing it empty, otherwise the first item in the list
 	 */
-	public E head() {
-		throw new NoSuchElementException("head");
-	}
+	public abstract E head();
 
 	/**
 	 * Return the sublist starting from the second element
 	 * @return		nothing if empty, otherwise the list without the first item
 	 */
-	public List<E> tail() {
-		throw new NoSuchElementException("tail");
+	public abstract List<E> tail();
+
+	/**
+	 * Look up item in list at index (first item is at index zero). Every list type in this
+	 * package, views included, throws IndexOutOfBoundsException for a negative index and
+	 * NoSuchElementException for an index past the end
+	 * @param k		the index
+	 * @return		error if empty or index out of range, otherwise item at index
+	 */
+	public E at(int k) {
+		if (k<0)
+			throw new IndexOutOfBoundsException("at");
+		List<E> xs = this;
+		for (int i = 0; i < k && !xs.isEmpty(); i++)
+			xs = xs.tail();
+		if (xs.isEmpty())
+			throw new NoSuchElementException("at");
+		return xs.head();
 	}
 
 	/**
@@ -286,7 +1063,12 @@ public class List<E> {
 	 * @return		the two lists joined together
 	 */
 	public List<E> append(List<E> that) {
-		return that;
+		if (that.isEmpty())
+			return this;
+		Builder<E> b = new Builder<E>();
+		for (E x : this)
+			b.add(x);
+		return b.buildOnto(that);
 	}
 
 	/**
@@ -294,16 +1076,25 @@ public class List<E> {
 	 * @return		the list with the items in the reverse order
 	 */
 	public List<E> reverse() {
-		return emptyList();
+		List<E> acc = emptyList();
+		for (E x : this)
+			acc = cons(x, acc);
+		return acc;
 	}
 
 	/**
-	 * Take n elements from the front of a list
+	 * Take n elements from the front of a list. Nothing is copied: the result is a view of
+	 * the first n cells of this list
 	 * @param n		the number of elements to take
 	 * @return		the initial subsequence of length &le; n
 	 */
 	public List<E> take(int n) {
-		return emptyList();
+		if (n >= this.length())
+			return this;
+		else if (n <= 0)
+			return emptyList();
+		else
+			return new Slice<E>(this, n);
 	}
 
 	/**
@@ -312,7 +1103,10 @@ public class List<E> {
 	 * @return		the final subsequence after the first n elements have been removed
 	 */
 	public List<E> drop(int n) {
-		return emptyList();
+		List<E> xs = this;
+		for (int i = 0; i < n && !xs.isEmpty(); i++)
+			xs = xs.tail();
+		return xs;
 	}
 
 	/**
@@ -321,7 +1115,13 @@ public class List<E> {
 	 * @return		the initial subsequence of elements that all satisfy p
 	 */
 	public List<E> takeWhile(Predicate<E> p) {
-		return emptyList();
+		Builder<E> b = new Builder<E>();
+		for (E x : this) {
+			if (!p.test(x))
+				break;
+			b.add(x);
+		}
+		return b.build();
 	}
 
 	/**
@@ -330,7 +1130,10 @@ public class List<E> {
 	 * @return		the final subsequence of elements once the initial subsequence of elements satisfying p are removed
 	 */
 	public List<E> dropWhile(Predicate<E> p) {
-		return emptyList();
+		List<E> xs = this;
+		while (!xs.isEmpty() && p.test(xs.head()))
+			xs = xs.tail();
+		return xs;
 	}
 
 	/**
@@ -339,7 +1142,11 @@ public class List<E> {
 	 * @return		the sequence generated from all elements satisfying p in the original order
 	 */
 	public List<E> filter(Predicate<E> p) {
-		return emptyList();
+		Builder<E> b = new Builder<E>();
+		for (E x : this)
+			if (p.test(x))
+				b.add(x);
+		return b.build();
 	}
 
 	/**
@@ -348,14 +1155,21 @@ public class List<E> {
 	 * @return		true if all elements satisfy p, else false
 	 */
 	public boolean all(Predicate<E> p) {
+		for (E x : this)
+			if (!p.test(x))
+				return false;
 		return true;
 	}
+
 	/**
 	 * Returns true if any elements in the list satisfy the condition
 	 * @param p		the condition each element must satisfy
 	 * @return		true if any element satisfies p, else false
 	 */
 	public boolean any(Predicate<E> p) {
+		for (E x : this)
+			if (p.test(x))
+				return true;
 		return false;
 	}
 
@@ -365,7 +1179,10 @@ public class List<E> {
 	 * @return		the transformed list
 	 */
 	public <F> List<F> map(Function<E,F> f) {
-		return emptyList();
+		Builder<F> b = new Builder<F>();
+		for (E x : this)
+			b.add(f.apply(x));
+		return b.build();
 	}
 
 	/**
@@ -376,7 +1193,10 @@ public class List<E> {
 	 * @return					the value generated by reducing the list
 	 */
 	public <F> F foldl(BiFunction<F,E,F> op, F accumulator) {
-		return accumulator;
+		F acc = accumulator;
+		for (E x : this)
+			acc = op.apply(acc, x);
+		return acc;
 	}
 
 	/**
@@ -386,7 +1206,13 @@ public class List<E> {
 	 * @return					the value generated by reducing the list
 	 */
 	public E foldl1(BinaryOperator<E> op) {
-		throw new UnsupportedOperationException("foldl1 emptylist");
+		if (this.isEmpty())
+			throw new UnsupportedOperationException("foldl1 emptylist");
+		Iterator<E> xs = this.iterator();
+		E acc = xs.next();
+		while (xs.hasNext())
+			acc = op.apply(acc, xs.next());
+		return acc;
 	}
 
 	/**
@@ -397,7 +1223,11 @@ public class List<E> {
 	 * @return					the value generated by reducing the list
 	 */
 	public <F> F foldr(BiFunction<E,F,F> op, F lastElement) {
-		return lastElement;
+		Object[] items = this.toArray();
+		F acc = lastElement;
+		for (int i = items.length - 1; i >= 0; i--)
+			acc = op.apply(item(items, i), acc);
+		return acc;
 	}
 
 	/**
@@ -407,7 +1237,13 @@ public class List<E> {
 	 * @return					the value generated by reducing the list
 	 */
 	public E foldr1(BinaryOperator<E> op) {
-		throw new UnsupportedOperationException("foldr1 emptylist");
+		if (this.isEmpty())
+			throw new UnsupportedOperationException("foldr1 emptylist");
+		Object[] items = this.toArray();
+		E acc = item(items, items.length - 1);
+		for (int i = items.length - 2; i >= 0; i--)
+			acc = op.apply(item(items, i), acc);
+		return acc;
 	}
 
 	/**
@@ -419,7 +1255,12 @@ public class List<E> {
 	 * @return			the new list of items formed from the operator applied to corresponding pairs
 	 */
 	public <F,G> List<G> zipWith(List<F> that, BiFunction<E,F,G> op) {
-		return emptyList();
+		Builder<G> b = new Builder<G>();
+		Iterator<E> xs = this.iterator();
+		Iterator<F> ys = that.iterator();
+		while (xs.hasNext() && ys.hasNext())
+			b.add(op.apply(xs.next(), ys.next()));
+		return b.build();
 	}
 
 	/**
@@ -429,7 +1270,13 @@ public class List<E> {
 	 * @return			the list with the separator interspersed between items
 	 */
 	public List<E> intersperse(E sep) {
-		return emptyList();
+		Builder<E> b = new Builder<E>();
+		for (E x : this) {
+			if (!b.isEmpty())
+				b.add(sep);
+			b.add(x);
+		}
+		return b.build();
 	}
 
 	/**
@@ -438,175 +1285,240 @@ public class List<E> {
 	 * @return		the new list with x added to the front
 	 */
 	public List<E> addFront(E x){
-		return new List<E>() {
-			@SuppressWarnings("unchecked")
-			@Override
-			public boolean equals(Object that) {
-				if (that == null || this.getClass() != that.getClass())
-					return false;
-				else {
-					List<E> other = (List<E>)that;
-					return (this.head().equals(other.head()) && this.tail().equals(other.tail()));
-				}
-			}
-
-			@Override
-			public ArrayList<E> toArrayList() {
-				ArrayList<E> l = List.this.toArrayList();
-				l.add(0, x);
-				return l;
-			}
-
-			@Override
-			public String toString() {
-				StringBuffer sb = new StringBuffer(); // localised mutable state
-				this.map(Object::toString).intersperse(",").listToStream().forEachOrdered(s -> sb.append(s));
-				return "[" + sb.toString() + "]";
-			}
-
-			@Override
-			public boolean isEmpty() {
-				return false;
-			}
-
-			@Override
-			public int length() {
-				return List.this.length() + 1;
-			}
-
-			@Override
-			public E at(int k) {
-				if (k<0)
-					throw new IndexOutOfBoundsException("at");
-				else if (k==0)
-					return x;
-				else
-					return List.this.at(k-1);
-			}
-
-			@Override
-			public E head() {
-				return x;
-			}
-
-			@Override
-			public List<E> tail() {
-				return List.this;
-			}
-
-			@Override
-			public List<E> append(List<E> that) {
-				return cons(x, List.this.append(that));
-			}
-
-			private List<E> rev(List<E> acc, List<E> remain) {
-				if (remain.isEmpty())
-					return acc;
-				else
-					return rev(cons(remain.head(), acc), remain.tail());
-			}
-
-			@Override
-			public List<E> reverse() {
-				return rev(emptyList(),this);
-			}
-
-			@Override
-			public List<E> take(int n) {
-				if (n<=0)
-					return emptyList();
-				else
-					return cons(x, List.this.take(n-1));
-			}
-
-			@Override
-			public List<E> drop(int n) {
-				if (n<=0)
-					return this;
-				else
-					return List.this.drop(n-1);
-			}
-
-			@Override
-			public List<E> takeWhile(Predicate<E> p) {
-				if(p.test(x))
-					return cons(x, List.this.takeWhile(p));
-				else
-					return emptyList();
-			}
+		return new Cons<E>(x, this);
+	}
 
-			@Override
-			public List<E> dropWhile(Predicate<E> p) {
-				if(p.test(x))
-					return List.this.dropWhile(p);
-				else
-					return this;
-			}
+	/**
+	 * The empty list. There is a single shared instance
+	 */
+	private static final class Nil<E> extends List<E> {
+		private static final Nil<?> INSTANCE = new Nil<Object>();
+
+		@Override public boolean equals(Object that) {
+			return that instanceof List && ((List<?>)that).isEmpty();
+		}
+
+		@Override public int hashCode() {
+			return 1;
+		}
+
+		@Override int knownHash() {
+			return 1;
+		}
+
+		@Override public String toString() {
+			return "[]";
+		}
+
+		@Override public boolean isEmpty() {
+			return true;
+		}
+
+		@Override public int length() {
+			return 0;
+		}
+
+		@Override public E at(int k) {
+			if (k<0)
+				throw new IndexOutOfBoundsException("at");
+			throw new NoSuchElementException("at");
+		}
+
+		@Override public E head() {
+			throw new NoSuchElementException("head");
+		}
+
+		@Override public List<E> tail() {
+			throw new NoSuchElementException("tail");
+		}
+	}
 
-			@Override
-			public List<E> filter(Predicate<E> p) {
-				if(p.test(x))
-					return cons(x, List.this.filter(p));
-				else
-					return List.this.filter(p);
+	/**
+	 * A non-empty list cell x:xs. The length is computed in O(1) from the tail when the cell
+	 * is built. The structural hash is computed when it is first asked for, and kept in every
+	 * cell it passes through, so building a list never hashes its items
+	 */
+	private static final class Cons<E> extends List<E> {
+		private final E head;
+		private final List<E> tail;
+		private final int size;
+		/** The hash, or 0 if it has not been computed yet */
+		private int hash;
+
+		Cons(E head, List<E> tail) {
+			this.head = head;
+			this.tail = tail;
+			this.size = tail.length() + 1;
+		}
+
+		@Override public int hashCode() {
+			int h = hash;
+			return h != 0 ? h : computeHash();
+		}
+
+		@Override int knownHash() {
+			return hash;
+		}
+
+		/**
+		 * Walk down to the first cell whose hash is known, or that is not a Cons, then work
+		 * back up, keeping the hash of each cell on the way. This is a loop, not a recursion,
+		 * so it is safe on long lists
+		 */
+		private int computeHash() {
+			ArrayList<Cons<E>> pending = new ArrayList<Cons<E>>();
+			List<E> xs = this;
+			while (xs instanceof Cons && ((Cons<E>)xs).hash == 0) {
+				Cons<E> cell = (Cons<E>)xs;
+				pending.add(cell);
+				xs = cell.tail;
 			}
-
-			@Override
-			public boolean all(Predicate<E> p) {
-				if (p.test(x))
-					return List.this.all(p);
-				else
-					return false;
+			int h = xs.hashCode();
+			for (int i = pending.size() - 1; i >= 0; i--) {
+				Cons<E> cell = pending.get(i);
+				h = 31 * h + Objects.hashCode(cell.head);
+				cell.hash = h;
 			}
+			return h;
+		}
 
-			@Override
-			public boolean any(Predicate<E> p) {
-				if (p.test(x))
-					return true;
-				else
-					return List.this.any(p);
-			}
+		@Override public boolean isEmpty() {
+			return false;
+		}
 
-			@Override
-			public <F> List<F> map(Function<E,F> f) {
-				return cons(f.apply(x), List.this.map(f));
-			}
+		@Override public int length() {
+			return size;
+		}
 
-			//@Override
-			public <F> F foldl(BiFunction<F,E,F> op, F accumulator) {
-				return  List.this.foldl(op, op.apply(accumulator,x));
-			}
+		@Override public E head() {
+			return head;
+		}
 
-			@Override
-			public E foldl1(BinaryOperator<E> op) {
-				return List.this.foldl(op, x);
-			}
+		@Override public List<E> tail() {
+			return tail;
+		}
+	}
 
-			@Override
-			public <F> F foldr(BiFunction<E,F,F> op, F lastElement) {
-				return op.apply(x, List.this.foldr(op, lastElement));
+	/**
+	 * A view of the first size cells of another list, as returned by take. head, tail, take,
+	 * drop and length are O(1) or O(n) in the cells skipped, and copy nothing. Operations that
+	 * build a new list read through the view and never modify the list underneath.
+	 * The view keeps the cells after its end reachable for as long as it is itself reachable
+	 */
+	private static final class Slice<E> extends List<E> {
+		private final List<E> start;
+		private final int size;
+		private int hash;
+
+		/** Precondition: 0 &lt; size &lt; start.length() */
+		Slice(List<E> start, int size) {
+			this.start = start;
+			this.size = size;
+		}
+
+		/**
+		 * The same hash as List.hashCode(), worked forwards over the cells so that nothing is
+		 * copied: 31^size + the sum of hash(x_i) * 31^i
+		 */
+		@Override public int hashCode() {
+			int h = hash;
+			if (h == 0) {
+				int power = 1;
+				List<E> xs = start;
+				for (int i = 0; i < size; i++, xs = xs.tail()) {
+					h += power * Objects.hashCode(xs.head());
+					power *= 31;
+				}
+				h += power;
+				hash = h;
 			}
-
-			@Override
-			public E foldr1(BinaryOperator<E> op) {
-				return List.this.foldr(op, x);
+			return h;
+		}
+
+		@Override int knownHash() {
+			return hash;
+		}
+
+		@Override public boolean isEmpty() {
+			return false;
+		}
+
+		@Override public int length() {
+			return size;
+		}
+
+		@Override public E at(int k) {
+			if (k<0)
+				throw new IndexOutOfBoundsException("at");
+			if (k >= size)
+				throw new NoSuchElementException("at");
+			return start.at(k);
+		}
+
+		@Override public E head() {
+			return start.head();
+		}
+
+		@Override public List<E> tail() {
+			return size == 1 ? emptyList() : new Slice<E>(start.tail(), size - 1);
+		}
+
+		@Override List<E> cells() {
+			return start;
+		}
+
+		@Override public List<E> dropWhile(Predicate<E> p) {
+			int n = 0;
+			for (E x : this) {
+				if (!p.test(x))
+					break;
+				n++;
 			}
+			return drop(n);
+		}
+
+		@Override public List<E> take(int n) {
+			if (n >= size)
+				return this;
+			else if (n <= 0)
+				return emptyList();
+			else
+				return new Slice<E>(start, n);
+		}
+
+		@Override public List<E> drop(int n) {
+			if (n <= 0)
+				return this;
+			else if (n >= size)
+				return emptyList();
+			else
+				return new Slice<E>(start.drop(n), size - n);
+		}
+
+		@Override public Iterator<E> iterator() {
+			return new Iterator<E>() {
+				private List<E> remain = start;
+				private int n = size;
+
+				@Override
+				public boolean hasNext() {
+					return n > 0;
+				}
 
-			@Override
-			public <F,G> List<G> zipWith(List<F> that, BiFunction<E,F,G> f) {
-				if (that.isEmpty())				// NB this cannot be empty
-					return new List<G>();
-				else
-					return cons(f.apply(x, that.head()), List.this.zipWith(that.tail(), f));
-			}
+				@Override
+				public E next() {
+					if (n <= 0)
+						throw new NoSuchElementException("next");
+					E x = remain.head();
+					remain = remain.tail();
+					n--;
+					return x;
+				}
+			};
+		}
 
-			@Override
-			public List<E> intersperse(E sep) {
-				if (List.this.isEmpty())
-					return single(x);
-				else
-					return cons(x, cons(sep, List.this.intersperse(sep)));
-			}
-		};
+		@Override public Spliterator<E> spliterator() {
+			return new ListSpliterator<E>(start, size);
+		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,251 @@
+package puzzle;
+
+/**
+ * A hash-consing factory for lists. Each cell x:xs is looked up by the value of x and the
+ * identity of xs, so equal lists interned by the same interner share every cell, including
+ * all of their equal suffixes, and can be compared with ==.
+ * Cells are held weakly: a cell that nothing else refers to is dropped from the table by the
+ * garbage collector, so an interner never keeps lists alive by itself.
+ *
+ * Interners are looked up by allocation site name with site(name). A site is disabled unless
+ * it is named in the system property puzzle.intern (a comma separated list of names, or "all")
+ * or switched on with setEnabled. A disabled site hands lists back unchanged, so interning can
+ * be left in place in code that does not always want it.
+ */
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class ListInterner<E> {
+
+	private static final ConcurrentHashMap<String, ListInterner<?>> SITES = new ConcurrentHashMap<>();
+	private static final String PROPERTY = "puzzle.intern";
+
+	/** A weakly held cell, chained within its bucket */
+	private static final class Entry<E> extends WeakReference<List<E>> {
+		final int hash;
+		Entry<E> next;
+
+		Entry(List<E> cell, int hash, Entry<E> next, ReferenceQueue<List<E>> queue) {
+			super(cell, queue);
+			this.hash = hash;
+			this.next = next;
+		}
+	}
+
+	private final String name;
+	private volatile boolean enabled;
+	private final ReferenceQueue<List<E>> queue = new ReferenceQueue<List<E>>();
+	private Entry<E>[] table = newTable(64);
+	private int size;
+	private long lookups, hits;
+
+	private ListInterner(String name, boolean enabled) {
+		this.name = name;
+		this.enabled = enabled;
+	}
+
+	/**
+	 * The interner for an allocation site. The same name always gives the same interner
+	 * @param name		the name of the site
+	 * @return			the site's interner, enabled if the name is listed in puzzle.intern
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> ListInterner<E> site(String name) {
+		return (ListInterner<E>)SITES.computeIfAbsent(name,
+				n -> new ListInterner<Object>(n, enabledByProperty(n)));
+	}
+
+	private static boolean enabledByProperty(String name) {
+		String sites = System.getProperty(PROPERTY, "");
+		return Arrays.asList(sites.split(",")).stream()
+				.map(String::trim)
+				.anyMatch(s -> s.equals(name) || s.equals("all"));
+	}
+
+	/**
+	 * @return		a snapshot of the statistics of every site, one line per site
+	 */
+	public static String report() {
+		StringBuilder sb = new StringBuilder();
+		SITES.values().stream()
+			.sorted((a, b) -> a.name.compareTo(b.name))
+			.forEach(site -> sb.append(site).append('\n'));
+		return sb.toString();
+	}
+
+	/**
+	 * Switch interning on or off for this site. Lists interned while enabled stay canonical
+	 * @param enabled		true to intern, false to hand lists back unchanged
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * @return		true if this site is interning
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Add an item to the front of a list, reusing an existing cell if there is one.
+	 * For full sharing the tail should itself have come from this interner
+	 * @param x			the item to be added
+	 * @param xs		the tail of the new list
+	 * @return			the canonical x:xs, or a new cell if the site is disabled
+	 */
+	public List<E> cons(E x, List<E> xs) {
+		if (!enabled)
+			return List.cons(x, xs);
+		synchronized (this) {
+			return lookupOrAdd(x, xs);
+		}
+	}
+
+	/**
+	 * Find the canonical copy of a list. Cells are interned from the back, so the result
+	 * shares its suffixes with every other list interned here. A list that is already
+	 * canonical is recognised from its first cell and returned without walking it
+	 * @param xs		the list to intern
+	 * @return			the canonical equal list, or xs itself if the site is disabled
+	 */
+	public List<E> intern(List<E> xs) {
+		if (!enabled || xs.isEmpty())
+			return xs;
+		synchronized (this) {
+			if (find(xs.head(), xs.tail()) == xs) {
+				hits++;
+				lookups++;
+				return xs;
+			}
+			ArrayList<E> items = xs.toArrayList();
+			List<E> result = List.emptyList();
+			for (int i = items.size() - 1; i >= 0; i--)
+				result = lookupOrAdd(items.get(i), result);
+			return result;
+		}
+	}
+
+	/**
+	 * @return		the number of cells currently held in the table
+	 */
+	public synchronized int size() {
+		expunge();
+		return size;
+	}
+
+	/**
+	 * @return		the number of cells requested from this interner
+	 */
+	public synchronized long lookups() {
+		return lookups;
+	}
+
+	/**
+	 * @return		the number of requests answered with an existing cell. Each one is a cell
+	 * 				that was not allocated
+	 */
+	public synchronized long hits() {
+		return hits;
+	}
+
+	/**
+	 * Clear the table and the statistics. Lists already interned are unaffected but are no
+	 * longer canonical
+	 */
+	public synchronized void clear() {
+		while (queue.poll() != null)
+			;
+		table = newTable(64);
+		size = 0;
+		lookups = 0;
+		hits = 0;
+	}
+
+	@Override public synchronized String toString() {
+		expunge();
+		return String.format("%s: %s, %d live cells, %d of %d cells shared",
+				name, enabled ? "on" : "off", size, hits, lookups);
+	}
+
+	/*
+	 * The table. All of these are called with the lock held
+	 */
+
+	private static int hash(Object x, List<?> xs) {
+		int h = 31 * System.identityHashCode(xs) + Objects.hashCode(x);
+		return h ^ (h >>> 16);
+	}
+
+	private List<E> find(E x, List<E> xs) {
+		int h = hash(x, xs);
+		for (Entry<E> e = table[h & (table.length - 1)]; e != null; e = e.next) {
+			List<E> cell = e.get();
+			if (e.hash == h && cell != null && cell.tail() == xs && Objects.equals(cell.head(), x))
+				return cell;
+		}
+		return null;
+	}
+
+	private List<E> lookupOrAdd(E x, List<E> xs) {
+		expunge();
+		lookups++;
+		List<E> cell = find(x, xs);
+		if (cell != null) {
+			hits++;
+			return cell;
+		}
+		if (size >= table.length - (table.length >> 2))
+			resize();
+		cell = List.cons(x, xs);
+		int h = hash(x, xs);
+		int i = h & (table.length - 1);
+		table[i] = new Entry<E>(cell, h, table[i], queue);
+		size++;
+		return cell;
+	}
+
+	private void resize() {
+		Entry<E>[] old = table;
+		table = newTable(old.length * 2);
+		for (Entry<E> e : old) {
+			while (e != null) {
+				Entry<E> next = e.next;
+				int i = e.hash & (table.length - 1);
+				e.next = table[i];
+				table[i] = e;
+				e = next;
+			}
+		}
+	}
+
+	/** Unlink the entries whose cells have been collected */
+	private void expunge() {
+		for (Object ref; (ref = queue.poll()) != null; ) {
+			@SuppressWarnings("unchecked")
+			Entry<E> dead = (Entry<E>)ref;
+			int i = dead.hash & (table.length - 1);
+			for (Entry<E> e = table[i], prev = null; e != null; prev = e, e = e.next) {
+				if (e == dead) {
+					if (prev == null)
+						table[i] = e.next;
+					else
+						prev.next = e.next;
+					size--;
+					break;
+				}
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <E> Entry<E>[] newTable(int n) {
+		return (Entry<E>[])new Entry<?>[n];
+	}
+}
@@ -0,0 +1,156 @@
+package puzzle;
+
+/**
+ * A zipper over a List: a cursor that splits the list into the items before it, held in
+ * reverse order so the nearest is first, and the items from the focus onwards. Moving the
+ * cursor one place and reading or replacing the focus are O(1), so a run of edits near the
+ * cursor costs O(distance moved) rather than a walk from the front of the list for each one.
+ * Zippers are persistent: every operation returns a new zipper and leaves this one unchanged.
+ */
+
+import java.util.NoSuchElementException;
+
+public final class ListZipper<E> {
+
+	/** The items before the focus, nearest first */
+	private final List<E> left;
+	/** The focus followed by the items after it */
+	private final List<E> right;
+
+	private ListZipper(List<E> left, List<E> right) {
+		this.left = left;
+		this.right = right;
+	}
+
+	/**
+	 * Put a cursor on the first item of a list
+	 * @param list		the list x0:x1:x2...
+	 * @return			the zipper with focus x0 (and no focus if the list is empty)
+	 */
+	public static <E> ListZipper<E> fromList(List<E> list) {
+		return new ListZipper<E>(List.emptyList(), list);
+	}
+
+	/**
+	 * Rebuild the list. The items after the focus are shared with the zipper, so this is
+	 * O(index()) rather than O(length())
+	 * @return		the list with every edit applied
+	 */
+	public List<E> toList() {
+		List<E> xs = right;
+		for (E x : left)
+			xs = List.cons(x, xs);
+		return xs;
+	}
+
+	/**
+	 * @return		the position of the focus in the list
+	 */
+	public int index() {
+		return left.length();
+	}
+
+	/**
+	 * @return		the length of the whole list
+	 */
+	public int length() {
+		return left.length() + right.length();
+	}
+
+	/**
+	 * @return		true if there is an item before the focus
+	 */
+	public boolean hasPrevious() {
+		return !left.isEmpty();
+	}
+
+	/**
+	 * @return		true if there is an item after the focus
+	 */
+	public boolean hasNext() {
+		return right.length() > 1;
+	}
+
+	/**
+	 * @return		the item at the cursor; error if the list is empty
+	 */
+	public E focus() {
+		if (right.isEmpty())
+			throw new NoSuchElementException("focus");
+		return right.head();
+	}
+
+	/**
+	 * Move the cursor one place towards the front
+	 * @return		the zipper focused on the previous item; error if there is none
+	 */
+	public ListZipper<E> moveLeft() {
+		if (left.isEmpty())
+			throw new NoSuchElementException("moveLeft");
+		return new ListZipper<E>(left.tail(), List.cons(left.head(), right));
+	}
+
+	/**
+	 * Move the cursor one place towards the back
+	 * @return		the zipper focused on the next item; error if there is none
+	 */
+	public ListZipper<E> moveRight() {
+		if (!hasNext())
+			throw new NoSuchElementException("moveRight");
+		return new ListZipper<E>(List.cons(right.head(), left), right.tail());
+	}
+
+	/**
+	 * Move the cursor to an index, one place at a time from where it is now
+	 * @param k		the index of the new focus
+	 * @return		the zipper focused on item k; error if k is out of range
+	 */
+	public ListZipper<E> moveTo(int k) {
+		if (k < 0 || k >= length())
+			throw new IndexOutOfBoundsException("moveTo");
+		ListZipper<E> z = this;
+		for (int i = index(); i > k; i--)
+			z = z.moveLeft();
+		for (int i = index(); i < k; i++)
+			z = z.moveRight();
+		return z;
+	}
+
+	/**
+	 * Replace the focus
+	 * @param x		the new item at the cursor
+	 * @return		the zipper with x in place of the focus; error if the list is empty
+	 */
+	public ListZipper<E> set(E x) {
+		if (right.isEmpty())
+			throw new NoSuchElementException("set");
+		return new ListZipper<E>(left, List.cons(x, right.tail()));
+	}
+
+	/**
+	 * Exchange the focus with the item after it. The cursor stays at the same index, so the
+	 * new focus is the item that was next
+	 * @return		the zipper with the two items swapped; error if there is no next item
+	 */
+	public ListZipper<E> swapWithNext() {
+		if (!hasNext())
+			throw new NoSuchElementException("swapWithNext");
+		List<E> rest = right.tail();
+		return new ListZipper<E>(left, List.cons(rest.head(), List.cons(right.head(), rest.tail())));
+	}
+
+	/**
+	 * Show the list with the focus in brackets, e.g. [1,2,(3),4]
+	 */
+	@Override public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		int i = 0;
+		for (E x : toList()) {
+			if (i > 0)
+				sb.append(',');
+			sb.append(i == index() ? "(" + x + ")" : x);
+			i++;
+		}
+		return sb.append(']').toString();
+	}
+}
@@ -3,15 +3,30 @@ package puzzle;
 import static java.util.stream.Collectors.*;
 import static puzzle.List.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 
 public class Picture {
 
-	private final List<List<Character>> text;
+	/** The rows; null in a view until it is first read */
+	private volatile List<List<Character>> text;
 	private final int depth, width;
+	/** For a view: the picture it is an orientation of, which always has its rows, and how */
+	private Picture source;
+	private final int orientation;
+	/** The orientation bits: the source is transposed, then its rows and columns reversed */
+	private static final int TRANSPOSED = 1, ROWS_REVERSED = 2, COLS_REVERSED = 4;
 	private static final char space = ' ', horiz = '-', vert = '|';
 	public static final int TOP = 0, MID = 50, BOT = 100, LFT = 0, CTR = 50, RGT = 100;
+	/** Rows are hash-consed when this site is enabled (run with -Dpuzzle.intern=picture.rows) */
+	private static final ListInterner<Character> ROWS = ListInterner.site("picture.rows");
+	/** Boxes, including the strips that borders and frames are made from, up to 64K cells in all */
+	private static final PictureCache<Picture> BOXES = new PictureCache<Picture>(1 << 16);
 
 	/**
 	 * Left justify a lsit of chars within a given field width by adding space chars
@@ -21,29 +36,20 @@ public class Picture {
 	 */
 	private static List<Character> leftJustify(List<Character> line, int width) {
 		int n = width - line.length();
+		if (n <= 0)
+			return line;
 		List<Character> padding = repeat(n, space);
 		return line.append(padding);
 	}
 
 	/**
-	 * Reduce a list of char into a string
-	 * @param line		the line to be converted
-	 * @return			the string of chars
-	 */
-	private static String toString(List<Character> line) {
-		return line.map(c -> c.toString()).foldr((a,b) -> a+b, "");
-	}
-
-	/**
-	 * Convert a string into a list of char
+	 * Convert a string into a list of char. The list is a view of the string, so nothing is
+	 * copied until the line is transformed
 	 * @param s		the string to be converted
 	 * @return		the list of chars
 	 */
 	public static List<Character> stringToListOfCharacters(String s) {
-		if (s.isEmpty())
-			return new List<Character>();
-		else
-			return cons(s.charAt(0), stringToListOfCharacters(s.substring(1)));
+		return explode(s);
 	}
 
 
@@ -56,7 +62,8 @@ public class Picture {
 	}
 
 	/**
-	 * Construct a picture from a single char with given depth and width
+	 * Construct a picture from a single char with given depth and width. Pictures are immutable,
+	 * so the most recently used boxes are cached and shared
 	 * @param d		depth of the picture
 	 * @param w		width of the picture
 	 * @param c		char to fill the picture
@@ -65,8 +72,17 @@ public class Picture {
 	public static Picture box(int d, int w, Character c) {
 		if (d<=0 || w<=0)
 			return emptyPicture();
-		String line = Stream.generate(() -> c.toString()).limit(w).collect(joining());
-		return new Picture(Stream.generate(() -> line).limit(d).collect(joining("\n")));
+		return BOXES.get(d, w, c, () -> {
+			String line = Stream.generate(() -> c.toString()).limit(w).collect(joining());
+			return new Picture(Stream.generate(() -> line).limit(d).collect(joining("\n")));
+		});
+	}
+
+	/**
+	 * @return		the cache that box() keeps its pictures in, e.g. to read its hit and miss counts
+	 */
+	public static PictureCache<Picture> boxCache() {
+		return BOXES;
 	}
 
 	/**
@@ -75,18 +91,39 @@ public class Picture {
 	 * @return		an empty picture list
 	 */
 	public static List<Picture> emptyPictureList() {
-		return new List<Picture>();
+		return emptyList();
 	}
 
 	/**
 	 * A constructor to return an instance from a list of list of char. The text will be left
 	 * justified to ensure every row is of the same width.  The depth and width are calculated.
+	 * If the picture.rows interning site is enabled, equal rows of different pictures share cells.
 	 * @param lines		the lines to build the picture
 	 */
 	public Picture(List<List<Character>> lines) {
 		depth = lines.length();
 		width = lines.map(List::length).foldr((a,b) -> Integer.max(a, b), 0);
-		text  = lines.map(line -> leftJustify(line, width));
+		text  = lines.map(line -> ROWS.intern(leftJustify(line, width)));
+		orientation = 0;
+	}
+
+	/**
+	 * A view of a picture in another orientation. Nothing is copied until the rows are read
+	 * @param source			the picture; if it is itself a view, the view is made of its source
+	 * @param orientation		the orientation relative to the given picture
+	 * @param depth				the depth of the view
+	 * @param width				the width of the view
+	 */
+	private Picture(Picture source, int orientation, int depth, int width) {
+		Picture root = source.source;
+		if (root != null) {
+			orientation = compose(source.orientation, orientation);
+			source = root;
+		}
+		this.source = source;
+		this.orientation = orientation;
+		this.depth = depth;
+		this.width = width;
 	}
 
 	/**
@@ -98,6 +135,23 @@ public class Picture {
 		this(arrayToList(string.split("\n")).map(Picture::stringToListOfCharacters));
 	}
 
+	/**
+	 * Construct a picture from rows of packed chars. The rows are left justified as for
+	 * the constructor from lists of lists of char
+	 * @param lines		the lines to build the picture
+	 * @return			the new picture
+	 */
+	public static Picture fromCharLists(List<CharList> lines) {
+		return new Picture(lines.map(CharList::boxed));
+	}
+
+	/**
+	 * @return		the rows of the picture as packed, unboxed chars
+	 */
+	public List<CharList> charLines() {
+		return lines().map(CharList::fromList);
+	}
+
 	/**
 	 * Predicate to test if picture is empty
 	 * @return		true if picture is empty, else false
@@ -111,7 +165,74 @@ public class Picture {
 	 */
 	@Override
 	public String toString() {
-		return text.map(Picture::toString).toArrayList().stream().collect(joining("\n"));
+		try {
+			return renderTo(new StringBuilder(renderedLength())).toString();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * @return		the number of chars in toString(): every row and the newlines between them
+	 */
+	public int renderedLength() {
+		return depth == 0 ? 0 : depth * (width + 1) - 1;
+	}
+
+	/**
+	 * Write the picture to a sink, row by row, as toString() would give it. No strings are
+	 * made on the way
+	 * @param out		the sink, e.g. a StringBuilder or Writer
+	 * @return			the sink
+	 * @throws IOException		if the sink does
+	 */
+	public <A extends Appendable> A renderTo(A out) throws IOException {
+		boolean first = true;
+		for (List<Character> line : lines()) {
+			if (!first)
+				out.append('\n');
+			if (line instanceof StringList)
+				((StringList)line).appendTo(out);
+			else
+				for (char c : line)
+					out.append(c);
+			first = false;
+		}
+		return out;
+	}
+
+	/**
+	 * Write the picture into a buffer as bytes, one per char (ISO-8859-1), with the rows
+	 * separated by newlines. Any char outside that range is written as '?'
+	 * @param buffer		the buffer, which must have renderedLength() bytes remaining
+	 * @return				the buffer, positioned after the picture
+	 */
+	public ByteBuffer renderTo(ByteBuffer buffer) {
+		if (buffer.remaining() < renderedLength())
+			throw new BufferOverflowException();
+		boolean first = true;
+		for (List<Character> line : lines()) {
+			if (!first)
+				buffer.put((byte)'\n');
+			for (char c : line)
+				buffer.put(c < 0x100 ? (byte)c : (byte)'?');
+			first = false;
+		}
+		return buffer;
+	}
+
+	/**
+	 * Write the picture to a channel as bytes, as renderTo(ByteBuffer) encodes them, through
+	 * a single buffer
+	 * @param channel		the channel
+	 * @throws IOException		if the channel does
+	 */
+	public void renderTo(WritableByteChannel channel) throws IOException {
+		ByteBuffer buffer = renderTo(ByteBuffer.allocate(renderedLength()));
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
 	}
 
 	/**
@@ -129,16 +250,87 @@ public class Picture {
 	}
 
 	public Picture map(UnaryOperator<Character> f) {
-		return new Picture(text.map(line -> line.map(f)));
+		return new Picture(lines().map(line -> line.map(f)));
+	}
+
+	/**
+	 * Apply a char function to every char in the picture without boxing each char
+	 * @param f		the function to apply
+	 * @return		the transformed picture
+	 */
+	public Picture mapChars(CharList.CharUnaryOperator f) {
+		return fromCharLists(charLines().map(line -> line.map(f)));
 	}
 
 	/**
 	 * @return		the lines that make up the picture / a private get method
 	 */
 	private List<List<Character>> lines() {
+		List<List<Character>> lines = text;
+		return lines != null ? lines : materialise();
+	}
+
+	/**
+	 * Copy a view's rows out of its source in one pass. The chars are written straight to
+	 * where they land in the view and each row is kept as a string, so however the view was
+	 * reached the cost is one read of the source
+	 * @return		the rows of the view
+	 */
+	private synchronized List<List<Character>> materialise() {
+		if (text != null)
+			return text;
+		boolean transposed = (orientation & TRANSPOSED) != 0;
+		int rowStep = (orientation & ROWS_REVERSED) != 0 ? -width : width;
+		int colStep = (orientation & COLS_REVERSED) != 0 ? -1 : 1;
+		int first = (rowStep < 0 ? (depth - 1) * width : 0) + (colStep < 0 ? width - 1 : 0);
+		// a step along a source row is a step along a view column if the source is transposed
+		int alongRow = transposed ? rowStep : colStep, nextRow = transposed ? colStep : rowStep;
+		char[] chars = new char[depth * width];
+		int start = first;
+		for (List<Character> line : source.lines()) {
+			int k = start;
+			for (char c : line) {
+				chars[k] = c;
+				k += alongRow;
+			}
+			start += nextRow;
+		}
+		Builder<List<Character>> rows = new Builder<List<Character>>();
+		for (int r = 0; r < depth; r++)
+			rows.add(ROWS.intern(explode(new String(chars, r * width, width))));
+		text = rows.build();
+		source = null;
 		return text;
 	}
 
+	/**
+	 * Combine two orientations. Transposing swaps which of rows and columns the reversals
+	 * that came before it apply to
+	 * @param first			the orientation applied first
+	 * @param second		the orientation applied to the result
+	 * @return				the single orientation with the same effect
+	 */
+	private static int compose(int first, int second) {
+		if ((second & TRANSPOSED) != 0)
+			first = first & TRANSPOSED | (first & ROWS_REVERSED) << 1 | (first & COLS_REVERSED) >> 1;
+		return first ^ second;
+	}
+
+	/**
+	 * Reorient the picture without copying it. Empty pictures keep the list semantics of
+	 * the operations, e.g. transposing a picture of width 0 leaves no rows
+	 * @param orientation		the change of orientation
+	 * @param eager				how to make the picture from its rows if it is empty
+	 * @return					the view
+	 */
+	private Picture view(int orientation, UnaryOperator<List<List<Character>>> eager) {
+		if (this.isEmpty())
+			return new Picture(eager.apply(this.lines()));
+		if ((orientation & TRANSPOSED) != 0)
+			return new Picture(this, orientation, width, depth);
+		return new Picture(this, orientation, depth, width);
+	}
+
 	/**
 	 * Put one picture above another.  These are guaranteed to be of same width
 	 * @param that		the picture that goes underneath
@@ -278,11 +470,13 @@ public class Picture {
 	}
 
 	/**
-	 * Transpose a picture by making lines into rows and rows into lines
+	 * Transpose a picture by making lines into rows and rows into lines. This and the
+	 * reflections and rotations are O(1) views of the picture; chains of them collapse into
+	 * one view, and it is copied only once, when its rows are first needed
 	 * @return		the transposed picture
 	 */
 	public Picture transpose() {
-		return new Picture(List.transpose(this.lines()));
+		return view(TRANSPOSED, List::transpose);
 	}
 
 	/**
@@ -290,7 +484,7 @@ public class Picture {
 	 * @return		the reflected picture
 	 */
 	public Picture reflectHorizontal() {
-		return new Picture(this.lines().reverse());
+		return view(ROWS_REVERSED, List::reverse);
 	}
 
 	/**
@@ -298,7 +492,7 @@ public class Picture {
 	 * @return		the reflected picture
 	 */
 	public Picture reflectVertical() {
-		return new Picture(this.lines().map(List::reverse));
+		return view(COLS_REVERSED, lines -> lines.map(List::reverse));
 	}
 
 	/**
@@ -308,9 +502,9 @@ public class Picture {
 	 */
 	public Picture rotate(int quadrants) {
 		switch (quadrants % 4) {
-		case 1:	return this.transpose().reflectVertical();
-		case 2: return this.reflectHorizontal().reflectVertical();
-		case 3: return this.transpose().reflectHorizontal();
+		case 1:	return view(TRANSPOSED | COLS_REVERSED, lines -> List.transpose(lines).map(List::reverse));
+		case 2: return view(ROWS_REVERSED | COLS_REVERSED, lines -> lines.reverse().map(List::reverse));
+		case 3: return view(TRANSPOSED | ROWS_REVERSED, lines -> List.transpose(lines).reverse());
 		default: return this;
 		}
 	}
@@ -323,7 +517,47 @@ public class Picture {
 	 * @return				the picture representing the stacked pictures
 	 */
 	public static Picture stack(List<Picture> pictures, int position, Character fill) {
-		return pictures.foldr((p,q) -> p.above(q, position, fill), emptyPicture());
+		// Equivalent to pictures.foldr((p,q) -> p.above(q, position, fill), emptyPicture()),
+		// but each line is padded once at the end rather than every time the stack below it
+		// is widened. Lines are collected in a Seq together with their left padding, stored
+		// relative to the padding added to the whole stack so far
+		int pos = Integer.min(Integer.max(position, 0), 100);
+		Seq<PaddedLine> lines = Seq.emptySeq();
+		int width = 0, stackLeft = 0;
+		for (Picture p : pictures.reverse()) {
+			if (p.isEmpty())
+				continue;
+			int left = 0;
+			if (p.width() < width)
+				left = (width - p.width()) * pos / 100;
+			else {
+				if (!lines.isEmpty())
+					stackLeft += (p.width() - width) * pos / 100;
+				width = p.width();
+			}
+			int offset = left - stackLeft;
+			lines = Seq.fromList(p.lines().map(line -> new PaddedLine(line, offset))).append(lines);
+		}
+		if (lines.isEmpty())
+			return emptyPicture();
+		int total = stackLeft, w = width;
+		return new Picture(lines.toList().map(pl -> {
+			int l = pl.offset + total;
+			return repeat(l, fill).append(pl.line).append(repeat(w - l - pl.line.length(), fill));
+		}));
+	}
+
+	/**
+	 * A line of a picture being stacked, and its left padding relative to the stack
+	 */
+	private static final class PaddedLine {
+		final List<Character> line;
+		final int offset;
+
+		PaddedLine(List<Character> line, int offset) {
+			this.line = line;
+			this.offset = offset;
+		}
 	}
 
 	/**
@@ -358,12 +592,13 @@ public class Picture {
 	}
 
 	/**
-	 * Place a border to the left of the picture
+	 * Place a border to the left of the picture. The border is a box one column wide, which
+	 * is what stacking depth boxes of size 1x1 makes, so it comes from the box cache
 	 * @param fill		the character to form the border
 	 * @return		the picture with a border
 	 */
 	public Picture leftBorder(Character fill) {
-		return stack(repeat(this.depth(),box(1, 1, fill)), LFT).beside(this, TOP);
+		return box(this.depth(), 1, fill).beside(this, TOP);
 	}
 
 	/**
@@ -372,16 +607,17 @@ public class Picture {
 	 * @return		the picture with a border
 	 */
 	public Picture rightBorder(Character fill) {
-		return this.beside(stack(repeat(this.depth(), box(1, 1, fill)), RGT), TOP);
+		return this.beside(box(this.depth(), 1, fill), TOP);
 	}
 
 	/**
-	 * Place a border to the top of the picture
+	 * Place a border to the top of the picture. The border is a box one row deep, which is
+	 * what spreading width boxes of size 1x1 makes
 	 * @param fill		the character to form the border
 	 * @return		the picture with a border
 	 */
 	public Picture topBorder(Character fill) {
-		return spread(repeat(this.width(), box(1, 1, fill)), TOP).above(this, LFT);
+		return box(1, this.width(), fill).above(this, LFT);
 	}
 
 	/**
@@ -390,7 +626,7 @@ public class Picture {
 	 * @return			the picture with a border
 	 */
 	public Picture bottomBorder(Character fill) {
-		return this.above(spread(repeat(this.width(), box(1, 1, fill)), TOP), LFT);
+		return this.above(box(1, this.width(), fill), LFT);
 	}
 
 	/**
@@ -448,7 +684,7 @@ public class Picture {
 	 * @return				the width of the widest picture
 	 */
 	public static int maxWidth(List<Picture> pictures) {
-		return pictures.listToStream().mapToInt(Picture::width).max().getAsInt();
+		return pictures.stream().mapToInt(Picture::width).max().getAsInt();
 	}
 
 	/**
@@ -457,7 +693,7 @@ public class Picture {
 	 * @return				the depth of the deepest picture
 	 */
 	public static int maxDepth(List<Picture> pictures) {
-		return pictures.listToStream().mapToInt(Picture::depth).max().getAsInt();
+		return pictures.stream().mapToInt(Picture::depth).max().getAsInt();
 	}
 
 	/**
@@ -0,0 +1,137 @@
+package puzzle;
+
+/**
+ * A bounded, thread-safe cache of immutable pictures made from a single fill char, keyed by
+ * depth, width and fill. The bound is on the total number of cells (depth &times; width) of
+ * the pictures kept, not on how many there are, since a picture's memory grows with its
+ * cells: when a new picture takes the total over the bound, the least recently used pictures
+ * are dropped until it fits, and a picture bigger than the whole bound is not kept at all.
+ * The number of hits and misses is counted so the cache can be sized from real use.
+ */
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.Supplier;
+
+public final class PictureCache<P> {
+
+	/** The key: a picture's depth, width and fill char */
+	private static final class Key {
+		final int depth, width;
+		final char fill;
+
+		Key(int depth, int width, char fill) {
+			this.depth = depth;
+			this.width = width;
+			this.fill = fill;
+		}
+
+		@Override public boolean equals(Object that) {
+			if (!(that instanceof Key))
+				return false;
+			Key k = (Key)that;
+			return depth == k.depth && width == k.width && fill == k.fill;
+		}
+
+		@Override public int hashCode() {
+			return (31 * depth + width) * 31 + fill;
+		}
+
+		long cells() {
+			return (long)depth * width;
+		}
+	}
+
+	private final long capacity;
+	/** In access order, so the least recently used picture comes first */
+	private final LinkedHashMap<Key, P> pictures = new LinkedHashMap<Key, P>(16, 0.75f, true);
+	private long cells, hits, misses;
+
+	/**
+	 * @param capacity		the most cells, summed over the pictures, to keep
+	 */
+	public PictureCache(long capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("PictureCache: capacity must be > 0");
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Look up a picture, making and keeping it if it is not in the cache
+	 * @param depth		the depth of the picture
+	 * @param width		the width of the picture
+	 * @param fill		the char it is made of
+	 * @param make		how to make the picture; called at most once per miss
+	 * @return			the cached picture
+	 */
+	public synchronized P get(int depth, int width, char fill, Supplier<P> make) {
+		Key key = new Key(depth, width, fill);
+		P p = pictures.get(key);
+		if (p != null) {
+			hits++;
+			return p;
+		}
+		misses++;
+		p = make.get();
+		if (key.cells() > capacity)
+			return p;
+		pictures.put(key, p);
+		cells += key.cells();
+		for (Iterator<Key> eldest = pictures.keySet().iterator(); cells > capacity; ) {
+			cells -= eldest.next().cells();
+			eldest.remove();
+		}
+		return p;
+	}
+
+	/**
+	 * @return		the number of lookups answered from the cache
+	 */
+	public synchronized long hits() {
+		return hits;
+	}
+
+	/**
+	 * @return		the number of lookups that had to make a picture
+	 */
+	public synchronized long misses() {
+		return misses;
+	}
+
+	/**
+	 * @return		the number of pictures in the cache
+	 */
+	public synchronized int size() {
+		return pictures.size();
+	}
+
+	/**
+	 * @return		the total cells of the pictures in the cache
+	 */
+	public synchronized long cells() {
+		return cells;
+	}
+
+	/**
+	 * @return		the most cells, summed over the pictures, that the cache keeps
+	 */
+	public long capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Empty the cache and reset the counters
+	 */
+	public synchronized void clear() {
+		pictures.clear();
+		cells = 0;
+		hits = 0;
+		misses = 0;
+	}
+
+	@Override public synchronized String toString() {
+		long lookups = hits + misses;
+		return String.format("%d pictures, %d/%d cells, %d hits, %d misses (%.1f%% hit rate)",
+				pictures.size(), cells, capacity, hits, misses, lookups == 0 ? 0.0 : 100.0 * hits / lookups);
+	}
+}
@@ -0,0 +1,720 @@
+package puzzle;
+
+import static puzzle.List.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
+
+/**
+ * A picture stored as a single row-major array of chars, depth rows of width chars each.
+ * It has the same operations as Picture and gives the same results, character for
+ * character, but each operation allocates one array and fills it with System.arraycopy and
+ * Arrays.fill instead of building lists of boxed chars. Instances are immutable: the array
+ * is never written after the constructor or factory method that made it returns.
+ */
+public final class RasterPicture {
+
+	private final char[] chars;
+	private final int depth, width;
+	private static final char space = ' ', horiz = '-', vert = '|';
+	public static final int TOP = 0, MID = 50, BOT = 100, LFT = 0, CTR = 50, RGT = 100;
+
+	/**
+	 * @param depth		the number of rows
+	 * @param width		the number of chars in each row
+	 * @param chars		the rows, one after another. Not copied
+	 */
+	private RasterPicture(int depth, int width, char[] chars) {
+		this.depth = depth;
+		this.width = width;
+		this.chars = chars;
+	}
+
+	/**
+	 * A constructor to return an instance from a list of list of char. The text will be left
+	 * justified to ensure every row is of the same width.  The depth and width are calculated.
+	 * @param lines		the lines to build the picture
+	 */
+	public RasterPicture(List<List<Character>> lines) {
+		depth = lines.length();
+		width = lines.foldl((w, line) -> Integer.max(w, line.length()), 0);
+		chars = new char[depth * width];
+		Arrays.fill(chars, space);
+		int row = 0;
+		for (List<Character> line : lines) {
+			int i = row * width;
+			for (char c : line)
+				chars[i++] = c;
+			row++;
+		}
+	}
+
+	/**
+	 * A constructor to return an instance from a string. The newline chars split the rows,
+	 * as for Picture(String)
+	 * @param string		the string to build the picture
+	 */
+	public RasterPicture(String string) {
+		String[] lines = string.split("\n");
+		depth = lines.length;
+		width = Arrays.stream(lines).mapToInt(String::length).max().orElse(0);
+		chars = new char[depth * width];
+		Arrays.fill(chars, space);
+		for (int row = 0; row < depth; row++)
+			lines[row].getChars(0, lines[row].length(), chars, row * width);
+	}
+
+	/**
+	 * Wrap an array of rows as a picture, without copying it. The caller must not write to
+	 * the array afterwards
+	 * @param depth		the number of rows
+	 * @param width		the number of chars in each row
+	 * @param chars		the rows, one after another
+	 * @return			the picture
+	 */
+	static RasterPicture wrap(int depth, int width, char[] chars) {
+		return new RasterPicture(depth, width, chars);
+	}
+
+	/**
+	 * Copy a list picture into a raster
+	 * @param picture		the picture to copy
+	 * @return				the raster with the same rows
+	 */
+	public static RasterPicture fromPicture(Picture picture) {
+		return new RasterPicture(picture.depth(), picture.width(), picture.toString().replace("\n", "").toCharArray());
+	}
+
+	/**
+	 * @return		the same rows as a list picture
+	 */
+	public Picture toPicture() {
+		return new Picture(rows());
+	}
+
+	/**
+	 * @return		the rows of the picture as lists of chars
+	 */
+	private List<List<Character>> rows() {
+		Builder<List<Character>> b = new Builder<List<Character>>();
+		String text = new String(chars);
+		for (int row = 0; row < depth; row++)
+			b.add(explode(text.substring(row * width, (row + 1) * width)));
+		return b.build();
+	}
+
+	/**
+	 * An empty picture constructor
+	 * @return		the empty picture
+	 */
+	public static RasterPicture emptyPicture() {
+		return new RasterPicture(1, 0, new char[0]);
+	}
+
+	/**
+	 * Construct a picture from a single char with given depth and width
+	 * @param d		depth of the picture
+	 * @param w		width of the picture
+	 * @param c		char to fill the picture
+	 * @return		the new rectangular picture
+	 */
+	public static RasterPicture box(int d, int w, Character c) {
+		if (d<=0 || w<=0)
+			return emptyPicture();
+		char[] chars = new char[d * w];
+		Arrays.fill(chars, c);
+		return new RasterPicture(d, w, chars);
+	}
+
+	/**
+	 * Return a new empty list of pictures. This is useful as the terminator when constructing
+	 * a list of pictures: e.g.  cons(p1, cons(p2,... cons(pk, emptyPictureList())...))
+	 * @return		an empty picture list
+	 */
+	public static List<RasterPicture> emptyPictureList() {
+		return emptyList();
+	}
+
+	/**
+	 * Predicate to test if picture is empty
+	 * @return		true if picture is empty, else false
+	 */
+	public boolean isEmpty() {
+		return depth==0 || width==0;
+	}
+
+	/**
+	 * Convert a picture to a string with lines separated by newline chars
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(depth * (width + 1));
+		for (int row = 0; row < depth; row++) {
+			if (row > 0)
+				sb.append('\n');
+			sb.append(chars, row * width, width);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @return		the depth of a picture
+	 */
+	public int depth() {
+		return depth;
+	}
+
+	/**
+	 * @return		the width of a picture
+	 */
+	public int width() {
+		return width;
+	}
+
+	public RasterPicture map(UnaryOperator<Character> f) {
+		char[] result = new char[chars.length];
+		for (int i = 0; i < chars.length; i++)
+			result[i] = f.apply(chars[i]);
+		return new RasterPicture(depth, width, result);
+	}
+
+	/**
+	 * Apply a char function to every char in the picture without boxing each char
+	 * @param f		the function to apply
+	 * @return		the transformed picture
+	 */
+	public RasterPicture mapChars(CharList.CharUnaryOperator f) {
+		char[] result = new char[chars.length];
+		for (int i = 0; i < chars.length; i++)
+			result[i] = f.applyAsChar(chars[i]);
+		return new RasterPicture(depth, width, result);
+	}
+
+	/**
+	 * Put one picture above another.  These should be of same width; if they are not, the
+	 * narrower rows are padded with spaces, as the list constructor does
+	 * @param that		the picture that goes underneath
+	 * @return			the joined picture
+	 */
+	private RasterPicture aboveAligned(RasterPicture that) {
+		// empty pictures are aligned with any picture
+		if (this.isEmpty())
+			return that;
+		else if (that.isEmpty())
+			return this;
+		int w = Integer.max(this.width, that.width);
+		char[] result = new char[(this.depth + that.depth) * w];
+		if (this.width != that.width)
+			Arrays.fill(result, space);
+		this.blitTo(result, w, 0, 0);
+		that.blitTo(result, w, this.depth, 0);
+		return new RasterPicture(this.depth + that.depth, w, result);
+	}
+
+	/**
+	 * Put one picture beside another.  These should be of same depth; if they are not, the
+	 * deeper one is cut short, as zipping the lists of rows does
+	 * @param that		the picture that goes on the right
+	 * @return			the joined picture
+	 */
+	private RasterPicture besideAligned(RasterPicture that) {
+		// empty pictures are aligned with any picture
+		if (this.isEmpty())
+			return that;
+		else if (that.isEmpty())
+			return this;
+		int d = Integer.min(this.depth, that.depth), w = this.width + that.width;
+		char[] result = new char[d * w];
+		for (int row = 0; row < d; row++) {
+			System.arraycopy(this.chars, row * this.width, result, row * w, this.width);
+			System.arraycopy(that.chars, row * that.width, result, row * w + this.width, that.width);
+		}
+		return new RasterPicture(d, w, result);
+	}
+
+	/**
+	 * Copy every row of this picture into a larger raster
+	 * @param target		the rows of the larger raster
+	 * @param targetWidth	the width of the larger raster
+	 * @param top			the row of the larger raster that the first row goes in
+	 * @param left			the column of the larger raster that the first column goes in
+	 */
+	private void blitTo(char[] target, int targetWidth, int top, int left) {
+		blitTo(0, 0, depth, width, target, targetWidth, top, left);
+	}
+
+	/**
+	 * Copy a rectangle of this picture into a larger raster
+	 * @param row			the first row of the rectangle
+	 * @param col			the first column of the rectangle
+	 * @param rows			the number of rows in the rectangle
+	 * @param cols			the number of columns in the rectangle
+	 * @param target		the rows of the larger raster
+	 * @param targetWidth	the width of the larger raster
+	 * @param top			the row of the larger raster that the rectangle goes in
+	 * @param left			the column of the larger raster that the rectangle goes in
+	 */
+	void blitTo(int row, int col, int rows, int cols, char[] target, int targetWidth, int top, int left) {
+		for (int i = 0; i < rows; i++)
+			System.arraycopy(chars, (row + i) * width + col, target, (top + i) * targetWidth + left, cols);
+	}
+
+	/**
+	 * Make a picture a fixed width.  If the given width is too small then the picture is
+	 * clipped to fit.  If the given width is bigger than the picture width then padding
+	 * is added to the left/right.
+	 * @param width			the width that the picture must fit
+	 * @param position		proportion of whitespace to add (or columns to cut) from the left
+	 * @param fill			the char to use for padding
+	 * @return				the picture adjusted for width
+	 */
+	public RasterPicture fixWidth(int width, int position, Character fill) {
+		int pos = Integer.min(Integer.max(position, 0), 100); // ensure in range 0..100
+		int len = Math.abs(width - this.width());
+		int leftWidth = len * pos / 100;
+		if (width < 1)
+			return emptyPicture();
+		else if (width > this.width()) {
+			// a picture with no rows pads to the empty picture; one with no columns to a box
+			if (this.depth() == 0)
+				return emptyPicture();
+			char[] result = new char[this.depth() * width];
+			Arrays.fill(result, fill);
+			this.blitTo(result, width, 0, leftWidth);
+			return new RasterPicture(this.depth(), width, result);
+		}
+		else {
+			char[] result = new char[this.depth() * width];
+			for (int row = 0; row < this.depth(); row++)
+				System.arraycopy(chars, row * this.width() + leftWidth, result, row * width, width);
+			return new RasterPicture(this.depth(), this.depth() == 0 ? 0 : width, result);
+		}
+	}
+
+	/**
+	 * Make a picture a fixed depth.  If the given depth is too small then the picture is
+	 * clipped to fit.  If the given width is bigger than the picture width then padding
+	 * is added to the top/bottom.
+	 * @param depth			the depth that the picture must fit
+	 * @param position		proportion of whitespace to add (or columns to cut) from the top
+	 * @param fill			the char to use for padding
+	 * @return				the picture adjusted for depth
+	 */
+	public RasterPicture fixDepth(int depth, int position, Character fill) {
+		int pos = Integer.min(Integer.max(position, 0), 100); // ensure in range 0..100
+		int len = Math.abs(depth - this.depth());
+		int topDepth = len * pos / 100;
+		if (depth < 1)
+			return emptyPicture();
+		else if (depth > this.depth()) {
+			// a picture with no columns pads to the empty picture; one with no rows to a box
+			if (this.width() == 0)
+				return emptyPicture();
+			char[] result = new char[depth * this.width()];
+			Arrays.fill(result, fill);
+			this.blitTo(result, this.width(), topDepth, 0);
+			return new RasterPicture(depth, this.width(), result);
+		}
+		else
+			return new RasterPicture(depth, this.width(),
+					Arrays.copyOfRange(chars, topDepth * this.width(), (topDepth + depth) * this.width()));
+	}
+
+	/**
+	 * Put one picture above another. If one has smaller width then padding is added
+	 * @param that			the picture that goes underneath
+	 * @param position		proportion of whitespace to add (or columns to cut) from the left
+	 * @param fill			the char to use for padding
+	 * @return				the joined picture
+	 */
+	private RasterPicture above(RasterPicture that, int position, Character fill) {
+		if (this.isEmpty())
+			return that;
+		else if (that.isEmpty())
+			return this;
+		else if (this.width() < that.width())
+			return this.fixWidth(that.width(), position, fill).aboveAligned(that);
+		else
+			return this.aboveAligned(that.fixWidth(this.width(), position, fill));
+	}
+
+	/**
+	 * Put one picture beside another. If one has smaller depth then padding is added
+	 * @param that			the picture that goes on the right
+	 * @param position		proportion of whitespace to add (or columns to cut) from the top
+	 * @param fill			the char to use for padding
+	 * @return				the joined picture
+	 */
+	private RasterPicture beside(RasterPicture that, int position, Character fill) {
+		if (this.isEmpty())
+			return that;
+		else if (that.isEmpty())
+			return this;
+		else if (this.depth() < that.depth())
+			return this.fixDepth(that.depth(), position, fill).besideAligned(that);
+		else
+			return this.besideAligned(that.fixDepth(this.depth(), position, fill));
+	}
+
+	/**
+	 * Put one picture above another. If one has smaller width then space padding is added
+	 * @param that			the picture that goes underneath
+	 * @param position		proportion of whitespace to add (or columns to cut) from the left
+	 * @return				the joined picture
+	 */
+	public RasterPicture above(RasterPicture that, int position) {
+		return this.above(that, position, space);
+	}
+
+	/**
+	 * Put one picture beside another. If one has smaller depth then space padding is added
+	 * @param that			the picture that goes on the right
+	 * @param position		proportion of whitespace to add (or columns to cut) from the top
+	 * @return				the joined picture
+	 */
+	public RasterPicture beside(RasterPicture that, int position) {
+		return this.beside(that, position, space);
+	}
+
+	/**
+	 * Transpose a picture by making lines into rows and rows into lines
+	 * @return		the transposed picture
+	 */
+	public RasterPicture transpose() {
+		// as for lists of rows, a picture with no columns transposes to no rows at all
+		if (width == 0)
+			return new RasterPicture(0, 0, new char[0]);
+		char[] result = new char[chars.length];
+		for (int row = 0; row < depth; row++)
+			for (int col = 0; col < width; col++)
+				result[col * depth + row] = chars[row * width + col];
+		return new RasterPicture(width, depth, result);
+	}
+
+	/**
+	 * Reflect a picture about its horizontal mid-axis
+	 * @return		the reflected picture
+	 */
+	public RasterPicture reflectHorizontal() {
+		char[] result = new char[chars.length];
+		for (int row = 0; row < depth; row++)
+			System.arraycopy(chars, row * width, result, (depth - 1 - row) * width, width);
+		return new RasterPicture(depth, width, result);
+	}
+
+	/**
+	 * Reflect a picture about its vertical mid-axis
+	 * @return		the reflected picture
+	 */
+	public RasterPicture reflectVertical() {
+		char[] result = new char[chars.length];
+		for (int row = 0; row < depth; row++)
+			for (int col = 0, i = row * width; col < width; col++)
+				result[i + width - 1 - col] = chars[i + col];
+		return new RasterPicture(depth, width, result);
+	}
+
+	/**
+	 * Rotate the picture a given number of quadrants:
+	 * @param quadrants		the rotation: 1=90 degrees; 2=180 degrees; 3=270 degrees
+	 * @return				the rotated picture
+	 */
+	public RasterPicture rotate(int quadrants) {
+		switch (quadrants % 4) {
+		case 1:	return this.transpose().reflectVertical();
+		case 2: return this.reflectHorizontal().reflectVertical();
+		case 3: return this.transpose().reflectHorizontal();
+		default: return this;
+		}
+	}
+
+	/**
+	 * Stack a list of pictures
+	 * @param pictures		the pictures to stack
+	 * @param position		the justification (percentage from left)
+	 * @param fill			the padding character
+	 * @return				the picture representing the stacked pictures
+	 */
+	public static RasterPicture stack(List<RasterPicture> pictures, int position, Character fill) {
+		return join(pictures, position, fill, true);
+	}
+
+	/**
+	 * Stack a list of pictures using space for padding
+	 * @param pictures		the pictures to stack
+	 * @param position		the justification (percentage from left)
+	 * @return				the picture representing the stacked pictures
+	 */
+	public static RasterPicture stack(List<RasterPicture> pictures, int position) {
+		return stack(pictures, position, space);
+	}
+
+	/**
+	 * Spread a list of pictures (join them side by side)
+	 * @param pictures		the pictures to spread
+	 * @param position		the justification (percentage from top)
+	 * @param fill			the padding character
+	 * @return				the picture representing the spread pictures
+	 */
+	public static RasterPicture spread(List<RasterPicture> pictures, int position, Character fill) {
+		return join(pictures, position, fill, false);
+	}
+
+	/**
+	 * Spread a list of pictures (join them side by side) using space for padding
+	 * @param pictures		the pictures to spread
+	 * @param position		the justification (percentage from top)
+	 * @return				the picture representing the spread pictures
+	 */
+	public static RasterPicture spread(List<RasterPicture> pictures, int position) {
+		return spread(pictures, position, space);
+	}
+
+	/**
+	 * Stack or spread a list of pictures into a single new raster. The result is the same as
+	 * pictures.foldr((p,q) -> p.above(q, position, fill), emptyPicture()) (or beside, for a
+	 * spread), but each picture is copied once. The pictures are visited from the last, as the
+	 * fold does, to work out where each one goes: a picture narrower than those below it is
+	 * padded on its own, and a wider one pads everything below it, so each picture's padding
+	 * is kept relative to the padding added to the whole stack so far
+	 * @param pictures		the pictures to join
+	 * @param position		the justification (percentage from left, or from top for a spread)
+	 * @param fill			the padding character
+	 * @param vertical		true to stack, false to spread
+	 * @return				the joined picture
+	 */
+	private static RasterPicture join(List<RasterPicture> pictures, int position, char fill, boolean vertical) {
+		int pos = Integer.min(Integer.max(position, 0), 100);
+		ArrayList<RasterPicture> parts = new ArrayList<RasterPicture>();
+		ArrayList<Integer> offsets = new ArrayList<Integer>();
+		int across = 0, along = 0, joinedOffset = 0;
+		for (RasterPicture p : pictures.reverse()) {
+			if (p.isEmpty())
+				continue;
+			int size = vertical ? p.width() : p.depth();
+			int offset = 0;
+			if (size < across)
+				offset = (across - size) * pos / 100;
+			else {
+				if (!parts.isEmpty())
+					joinedOffset += (size - across) * pos / 100;
+				across = size;
+			}
+			parts.add(p);
+			offsets.add(offset - joinedOffset);
+			along += vertical ? p.depth() : p.width();
+		}
+		if (parts.isEmpty())
+			return emptyPicture();
+		int d = vertical ? along : across, w = vertical ? across : along;
+		char[] result = new char[d * w];
+		Arrays.fill(result, fill);
+		for (int i = parts.size() - 1, at = 0; i >= 0; i--) {
+			RasterPicture p = parts.get(i);
+			int offset = offsets.get(i) + joinedOffset;
+			if (vertical) {
+				p.blitTo(result, w, at, offset);
+				at += p.depth();
+			}
+			else {
+				p.blitTo(result, w, offset, at);
+				at += p.width();
+			}
+		}
+		return new RasterPicture(d, w, result);
+	}
+
+	/**
+	 * Place a border to the left of the picture
+	 * @param fill		the character to form the border
+	 * @return		the picture with a border
+	 */
+	public RasterPicture leftBorder(Character fill) {
+		return stack(repeat(this.depth(),box(1, 1, fill)), LFT).beside(this, TOP);
+	}
+
+	/**
+	 * Place a border to the right of the picture
+	 * @param fill		the character to form the border
+	 * @return		the picture with a border
+	 */
+	public RasterPicture rightBorder(Character fill) {
+		return this.beside(stack(repeat(this.depth(), box(1, 1, fill)), RGT), TOP);
+	}
+
+	/**
+	 * Place a border to the top of the picture
+	 * @param fill		the character to form the border
+	 * @return		the picture with a border
+	 */
+	public RasterPicture topBorder(Character fill) {
+		return spread(repeat(this.width(), box(1, 1, fill)), TOP).above(this, LFT);
+	}
+
+	/**
+	 * Place a border to the bottom of the picture
+	 * @param fill		the character to form the border
+	 * @return			the picture with a border
+	 */
+	public RasterPicture bottomBorder(Character fill) {
+		return this.above(spread(repeat(this.width(), box(1, 1, fill)), TOP), LFT);
+	}
+
+	/**
+	 * Place a border to the around the picture
+	 * @param fill		the character to form the border
+	 * @return			the picture with a border
+	 */
+	public RasterPicture border(Character fill) {
+		return this.topBorder(fill).bottomBorder(fill).leftBorder(fill).rightBorder(fill);
+	}
+
+	/**
+	 * Place a frame to the left of the picture
+	 * @return		the picture with a frame
+	 */
+	public RasterPicture leftFrame() {
+		return leftBorder(vert);
+	}
+
+	/**
+	 * Place a frame to the right of the picture
+	 * @return		the picture with a frame
+	 */
+	public RasterPicture rightFrame() {
+		return rightBorder(vert);
+	}
+
+	/**
+	 * Place a frame to the top of the picture
+	 * @return		the picture with a frame
+	 */
+	public RasterPicture topFrame() {
+		return topBorder(horiz);
+	}
+
+	/**
+	 * Place a frame around the picture
+	 * @return		the picture with a frame
+	 */
+	public RasterPicture frame() {
+		return this.leftFrame().rightFrame().topFrame().bottomFrame();
+	}
+
+	/**
+	 * Place a frame to the bottom of the picture
+	 * @return		the picture with a frame
+	 */
+	public RasterPicture bottomFrame() {
+		return bottomBorder(horiz);
+	}
+
+	/**
+	 * Return the maximum width from a list of pictures
+	 * @param pictures		the pictures to be analysed
+	 * @return				the width of the widest picture
+	 */
+	public static int maxWidth(List<RasterPicture> pictures) {
+		return pictures.stream().mapToInt(RasterPicture::width).max().getAsInt();
+	}
+
+	/**
+	 * Return the maximum depth from a list of pictures
+	 * @param pictures		the pictures to be analysed
+	 * @return				the depth of the deepest picture
+	 */
+	public static int maxDepth(List<RasterPicture> pictures) {
+		return pictures.stream().mapToInt(RasterPicture::depth).max().getAsInt();
+	}
+
+	/**
+	 * Make all the pictures in a list the same width
+	 * @param pictures		the pictures to be normalised
+	 * @param position		the justification (percentage from left)
+	 * @param fill			the padding character
+	 * @return				the list of normalised pictures
+	 */
+	public static List<RasterPicture> normaliseCol(List<RasterPicture> pictures, int position, Character fill) {
+		int width = maxWidth(pictures);
+		return pictures.map(p -> p.fixWidth(width, position, fill));
+	}
+
+	/**
+	 * Make all the pictures in a list the same width using space for padding
+	 * @param pictures		the pictures to be normalised
+	 * @param position		the justification (percentage from left)
+	 * @return				the list of normalised pictures
+	 */
+	public static List<RasterPicture> normaliseCol(List<RasterPicture> pictures, int position) {
+		return normaliseCol(pictures, position, space);
+	}
+
+	/**
+	 * Make all the pictures in a list the same depth
+	 * @param pictures		the pictures to be normalised
+	 * @param position		the justification (percentage from top)
+	 * @param fill			the padding character
+	 * @return				the list of normalised pictures
+	 */
+	public static List<RasterPicture> normaliseRow(List<RasterPicture> pictures, int position, Character fill) {
+		int depth = maxDepth(pictures);
+		return pictures.map(p -> p.fixDepth(depth, position, fill));
+	}
+
+	/**
+	 * Make all the pictures in a list the same depth using space for padding
+	 * @param pictures		the pictures to be normalised
+	 * @param position		the justification (percentage from top)
+	 * @return				the list of normalised pictures
+	 */
+	public static List<RasterPicture> normaliseRow(List<RasterPicture> pictures, int position) {
+		return normaliseRow(pictures, position, space);
+	}
+
+	/**
+	 * Insert lines to transform a list of pictures to a table column		/p1/p2/.../pk/
+	 * @param pictures		the pictures to stack
+	 * @param position		the justification (percentage from left)
+	 * @param fill			the padding character
+	 * @return				the picture representing the stacked pictures
+	 */
+	public static RasterPicture tableCol(List<RasterPicture> pictures, int position, Character fill) {
+		return RasterPicture.stack(normaliseCol(pictures, position, fill)
+				.map(RasterPicture::topFrame), position, fill).bottomFrame();
+	}
+
+	/**
+	 * Insert lines to transform a list of pictures to a table column		/p1/p2/.../pk/
+	 * using space for padding
+	 * @param pictures		the pictures to stack
+	 * @param position		the justification (percentage from left)
+	 * @return				the picture representing the stacked pictures
+	 */
+	public static RasterPicture tableCol(List<RasterPicture> pictures, int position) {
+		return tableCol(pictures, position, space);
+	}
+
+	/**
+	 * Insert lines to transform a list of pictures to a table row		|p1|p2|...|pk|
+	 * @param pictures		the pictures to spread
+	 * @param position		the justification (percentage from top)
+	 * @param fill			the padding character
+	 * @return				the picture representing the spread pictures
+	 */
+	public static RasterPicture tableRow(List<RasterPicture> pictures, int position, Character fill) {
+		return RasterPicture.spread(normaliseRow(pictures, position, fill)
+				.map(RasterPicture::leftFrame), position, fill).rightFrame();
+	}
+
+	/**
+	 * Insert lines to transform a list of pictures to a table row		|p1|p2|...|pk|
+	 * using space for padding
+	 * @param pictures		the pictures to spread
+	 * @param position		the justification (percentage from top)
+	 * @return				the picture representing the spread pictures
+	 */
+	public static RasterPicture tableRow(List<RasterPicture> pictures, int position) {
+		return tableRow(pictures, position, space);
+	}
+}
@@ -0,0 +1,959 @@
+package puzzle;
+
+import static puzzle.List.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
+
+/**
+ * A picture whose rows are stored as runs of one char, for ASCII art that is mostly spaces
+ * and for the padding, borders and boxes built around it. It has the same operations as
+ * Picture and gives the same results, character for character. The operations work on runs:
+ * padding a row adds one run to it, clipping cuts the runs at its ends, and a box is one run
+ * shared by all of its rows. Rows are immutable and shared between pictures, so stacking,
+ * clipping the depth and reflecting about the horizontal axis copy no chars at all.
+ *
+ * A row is stored as (char, end) pairs when that is at least MIN_RATIO times smaller than
+ * storing its chars, and as its chars otherwise, since a row of short runs takes more room
+ * encoded and is slower to cut. The choice is made for each row as it is built, from its
+ * number of runs.
+ */
+public final class RlePicture {
+
+	/** The bytes for a run (a char and an int end) and for a char stored as it is */
+	private static final int RUN_BYTES = 6, CHAR_BYTES = 2;
+	/** How many times smaller a row must be as runs than as chars to be stored as runs */
+	public static final double MIN_RATIO = 1.5;
+
+	private final Row[] rows;
+	private final int depth, width;
+	private static final char space = ' ', horiz = '-', vert = '|';
+	public static final int TOP = 0, MID = 50, BOT = 100, LFT = 0, CTR = 50, RGT = 100;
+
+	/**
+	 * One row of a picture. A row never changes once it is built
+	 */
+	private static abstract class Row {
+		/** @return		the number of chars in the row */
+		abstract int width();
+
+		/** @return		the number of runs of one char in the row */
+		abstract int runs();
+
+		/** @return		the bytes the row takes for its chars, as it is stored */
+		abstract int bytes();
+
+		/** Add the chars from..to-1 of the row to a builder, run by run */
+		abstract void addTo(RowBuilder b, int from, int to);
+
+		/** Add the chars of the row to a builder from the last to the first */
+		abstract void addReversedTo(RowBuilder b);
+
+		/** Add the row to a builder with f applied to each char */
+		abstract void addMappedTo(RowBuilder b, CharList.CharUnaryOperator f);
+
+		/** Copy the chars of the row into an array */
+		abstract void copyTo(char[] target, int offset);
+	}
+
+	/**
+	 * A row stored as runs: run i is chars[i] up to (but not including) column ends[i]
+	 */
+	private static final class Runs extends Row {
+		final char[] chars;
+		final int[] ends;
+
+		Runs(char[] chars, int[] ends) {
+			this.chars = chars;
+			this.ends = ends;
+		}
+
+		@Override int width() {
+			return ends.length == 0 ? 0 : ends[ends.length - 1];
+		}
+
+		@Override int runs() {
+			return ends.length;
+		}
+
+		@Override int bytes() {
+			return ends.length * RUN_BYTES;
+		}
+
+		@Override void addTo(RowBuilder b, int from, int to) {
+			if (from >= to)
+				return;
+			// the first run that ends after from
+			int i = Arrays.binarySearch(ends, from);
+			i = i >= 0 ? i + 1 : -i - 1;
+			for (int start = from; start < to; i++) {
+				int end = Integer.min(ends[i], to);
+				b.add(chars[i], end - start);
+				start = end;
+			}
+		}
+
+		@Override void addReversedTo(RowBuilder b) {
+			for (int i = ends.length - 1; i >= 0; i--)
+				b.add(chars[i], ends[i] - (i == 0 ? 0 : ends[i - 1]));
+		}
+
+		@Override void addMappedTo(RowBuilder b, CharList.CharUnaryOperator f) {
+			for (int i = 0; i < ends.length; i++)
+				b.add(f.applyAsChar(chars[i]), ends[i] - (i == 0 ? 0 : ends[i - 1]));
+		}
+
+		@Override void copyTo(char[] target, int offset) {
+			for (int i = 0, start = 0; i < ends.length; start = ends[i++])
+				Arrays.fill(target, offset + start, offset + ends[i], chars[i]);
+		}
+	}
+
+	/**
+	 * A row stored as its chars
+	 */
+	private static final class Dense extends Row {
+		final char[] chars;
+		final int runs;
+
+		Dense(char[] chars, int runs) {
+			this.chars = chars;
+			this.runs = runs;
+		}
+
+		@Override int width() {
+			return chars.length;
+		}
+
+		@Override int runs() {
+			return runs;
+		}
+
+		@Override int bytes() {
+			return chars.length * CHAR_BYTES;
+		}
+
+		@Override void addTo(RowBuilder b, int from, int to) {
+			for (int i = from; i < to; i++)
+				b.add(chars[i], 1);
+		}
+
+		@Override void addReversedTo(RowBuilder b) {
+			for (int i = chars.length - 1; i >= 0; i--)
+				b.add(chars[i], 1);
+		}
+
+		@Override void addMappedTo(RowBuilder b, CharList.CharUnaryOperator f) {
+			for (char c : chars)
+				b.add(f.applyAsChar(c), 1);
+		}
+
+		@Override void copyTo(char[] target, int offset) {
+			System.arraycopy(chars, 0, target, offset, chars.length);
+		}
+	}
+
+	/**
+	 * Collects the runs of a row, joining a run to the one before it if they are of the same
+	 * char, and then stores the row in whichever form suits it
+	 */
+	private static final class RowBuilder {
+		private char[] chars = new char[8];
+		private int[] ends = new int[8];
+		private int runs, width;
+
+		/**
+		 * Add a run
+		 * @param c			the char
+		 * @param length	the number of them; nothing is added if it is not positive
+		 * @return			this builder
+		 */
+		RowBuilder add(char c, int length) {
+			if (length <= 0)
+				return this;
+			width += length;
+			if (runs > 0 && chars[runs - 1] == c) {
+				ends[runs - 1] = width;
+				return this;
+			}
+			if (runs == chars.length) {
+				chars = Arrays.copyOf(chars, runs * 2);
+				ends = Arrays.copyOf(ends, runs * 2);
+			}
+			chars[runs] = c;
+			ends[runs++] = width;
+			return this;
+		}
+
+		/**
+		 * Add the whole of a row
+		 * @param row		the row
+		 * @return			this builder
+		 */
+		RowBuilder add(Row row) {
+			row.addTo(this, 0, row.width());
+			return this;
+		}
+
+		/**
+		 * @return		the row, as runs if that is at least MIN_RATIO times smaller
+		 */
+		Row build() {
+			if (runs * RUN_BYTES * MIN_RATIO <= width * CHAR_BYTES)
+				return new Runs(Arrays.copyOf(chars, runs), Arrays.copyOf(ends, runs));
+			char[] dense = new char[width];
+			for (int i = 0, start = 0; i < runs; start = ends[i++])
+				Arrays.fill(dense, start, ends[i], chars[i]);
+			return new Dense(dense, runs);
+		}
+	}
+
+	/**
+	 * @param depth		the number of rows
+	 * @param width		the number of chars in each row
+	 * @param rows		the rows. Not copied
+	 */
+	private RlePicture(int depth, int width, Row[] rows) {
+		this.depth = depth;
+		this.width = width;
+		this.rows = rows;
+	}
+
+	/**
+	 * A row of one char
+	 * @param w		the width of the row
+	 * @param c		the char
+	 * @return		the row
+	 */
+	private static Row fillRow(int w, char c) {
+		return new RowBuilder().add(c, w).build();
+	}
+
+	/**
+	 * A constructor to return an instance from a list of list of char. The text will be left
+	 * justified to ensure every row is of the same width.  The depth and width are calculated.
+	 * @param lines		the lines to build the picture
+	 */
+	public RlePicture(List<List<Character>> lines) {
+		depth = lines.length();
+		width = lines.foldl((w, line) -> Integer.max(w, line.length()), 0);
+		rows = new Row[depth];
+		int row = 0;
+		for (List<Character> line : lines) {
+			RowBuilder b = new RowBuilder();
+			for (char c : line)
+				b.add(c, 1);
+			rows[row++] = b.add(space, width - line.length()).build();
+		}
+	}
+
+	/**
+	 * A constructor to return an instance from a string. The newline chars split the rows,
+	 * as for Picture(String)
+	 * @param string		the string to build the picture
+	 */
+	public RlePicture(String string) {
+		String[] lines = string.split("\n");
+		depth = lines.length;
+		width = Arrays.stream(lines).mapToInt(String::length).max().orElse(0);
+		rows = new Row[depth];
+		for (int row = 0; row < depth; row++) {
+			RowBuilder b = new RowBuilder();
+			for (int i = 0; i < lines[row].length(); i++)
+				b.add(lines[row].charAt(i), 1);
+			rows[row] = b.add(space, width - lines[row].length()).build();
+		}
+	}
+
+	/**
+	 * Encode a list picture
+	 * @param picture		the picture to encode
+	 * @return				the picture with the same rows
+	 */
+	public static RlePicture fromPicture(Picture picture) {
+		return fromRaster(RasterPicture.fromPicture(picture));
+	}
+
+	/**
+	 * Encode a raster picture
+	 * @param picture		the picture to encode
+	 * @return				the picture with the same rows
+	 */
+	public static RlePicture fromRaster(RasterPicture picture) {
+		int d = picture.depth(), w = picture.width();
+		char[] chars = new char[d * w];
+		picture.blitTo(0, 0, d, w, chars, w, 0, 0);
+		Row[] rows = new Row[d];
+		for (int row = 0; row < d; row++) {
+			RowBuilder b = new RowBuilder();
+			for (int i = row * w; i < (row + 1) * w; i++)
+				b.add(chars[i], 1);
+			rows[row] = b.build();
+		}
+		return new RlePicture(d, w, rows);
+	}
+
+	/**
+	 * @return		the same rows as a raster picture
+	 */
+	public RasterPicture toRaster() {
+		return RasterPicture.wrap(depth, width, chars());
+	}
+
+	/**
+	 * @return		the same rows as a list picture
+	 */
+	public Picture toPicture() {
+		return toRaster().toPicture();
+	}
+
+	/**
+	 * @return		every row, one after another
+	 */
+	private char[] chars() {
+		char[] chars = new char[depth * width];
+		for (int row = 0; row < depth; row++)
+			rows[row].copyTo(chars, row * width);
+		return chars;
+	}
+
+	/**
+	 * An empty picture constructor
+	 * @return		the empty picture
+	 */
+	public static RlePicture emptyPicture() {
+		return new RlePicture(1, 0, new Row[] { fillRow(0, space) });
+	}
+
+	/**
+	 * Construct a picture from a single char with given depth and width. All of its rows
+	 * are the same single run
+	 * @param d		depth of the picture
+	 * @param w		width of the picture
+	 * @param c		char to fill the picture
+	 * @return		the new rectangular picture
+	 */
+	public static RlePicture box(int d, int w, Character c) {
+		if (d<=0 || w<=0)
+			return emptyPicture();
+		Row[] rows = new Row[d];
+		Arrays.fill(rows, fillRow(w, c));
+		return new RlePicture(d, w, rows);
+	}
+
+	/**
+	 * Return a new empty list of pictures. This is useful as the terminator when constructing
+	 * a list of pictures: e.g.  cons(p1, cons(p2,... cons(pk, emptyPictureList())...))
+	 * @return		an empty picture list
+	 */
+	public static List<RlePicture> emptyPictureList() {
+		return emptyList();
+	}
+
+	/**
+	 * Predicate to test if picture is empty
+	 * @return		true if picture is empty, else false
+	 */
+	public boolean isEmpty() {
+		return depth==0 || width==0;
+	}
+
+	/**
+	 * Convert a picture to a string with lines separated by newline chars. Each run is
+	 * written with one fill of the result
+	 */
+	@Override
+	public String toString() {
+		if (depth == 0)
+			return "";
+		char[] chars = new char[depth * (width + 1) - 1];
+		for (int row = 0; row < depth; row++) {
+			rows[row].copyTo(chars, row * (width + 1));
+			if (row < depth - 1)
+				chars[row * (width + 1) + width] = '\n';
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * @return		the depth of a picture
+	 */
+	public int depth() {
+		return depth;
+	}
+
+	/**
+	 * @return		the width of a picture
+	 */
+	public int width() {
+		return width;
+	}
+
+	/**
+	 * @return		the number of rows stored as runs
+	 */
+	public int runEncodedRows() {
+		int n = 0;
+		for (Row row : rows)
+			if (row instanceof Runs)
+				n++;
+		return n;
+	}
+
+	/**
+	 * The measured compression ratio: the bytes the chars would take stored as they are,
+	 * over the bytes they take as stored. Rows shared within the picture are counted once each
+	 * time they appear
+	 * @return		the ratio; 1 for an empty picture
+	 */
+	public double compressionRatio() {
+		long stored = 0;
+		for (Row row : rows)
+			stored += row.bytes();
+		return stored == 0 ? 1.0 : (double)depth * width * CHAR_BYTES / stored;
+	}
+
+	public RlePicture map(UnaryOperator<Character> f) {
+		return mapChars(c -> f.apply(c));
+	}
+
+	/**
+	 * Apply a char function to every char in the picture, once per run
+	 * @param f		the function to apply
+	 * @return		the transformed picture
+	 */
+	public RlePicture mapChars(CharList.CharUnaryOperator f) {
+		Row[] result = new Row[depth];
+		for (int row = 0; row < depth; row++) {
+			RowBuilder b = new RowBuilder();
+			rows[row].addMappedTo(b, f);
+			result[row] = b.build();
+		}
+		return new RlePicture(depth, width, result);
+	}
+
+	/**
+	 * Put one picture above another.  These should be of same width; if they are not, the
+	 * narrower rows are padded with spaces, as the list constructor does. Rows of the
+	 * right width are shared, not copied
+	 * @param that		the picture that goes underneath
+	 * @return			the joined picture
+	 */
+	private RlePicture aboveAligned(RlePicture that) {
+		// empty pictures are aligned with any picture
+		if (this.isEmpty())
+			return that;
+		else if (that.isEmpty())
+			return this;
+		int w = Integer.max(this.width, that.width);
+		Row[] result = new Row[this.depth + that.depth];
+		for (int row = 0; row < result.length; row++) {
+			Row r = row < this.depth ? this.rows[row] : that.rows[row - this.depth];
+			result[row] = r.width() == w ? r : new RowBuilder().add(r).add(space, w - r.width()).build();
+		}
+		return new RlePicture(result.length, w, result);
+	}
+
+	/**
+	 * Put one picture beside another.  These should be of same depth; if they are not, the
+	 * deeper one is cut short, as zipping the lists of rows does. Each row is joined run by
+	 * run, so runs that meet are merged
+	 * @param that		the picture that goes on the right
+	 * @return			the joined picture
+	 */
+	private RlePicture besideAligned(RlePicture that) {
+		// empty pictures are aligned with any picture
+		if (this.isEmpty())
+			return that;
+		else if (that.isEmpty())
+			return this;
+		int d = Integer.min(this.depth, that.depth);
+		Row[] result = new Row[d];
+		for (int row = 0; row < d; row++)
+			result[row] = new RowBuilder().add(this.rows[row]).add(that.rows[row]).build();
+		return new RlePicture(d, this.width + that.width, result);
+	}
+
+	/**
+	 * Make a picture a fixed width.  If the given width is too small then the picture is
+	 * clipped to fit.  If the given width is bigger than the picture width then padding
+	 * is added to the left/right.
+	 * @param width			the width that the picture must fit
+	 * @param position		proportion of whitespace to add (or columns to cut) from the left
+	 * @param fill			the char to use for padding
+	 * @return				the picture adjusted for width
+	 */
+	public RlePicture fixWidth(int width, int position, Character fill) {
+		int pos = Integer.min(Integer.max(position, 0), 100); // ensure in range 0..100
+		int len = Math.abs(width - this.width());
+		int leftWidth = len * pos / 100;
+		if (width < 1)
+			return emptyPicture();
+		else if (width > this.width()) {
+			// a picture with no rows pads to the empty picture; one with no columns to a box
+			if (this.depth() == 0)
+				return emptyPicture();
+			Row[] result = new Row[this.depth()];
+			for (int row = 0; row < this.depth(); row++)
+				result[row] = new RowBuilder()
+						.add(fill, leftWidth)
+						.add(rows[row])
+						.add(fill, width - this.width() - leftWidth)
+						.build();
+			return new RlePicture(this.depth(), width, result);
+		}
+		else {
+			Row[] result = new Row[this.depth()];
+			for (int row = 0; row < this.depth(); row++) {
+				RowBuilder b = new RowBuilder();
+				rows[row].addTo(b, leftWidth, leftWidth + width);
+				result[row] = b.build();
+			}
+			return new RlePicture(this.depth(), this.depth() == 0 ? 0 : width, result);
+		}
+	}
+
+	/**
+	 * Make a picture a fixed depth.  If the given depth is too small then the picture is
+	 * clipped to fit.  If the given width is bigger than the picture width then padding
+	 * is added to the top/bottom. The rows are shared, not copied, and the padding rows are
+	 * all one row
+	 * @param depth			the depth that the picture must fit
+	 * @param position		proportion of whitespace to add (or columns to cut) from the top
+	 * @param fill			the char to use for padding
+	 * @return				the picture adjusted for depth
+	 */
+	public RlePicture fixDepth(int depth, int position, Character fill) {
+		int pos = Integer.min(Integer.max(position, 0), 100); // ensure in range 0..100
+		int len = Math.abs(depth - this.depth());
+		int topDepth = len * pos / 100;
+		if (depth < 1)
+			return emptyPicture();
+		else if (depth > this.depth()) {
+			// a picture with no columns pads to the empty picture; one with no rows to a box
+			if (this.width() == 0)
+				return emptyPicture();
+			Row[] result = new Row[depth];
+			Arrays.fill(result, fillRow(this.width(), fill));
+			System.arraycopy(rows, 0, result, topDepth, this.depth());
+			return new RlePicture(depth, this.width(), result);
+		}
+		else
+			return new RlePicture(depth, this.width(), Arrays.copyOfRange(rows, topDepth, topDepth + depth));
+	}
+
+	/**
+	 * Put one picture above another. If one has smaller width then padding is added
+	 * @param that			the picture that goes underneath
+	 * @param position		proportion of whitespace to add (or columns to cut) from the left
+	 * @param fill			the char to use for padding
+	 * @return				the joined picture
+	 */
+	private RlePicture above(RlePicture that, int position, Character fill) {
+		if (this.isEmpty())
+			return that;
+		else if (that.isEmpty())
+			return this;
+		else if (this.width() < that.width())
+			return this.fixWidth(that.width(), position, fill).aboveAligned(that);
+		else
+			return this.aboveAligned(that.fixWidth(this.width(), position, fill));
+	}
+
+	/**
+	 * Put one picture beside another. If one has smaller depth then padding is added
+	 * @param that			the picture that goes on the right
+	 * @param position		proportion of whitespace to add (or columns to cut) from the top
+	 * @param fill			the char to use for padding
+	 * @return				the joined picture
+	 */
+	private RlePicture beside(RlePicture that, int position, Character fill) {
+		if (this.isEmpty())
+			return that;
+		else if (that.isEmpty())
+			return this;
+		else if (this.depth() < that.depth())
+			return this.fixDepth(that.depth(), position, fill).besideAligned(that);
+		else
+			return this.besideAligned(that.fixDepth(this.depth(), position, fill));
+	}
+
+	/**
+	 * Put one picture above another. If one has smaller width then space padding is added
+	 * @param that			the picture that goes underneath
+	 * @param position		proportion of whitespace to add (or columns to cut) from the left
+	 * @return				the joined picture
+	 */
+	public RlePicture above(RlePicture that, int position) {
+		return this.above(that, position, space);
+	}
+
+	/**
+	 * Put one picture beside another. If one has smaller depth then space padding is added
+	 * @param that			the picture that goes on the right
+	 * @param position		proportion of whitespace to add (or columns to cut) from the top
+	 * @return				the joined picture
+	 */
+	public RlePicture beside(RlePicture that, int position) {
+		return this.beside(that, position, space);
+	}
+
+	/**
+	 * Transpose a picture by making lines into rows and rows into lines. The columns are
+	 * read from the decoded chars and encoded again as rows
+	 * @return		the transposed picture
+	 */
+	public RlePicture transpose() {
+		// as for lists of rows, a picture with no columns transposes to no rows at all
+		if (width == 0)
+			return new RlePicture(0, 0, new Row[0]);
+		char[] chars = chars();
+		Row[] result = new Row[width];
+		for (int col = 0; col < width; col++) {
+			RowBuilder b = new RowBuilder();
+			for (int row = 0; row < depth; row++)
+				b.add(chars[row * width + col], 1);
+			result[col] = b.build();
+		}
+		return new RlePicture(width, depth, result);
+	}
+
+	/**
+	 * Reflect a picture about its horizontal mid-axis. The rows are shared, not copied
+	 * @return		the reflected picture
+	 */
+	public RlePicture reflectHorizontal() {
+		Row[] result = new Row[depth];
+		for (int row = 0; row < depth; row++)
+			result[row] = rows[depth - 1 - row];
+		return new RlePicture(depth, width, result);
+	}
+
+	/**
+	 * Reflect a picture about its vertical mid-axis
+	 * @return		the reflected picture
+	 */
+	public RlePicture reflectVertical() {
+		Row[] result = new Row[depth];
+		for (int row = 0; row < depth; row++) {
+			RowBuilder b = new RowBuilder();
+			rows[row].addReversedTo(b);
+			result[row] = b.build();
+		}
+		return new RlePicture(depth, width, result);
+	}
+
+	/**
+	 * Rotate the picture a given number of quadrants:
+	 * @param quadrants		the rotation: 1=90 degrees; 2=180 degrees; 3=270 degrees
+	 * @return				the rotated picture
+	 */
+	public RlePicture rotate(int quadrants) {
+		switch (quadrants % 4) {
+		case 1:	return this.transpose().reflectVertical();
+		case 2: return this.reflectHorizontal().reflectVertical();
+		case 3: return this.transpose().reflectHorizontal();
+		default: return this;
+		}
+	}
+
+	/**
+	 * Stack a list of pictures
+	 * @param pictures		the pictures to stack
+	 * @param position		the justification (percentage from left)
+	 * @param fill			the padding character
+	 * @return				the picture representing the stacked pictures
+	 */
+	public static RlePicture stack(List<RlePicture> pictures, int position, Character fill) {
+		return join(pictures, position, fill, true);
+	}
+
+	/**
+	 * Stack a list of pictures using space for padding
+	 * @param pictures		the pictures to stack
+	 * @param position		the justification (percentage from left)
+	 * @return				the picture representing the stacked pictures
+	 */
+	public static RlePicture stack(List<RlePicture> pictures, int position) {
+		return stack(pictures, position, space);
+	}
+
+	/**
+	 * Spread a list of pictures (join them side by side)
+	 * @param pictures		the pictures to spread
+	 * @param position		the justification (percentage from top)
+	 * @param fill			the padding character
+	 * @return				the picture representing the spread pictures
+	 */
+	public static RlePicture spread(List<RlePicture> pictures, int position, Character fill) {
+		return join(pictures, position, fill, false);
+	}
+
+	/**
+	 * Spread a list of pictures (join them side by side) using space for padding
+	 * @param pictures		the pictures to spread
+	 * @param position		the justification (percentage from top)
+	 * @return				the picture representing the spread pictures
+	 */
+	public static RlePicture spread(List<RlePicture> pictures, int position) {
+		return spread(pictures, position, space);
+	}
+
+	/**
+	 * Stack or spread a list of pictures. The offsets are worked out as in RasterPicture.join,
+	 * so the result is the same as folding above (or beside) from the right. A stack pads each
+	 * row with a run either side, sharing rows that need none; a spread builds each row from
+	 * the runs of the parts that reach it and one run of fill for each part that does not
+	 * @param pictures		the pictures to join
+	 * @param position		the justification (percentage from left, or from top for a spread)
+	 * @param fill			the padding character
+	 * @param vertical		true to stack, false to spread
+	 * @return				the joined picture
+	 */
+	private static RlePicture join(List<RlePicture> pictures, int position, char fill, boolean vertical) {
+		int pos = Integer.min(Integer.max(position, 0), 100);
+		ArrayList<RlePicture> parts = new ArrayList<RlePicture>();
+		ArrayList<Integer> offsets = new ArrayList<Integer>();
+		int across = 0, along = 0, joinedOffset = 0;
+		for (RlePicture p : pictures.reverse()) {
+			if (p.isEmpty())
+				continue;
+			int size = vertical ? p.width() : p.depth();
+			int offset = 0;
+			if (size < across)
+				offset = (across - size) * pos / 100;
+			else {
+				if (!parts.isEmpty())
+					joinedOffset += (size - across) * pos / 100;
+				across = size;
+			}
+			parts.add(p);
+			offsets.add(offset - joinedOffset);
+			along += vertical ? p.depth() : p.width();
+		}
+		if (parts.isEmpty())
+			return emptyPicture();
+		int n = parts.size();
+		if (vertical) {
+			Row[] result = new Row[along];
+			for (int i = n - 1, at = 0; i >= 0; i--) {
+				RlePicture p = parts.get(i);
+				int offset = offsets.get(i) + joinedOffset;
+				for (Row r : p.rows)
+					result[at++] = r.width() == across ? r
+							: new RowBuilder().add(fill, offset).add(r).add(fill, across - offset - r.width()).build();
+			}
+			return new RlePicture(along, across, result);
+		}
+		Row[] result = new Row[across];
+		for (int row = 0; row < across; row++) {
+			RowBuilder b = new RowBuilder();
+			for (int i = n - 1; i >= 0; i--) {
+				RlePicture p = parts.get(i);
+				int r = row - (offsets.get(i) + joinedOffset);
+				if (r >= 0 && r < p.depth)
+					b.add(p.rows[r]);
+				else
+					b.add(fill, p.width);
+			}
+			result[row] = b.build();
+		}
+		return new RlePicture(across, along, result);
+	}
+
+	/**
+	 * Place a border to the left of the picture. The border is a box one column wide, which
+	 * is what stacking depth boxes of size 1x1 makes
+	 * @param fill		the character to form the border
+	 * @return		the picture with a border
+	 */
+	public RlePicture leftBorder(Character fill) {
+		return box(this.depth(), 1, fill).beside(this, TOP);
+	}
+
+	/**
+	 * Place a border to the right of the picture
+	 * @param fill		the character to form the border
+	 * @return		the picture with a border
+	 */
+	public RlePicture rightBorder(Character fill) {
+		return this.beside(box(this.depth(), 1, fill), TOP);
+	}
+
+	/**
+	 * Place a border to the top of the picture. The border is a single run, which is what
+	 * spreading width boxes of size 1x1 makes
+	 * @param fill		the character to form the border
+	 * @return		the picture with a border
+	 */
+	public RlePicture topBorder(Character fill) {
+		return box(1, this.width(), fill).above(this, LFT);
+	}
+
+	/**
+	 * Place a border to the bottom of the picture
+	 * @param fill		the character to form the border
+	 * @return			the picture with a border
+	 */
+	public RlePicture bottomBorder(Character fill) {
+		return this.above(box(1, this.width(), fill), LFT);
+	}
+
+	/**
+	 * Place a border to the around the picture
+	 * @param fill		the character to form the border
+	 * @return			the picture with a border
+	 */
+	public RlePicture border(Character fill) {
+		return this.topBorder(fill).bottomBorder(fill).leftBorder(fill).rightBorder(fill);
+	}
+
+	/**
+	 * Place a frame to the left of the picture
+	 * @return		the picture with a frame
+	 */
+	public RlePicture leftFrame() {
+		return leftBorder(vert);
+	}
+
+	/**
+	 * Place a frame to the right of the picture
+	 * @return		the picture with a frame
+	 */
+	public RlePicture rightFrame() {
+		return rightBorder(vert);
+	}
+
+	/**
+	 * Place a frame to the top of the picture
+	 * @return		the picture with a frame
+	 */
+	public RlePicture topFrame() {
+		return topBorder(horiz);
+	}
+
+	/**
+	 * Place a frame around the picture
+	 * @return		the picture with a frame
+	 */
+	public RlePicture frame() {
+		return this.leftFrame().rightFrame().topFrame().bottomFrame();
+	}
+
+	/**
+	 * Place a frame to the bottom of the picture
+	 * @return		the picture with a frame
+	 */
+	public RlePicture bottomFrame() {
+		return bottomBorder(horiz);
+	}
+
+	/**
+	 * Return the maximum width from a list of pictures
+	 * @param pictures		the pictures to be analysed
+	 * @return				the width of the widest picture
+	 */
+	public static int maxWidth(List<RlePicture> pictures) {
+		return pictures.stream().mapToInt(RlePicture::width).max().getAsInt();
+	}
+
+	/**
+	 * Return the maximum depth from a list of pictures
+	 * @param pictures		the pictures to be analysed
+	 * @return				the depth of the deepest picture
+	 */
+	public static int maxDepth(List<RlePicture> pictures) {
+		return pictures.stream().mapToInt(RlePicture::depth).max().getAsInt();
+	}
+
+	/**
+	 * Make all the pictures in a list the same width
+	 * @param pictures		the pictures to be normalised
+	 * @param position		the justification (percentage from left)
+	 * @param fill			the padding character
+	 * @return				the list of normalised pictures
+	 */
+	public static List<RlePicture> normaliseCol(List<RlePicture> pictures, int position, Character fill) {
+		int width = maxWidth(pictures);
+		return pictures.map(p -> p.fixWidth(width, position, fill));
+	}
+
+	/**
+	 * Make all the pictures in a list the same width using space for padding
+	 * @param pictures		the pictures to be normalised
+	 * @param position		the justification (percentage from left)
+	 * @return				the list of normalised pictures
+	 */
+	public static List<RlePicture> normaliseCol(List<RlePicture> pictures, int position) {
+		return normaliseCol(pictures, position, space);
+	}
+
+	/**
+	 * Make all the pictures in a list the same depth
+	 * @param pictures		the pictures to be normalised
+	 * @param position		the justification (percentage from top)
+	 * @param fill			the padding character
+	 * @return				the list of normalised pictures
+	 */
+	public static List<RlePicture> normaliseRow(List<RlePicture> pictures, int position, Character fill) {
+		int depth = maxDepth(pictures);
+		return pictures.map(p -> p.fixDepth(depth, position, fill));
+	}
+
+	/**
+	 * Make all the pictures in a list the same depth using space for padding
+	 * @param pictures		the pictures to be normalised
+	 * @param position		the justification (percentage from top)
+	 * @return				the list of normalised pictures
+	 */
+	public static List<RlePicture> normaliseRow(List<RlePicture> pictures, int position) {
+		return normaliseRow(pictures, position, space);
+	}
+
+	/**
+	 * Insert lines to transform a list of pictures to a table column		/p1/p2/.../pk/
+	 * @param pictures		the pictures to stack
+	 * @param position		the justification (percentage from left)
+	 * @param fill			the padding character
+	 * @return				the picture representing the stacked pictures
+	 */
+	public static RlePicture tableCol(List<RlePicture> pictures, int position, Character fill) {
+		return RlePicture.stack(normaliseCol(pictures, position, fill)
+				.map(RlePicture::topFrame), position, fill).bottomFrame();
+	}
+
+	/**
+	 * Insert lines to transform a list of pictures to a table column		/p1/p2/.../pk/
+	 * using space for padding
+	 * @param pictures		the pictures to stack
+	 * @param position		the justification (percentage from left)
+	 * @return				the picture representing the stacked pictures
+	 */
+	public static RlePicture tableCol(List<RlePicture> pictures, int position) {
+		return tableCol(pictures, position, space);
+	}
+
+	/**
+	 * Insert lines to transform a list of pictures to a table row		|p1|p2|...|pk|
+	 * @param pictures		the pictures to spread
+	 * @param position		the justification (percentage from top)
+	 * @param fill			the padding character
+	 * @return				the picture representing the spread pictures
+	 */
+	public static RlePicture tableRow(List<RlePicture> pictures, int position, Character fill) {
+		return RlePicture.spread(normaliseRow(pictures, position, fill)
+				.map(RlePicture::leftFrame), position, fill).rightFrame();
+	}
+
+	/**
+	 * Insert lines to transform a list of pictures to a table row		|p1|p2|...|pk|
+	 * using space for padding
+	 * @param pictures		the pictures to spread
+	 * @param position		the justification (percentage from top)
+	 * @return				the picture representing the spread pictures
+	 */
+	public static RlePicture tableRow(List<RlePicture> pictures, int position) {
+		return tableRow(pictures, position, space);
+	}
+}
@@ -0,0 +1,518 @@
+package puzzle;
+
+/**
+ * A catenable sequence, implemented as a 2-3 finger tree annotated with sizes
+ * (Hinze and Paterson, 2006; cf. Haskell's Data.Sequence).
+ * Adding to either end is amortised O(1), append is O(log(min(m,n))), and indexing,
+ * take and drop are O(log n). Sequences are persistent and share structure.
+ */
+
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+public final class Seq<E> {
+
+	/*
+	 * The tree is untyped internally. At the top level its elements are the items of the
+	 * sequence; one level down they are Nodes of 2 or 3 elements of the level above, and so on.
+	 * Items have size 1 and a Node caches the total number of items beneath it.
+	 */
+
+	/** A 2-node or 3-node, caching its size in items */
+	private static final class Node {
+		final Object[] items;
+		final int size;
+
+		Node(Object... items) {
+			this.items = items;
+			this.size = sizeOf(items);
+		}
+	}
+
+	private static abstract class Tree {
+		abstract int size();
+	}
+
+	private static final class Empty extends Tree {
+		@Override int size() {
+			return 0;
+		}
+	}
+
+	private static final class Single extends Tree {
+		final Object item;
+
+		Single(Object item) {
+			this.item = item;
+		}
+
+		@Override int size() {
+			return sizeOf(item);
+		}
+	}
+
+	/** A tree with 1-4 elements on each side and a tree of nodes in the middle */
+	private static final class Deep extends Tree {
+		final Object[] prefix, suffix;
+		final Tree middle;
+		final int size;
+
+		Deep(Object[] prefix, Tree middle, Object[] suffix) {
+			this.prefix = prefix;
+			this.middle = middle;
+			this.suffix = suffix;
+			this.size = sizeOf(prefix) + middle.size() + sizeOf(suffix);
+		}
+
+		@Override int size() {
+			return size;
+		}
+	}
+
+	/** The result of splitting a tree around the element containing an index */
+	private static final class Split {
+		final Tree left, right;
+		final Object item;
+
+		Split(Tree left, Object item, Tree right) {
+			this.left = left;
+			this.item = item;
+			this.right = right;
+		}
+	}
+
+	private static final Tree EMPTY_TREE = new Empty();
+	private static final Seq<?> EMPTY = new Seq<Object>(EMPTY_TREE);
+
+	private final Tree tree;
+
+	private Seq(Tree tree) {
+		this.tree = tree;
+	}
+
+	/*
+	 * Static methods that generate sequences
+	 */
+
+	/**
+	 * Create a new empty sequence
+	 * @return		[]
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> Seq<E> emptySeq() {
+		return (Seq<E>)EMPTY;
+	}
+
+	/**
+	 * Create a singleton sequence
+	 * @param x		the only value in the sequence
+	 * @return		[x]
+	 */
+	public static <E> Seq<E> single(E x) {
+		return new Seq<E>(new Single(x));
+	}
+
+	/**
+	 * Convert a list into a sequence
+	 * @param list	the list to be converted x0:x1:x2...
+	 * @return		the corresponding sequence
+	 */
+	public static <E> Seq<E> fromList(List<E> list) {
+		Tree t = EMPTY_TREE;
+		for (E x : list)
+			t = pushBack(t, x);
+		return new Seq<E>(t);
+	}
+
+	/**
+	 * Concatenate a list of sequences into a single sequence
+	 * @param xss	The sequences to be joined, in order
+	 * @return		the joined sequence
+	 */
+	public static <E> Seq<E> concat(List<Seq<E>> xss) {
+		return xss.foldl(Seq::append, emptySeq());
+	}
+
+	/*
+	 * Instance methods
+	 */
+
+	/**
+	 * Convert a sequence into a list
+	 * @return		the corresponding list x0:x1:x2...
+	 */
+	public List<E> toList() {
+		List.Builder<E> b = new List.Builder<E>();
+		forEach(tree, b::add);
+		return b.build();
+	}
+
+	/**
+	 * Test if a sequence is empty.
+	 * @return		true if empty, false otherwise
+	 */
+	public boolean isEmpty() {
+		return tree.size() == 0;
+	}
+
+	/**
+	 * Return the length of a sequence. This is O(1)
+	 * @return		the number of items
+	 */
+	public int length() {
+		return tree.size();
+	}
+
+	/**
+	 * Add an item to the front of a sequence. This is amortised O(1)
+	 * @param x		the item to be added
+	 * @return		the new sequence x:xs
+	 */
+	public Seq<E> addFront(E x) {
+		return new Seq<E>(pushFront(tree, x));
+	}
+
+	/**
+	 * Add an item to the back of a sequence. This is amortised O(1)
+	 * @param x		the item to be added
+	 * @return		the new sequence xs++[x]
+	 */
+	public Seq<E> addBack(E x) {
+		return new Seq<E>(pushBack(tree, x));
+	}
+
+	/**
+	 * Append two sequences. This is O(log(min(m,n))) and copies neither
+	 * @param that		the sequence to follow this one
+	 * @return			the two sequences joined together
+	 */
+	public Seq<E> append(Seq<E> that) {
+		return new Seq<E>(app3(this.tree, new Object[0], that.tree));
+	}
+
+	/**
+	 * Return the first item in the sequence
+	 * @return		nothing if empty, otherwise the first item
+	 */
+	@SuppressWarnings("unchecked")
+	public E head() {
+		if (tree instanceof Single)
+			return (E)((Single)tree).item;
+		else if (tree instanceof Deep)
+			return (E)((Deep)tree).prefix[0];
+		else
+			throw new NoSuchElementException("head");
+	}
+
+	/**
+	 * Return the last item in the sequence
+	 * @return		nothing if empty, otherwise the last item
+	 */
+	@SuppressWarnings("unchecked")
+	public E last() {
+		if (tree instanceof Single)
+			return (E)((Single)tree).item;
+		else if (tree instanceof Deep) {
+			Object[] suffix = ((Deep)tree).suffix;
+			return (E)suffix[suffix.length - 1];
+		}
+		else
+			throw new NoSuchElementException("last");
+	}
+
+	/**
+	 * Return the sequence without its first item. This is amortised O(1)
+	 * @return		nothing if empty, otherwise the sequence without the first item
+	 */
+	public Seq<E> tail() {
+		if (isEmpty())
+			throw new NoSuchElementException("tail");
+		return new Seq<E>(popFront(tree));
+	}
+
+	/**
+	 * Look up item in sequence at index (first item is at index zero). This is O(log n)
+	 * @param k		the index
+	 * @return		error if index out of range, otherwise item at index
+	 */
+	@SuppressWarnings("unchecked")
+	public E at(int k) {
+		if (k < 0)
+			throw new IndexOutOfBoundsException("at");
+		if (k >= length())
+			throw new NoSuchElementException("at");
+		return (E)split(k, tree).item;
+	}
+
+	/**
+	 * Take n elements from the front of a sequence. This is O(log n)
+	 * @param n		the number of elements to take
+	 * @return		the initial subsequence of length &le; n
+	 */
+	public Seq<E> take(int n) {
+		if (n <= 0)
+			return emptySeq();
+		else if (n >= length())
+			return this;
+		else {
+			Split s = split(n, tree);
+			return new Seq<E>(s.left);
+		}
+	}
+
+	/**
+	 * Drop n elements from the front of a sequence. This is O(log n)
+	 * @param n		the number of elements to drop
+	 * @return		the final subsequence after the first n elements have been removed
+	 */
+	public Seq<E> drop(int n) {
+		if (n <= 0)
+			return this;
+		else if (n >= length())
+			return emptySeq();
+		else {
+			Split s = split(n, tree);
+			return new Seq<E>(pushFront(s.right, s.item));
+		}
+	}
+
+	/**
+	 * Reduce a sequence by applying a binary operator between all elements bracketing to the left
+	 * @param op				the operator to apply between elements
+	 * @param accumulator		the accumulator value (and the initial left value)
+	 * @return					the value generated by reducing the sequence
+	 */
+	@SuppressWarnings("unchecked")
+	public <F> F foldl(BiFunction<F,E,F> op, F accumulator) {
+		Object[] acc = {accumulator};
+		Seq.<E>forEach(tree, x -> acc[0] = op.apply((F)acc[0], x));
+		return (F)acc[0];
+	}
+
+	/**
+	 * Convert a sequence to a string for, e.g., printing
+	 */
+	@Override public String toString() {
+		return toList().toString();
+	}
+
+	/*
+	 * Finger tree algorithms
+	 */
+
+	private static int sizeOf(Object x) {
+		return x instanceof Node ? ((Node)x).size : 1;
+	}
+
+	private static int sizeOf(Object[] xs) {
+		int n = 0;
+		for (Object x : xs)
+			n += sizeOf(x);
+		return n;
+	}
+
+	private static Object[] prepend(Object x, Object[] xs) {
+		Object[] ys = new Object[xs.length + 1];
+		ys[0] = x;
+		System.arraycopy(xs, 0, ys, 1, xs.length);
+		return ys;
+	}
+
+	private static Object[] appended(Object[] xs, Object x) {
+		Object[] ys = new Object[xs.length + 1];
+		System.arraycopy(xs, 0, ys, 0, xs.length);
+		ys[xs.length] = x;
+		return ys;
+	}
+
+	private static Object[] slice(Object[] xs, int from, int to) {
+		Object[] ys = new Object[to - from];
+		System.arraycopy(xs, from, ys, 0, to - from);
+		return ys;
+	}
+
+	private static Tree pushFront(Tree t, Object x) {
+		if (t instanceof Empty)
+			return new Single(x);
+		else if (t instanceof Single)
+			return new Deep(new Object[] {x}, EMPTY_TREE, new Object[] {((Single)t).item});
+		Deep d = (Deep)t;
+		if (d.prefix.length == 4)
+			return new Deep(new Object[] {x, d.prefix[0]},
+					pushFront(d.middle, new Node(d.prefix[1], d.prefix[2], d.prefix[3])),
+					d.suffix);
+		return new Deep(prepend(x, d.prefix), d.middle, d.suffix);
+	}
+
+	private static Tree pushBack(Tree t, Object x) {
+		if (t instanceof Empty)
+			return new Single(x);
+		else if (t instanceof Single)
+			return new Deep(new Object[] {((Single)t).item}, EMPTY_TREE, new Object[] {x});
+		Deep d = (Deep)t;
+		if (d.suffix.length == 4)
+			return new Deep(d.prefix,
+					pushBack(d.middle, new Node(d.suffix[0], d.suffix[1], d.suffix[2])),
+					new Object[] {d.suffix[3], x});
+		return new Deep(d.prefix, d.middle, appended(d.suffix, x));
+	}
+
+	/** Remove the first element of a non-empty tree */
+	private static Tree popFront(Tree t) {
+		if (t instanceof Single)
+			return EMPTY_TREE;
+		Deep d = (Deep)t;
+		return deepLeft(slice(d.prefix, 1, d.prefix.length), d.middle, d.suffix);
+	}
+
+	/** Remove the last element of a non-empty tree */
+	private static Tree popBack(Tree t) {
+		if (t instanceof Single)
+			return EMPTY_TREE;
+		Deep d = (Deep)t;
+		return deepRight(d.prefix, d.middle, slice(d.suffix, 0, d.suffix.length - 1));
+	}
+
+	private static Object first(Tree t) {
+		return t instanceof Single ? ((Single)t).item : ((Deep)t).prefix[0];
+	}
+
+	private static Object last(Tree t) {
+		if (t instanceof Single)
+			return ((Single)t).item;
+		Object[] suffix = ((Deep)t).suffix;
+		return suffix[suffix.length - 1];
+	}
+
+	/** Build a Deep tree whose prefix may be empty, borrowing from the middle if necessary */
+	private static Tree deepLeft(Object[] prefix, Tree middle, Object[] suffix) {
+		if (prefix.length > 0)
+			return new Deep(prefix, middle, suffix);
+		else if (middle.size() == 0)
+			return fromDigit(suffix);
+		else
+			return new Deep(((Node)first(middle)).items, popFront(middle), suffix);
+	}
+
+	/** Build a Deep tree whose suffix may be empty, borrowing from the middle if necessary */
+	private static Tree deepRight(Object[] prefix, Tree middle, Object[] suffix) {
+		if (suffix.length > 0)
+			return new Deep(prefix, middle, suffix);
+		else if (middle.size() == 0)
+			return fromDigit(prefix);
+		else
+			return new Deep(prefix, popBack(middle), ((Node)last(middle)).items);
+	}
+
+	private static Tree fromDigit(Object[] xs) {
+		Tree t = EMPTY_TREE;
+		for (Object x : xs)
+			t = pushBack(t, x);
+		return t;
+	}
+
+	/** Join two trees with some loose elements in between */
+	private static Tree app3(Tree left, Object[] between, Tree right) {
+		if (left instanceof Empty) {
+			Tree t = right;
+			for (int i = between.length - 1; i >= 0; i--)
+				t = pushFront(t, between[i]);
+			return t;
+		}
+		else if (right instanceof Empty) {
+			Tree t = left;
+			for (Object x : between)
+				t = pushBack(t, x);
+			return t;
+		}
+		else if (left instanceof Single)
+			return pushFront(app3(EMPTY_TREE, between, right), ((Single)left).item);
+		else if (right instanceof Single)
+			return pushBack(app3(left, between, EMPTY_TREE), ((Single)right).item);
+		Deep l = (Deep)left, r = (Deep)right;
+		Object[] joined = new Object[l.suffix.length + between.length + r.prefix.length];
+		System.arraycopy(l.suffix, 0, joined, 0, l.suffix.length);
+		System.arraycopy(between, 0, joined, l.suffix.length, between.length);
+		System.arraycopy(r.prefix, 0, joined, l.suffix.length + between.length, r.prefix.length);
+		return new Deep(l.prefix, app3(l.middle, nodes(joined), r.middle), r.suffix);
+	}
+
+	/** Pack 2..12 elements into 2-nodes and 3-nodes */
+	private static Object[] nodes(Object[] xs) {
+		int n = xs.length, count = (n + 2) / 3;
+		Object[] ns = new Object[count];
+		int i = 0, k = 0;
+		while (n - i > 4) {
+			ns[k++] = new Node(xs[i], xs[i + 1], xs[i + 2]);
+			i += 3;
+		}
+		if (n - i == 4) {
+			ns[k++] = new Node(xs[i], xs[i + 1]);
+			ns[k++] = new Node(xs[i + 2], xs[i + 3]);
+		}
+		else if (n - i == 3)
+			ns[k++] = new Node(xs[i], xs[i + 1], xs[i + 2]);
+		else
+			ns[k++] = new Node(xs[i], xs[i + 1]);
+		return k == count ? ns : slice(ns, 0, k);
+	}
+
+	/**
+	 * Split a non-empty tree around the element containing item index i
+	 * (left.size() &le; i &lt; left.size() + size of the element). At the top level
+	 * the elements are items, so the split element is the item at index i
+	 */
+	private static Split split(int i, Tree t) {
+		if (t instanceof Single)
+			return new Split(EMPTY_TREE, ((Single)t).item, EMPTY_TREE);
+		Deep d = (Deep)t;
+		int sp = sizeOf(d.prefix);
+		if (i < sp) {
+			int j = digitIndex(i, d.prefix);
+			return new Split(fromDigit(slice(d.prefix, 0, j)), d.prefix[j],
+					deepLeft(slice(d.prefix, j + 1, d.prefix.length), d.middle, d.suffix));
+		}
+		int sm = sp + d.middle.size();
+		if (i < sm) {
+			Split m = split(i - sp, d.middle);
+			Object[] items = ((Node)m.item).items;
+			int j = digitIndex(i - sp - m.left.size(), items);
+			return new Split(deepRight(d.prefix, m.left, slice(items, 0, j)), items[j],
+					deepLeft(slice(items, j + 1, items.length), m.right, d.suffix));
+		}
+		int j = digitIndex(i - sm, d.suffix);
+		return new Split(deepRight(d.prefix, d.middle, slice(d.suffix, 0, j)), d.suffix[j],
+				fromDigit(slice(d.suffix, j + 1, d.suffix.length)));
+	}
+
+	/** @return the index of the element of xs that contains item index i */
+	private static int digitIndex(int i, Object[] xs) {
+		int j = 0;
+		while (i >= sizeOf(xs[j]))
+			i -= sizeOf(xs[j++]);
+		return j;
+	}
+
+	private static <E> void forEach(Tree t, Consumer<E> action) {
+		if (t instanceof Single)
+			forEachItem(((Single)t).item, action);
+		else if (t instanceof Deep) {
+			Deep d = (Deep)t;
+			for (Object x : d.prefix)
+				forEachItem(x, action);
+			forEach(d.middle, action);
+			for (Object x : d.suffix)
+				forEachItem(x, action);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <E> void forEachItem(Object x, Consumer<E> action) {
+		if (x instanceof Node)
+			for (Object y : ((Node)x).items)
+				forEachItem(y, action);
+		else
+			action.accept((E)x);
+	}
+}
@@ -0,0 +1,247 @@
+package puzzle;
+
+/**
+ * A read-only list of characters backed directly by a string (or other CharSequence that
+ * will not change) and a pair of index offsets. head, tail, at, take, drop and length are
+ * O(1) and copy nothing. Transformations that build a new list (map, filter, append, ...)
+ * read the characters straight from the string into the cells of the result.
+ */
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+final class StringList extends List<Character> {
+
+	private final CharSequence chars;
+	private final int start, end;
+	private int hash;
+
+	/**
+	 * @param chars		the characters to view
+	 * @param start		the index of the first character in the view
+	 * @param end		the index after the last character in the view
+	 */
+	StringList(CharSequence chars, int start, int end) {
+		this.chars = chars;
+		this.start = start;
+		this.end = end;
+	}
+
+	/**
+	 * Append the viewed characters to a builder, without boxing them
+	 * @param sb		the builder to append to
+	 * @return			the builder
+	 */
+	StringBuilder appendTo(StringBuilder sb) {
+		return sb.append(chars, start, end);
+	}
+
+	/**
+	 * Append the viewed characters to a sink, without boxing them
+	 * @param out		the sink to append to
+	 * @throws IOException		if the sink does
+	 */
+	void appendTo(Appendable out) throws IOException {
+		out.append(chars, start, end);
+	}
+
+	@Override public boolean equals(Object that) {
+		if (this == that)
+			return true;
+		if (that instanceof StringList) {
+			StringList other = (StringList)that;
+			if (other.length() != length())
+				return false;
+			for (int i = 0; i < length(); i++)
+				if (chars.charAt(start + i) != other.chars.charAt(other.start + i))
+					return false;
+			return true;
+		}
+		return that instanceof List && that.equals(this);
+	}
+
+	@Override public int hashCode() {
+		int h = hash;
+		if (h == 0) {
+			h = 1;
+			for (int i = end - 1; i >= start; i--)
+				h = 31 * h + chars.charAt(i);
+			hash = h;
+		}
+		return h;
+	}
+
+	@Override int knownHash() {
+		return hash;
+	}
+
+	@Override public String toString() {
+		StringBuilder sb = new StringBuilder(2 * length() + 1).append('[');
+		for (int i = start; i < end; i++) {
+			if (i > start)
+				sb.append(',');
+			sb.append(chars.charAt(i));
+		}
+		return sb.append(']').toString();
+	}
+
+	@Override public boolean isEmpty() {
+		return start == end;
+	}
+
+	@Override public int length() {
+		return end - start;
+	}
+
+	@Override public Character at(int k) {
+		if (k < 0)
+			throw new IndexOutOfBoundsException("at");
+		if (k >= length())
+			throw new NoSuchElementException("at");
+		return chars.charAt(start + k);
+	}
+
+	@Override public Character head() {
+		if (isEmpty())
+			throw new NoSuchElementException("head");
+		return chars.charAt(start);
+	}
+
+	@Override public List<Character> tail() {
+		if (isEmpty())
+			throw new NoSuchElementException("tail");
+		return new StringList(chars, start + 1, end);
+	}
+
+	@Override public List<Character> take(int n) {
+		if (n >= length())
+			return this;
+		return new StringList(chars, start, start + Integer.max(n, 0));
+	}
+
+	@Override public List<Character> drop(int n) {
+		if (n <= 0)
+			return this;
+		return new StringList(chars, start + Integer.min(n, length()), end);
+	}
+
+	@Override public List<Character> takeWhile(Predicate<Character> p) {
+		int i = start;
+		while (i < end && p.test(chars.charAt(i)))
+			i++;
+		return take(i - start);
+	}
+
+	@Override public List<Character> dropWhile(Predicate<Character> p) {
+		int i = start;
+		while (i < end && p.test(chars.charAt(i)))
+			i++;
+		return drop(i - start);
+	}
+
+	@Override public boolean all(Predicate<Character> p) {
+		for (int i = start; i < end; i++)
+			if (!p.test(chars.charAt(i)))
+				return false;
+		return true;
+	}
+
+	@Override public boolean any(Predicate<Character> p) {
+		for (int i = start; i < end; i++)
+			if (p.test(chars.charAt(i)))
+				return true;
+		return false;
+	}
+
+	@Override public <F> F foldl(BiFunction<F,Character,F> op, F accumulator) {
+		F acc = accumulator;
+		for (int i = start; i < end; i++)
+			acc = op.apply(acc, chars.charAt(i));
+		return acc;
+	}
+
+	@Override public <F> F foldr(BiFunction<Character,F,F> op, F lastElement) {
+		F acc = lastElement;
+		for (int i = end - 1; i >= start; i--)
+			acc = op.apply(chars.charAt(i), acc);
+		return acc;
+	}
+
+	/*
+	 * Transformations: these read the characters from the string as they build the result
+	 */
+
+	@Override public List<Character> append(List<Character> that) {
+		if (that.isEmpty())
+			return this;
+		Builder<Character> b = new Builder<Character>();
+		for (int i = start; i < end; i++)
+			b.add(chars.charAt(i));
+		return b.buildOnto(that);
+	}
+
+	@Override public List<Character> reverse() {
+		List<Character> xs = emptyList();
+		for (int i = start; i < end; i++)
+			xs = cons(chars.charAt(i), xs);
+		return xs;
+	}
+
+	@Override public List<Character> filter(Predicate<Character> p) {
+		Builder<Character> b = new Builder<Character>();
+		for (int i = start; i < end; i++) {
+			Character c = chars.charAt(i);
+			if (p.test(c))
+				b.add(c);
+		}
+		return b.build();
+	}
+
+	@Override public <F> List<F> map(Function<Character,F> f) {
+		Builder<F> b = new Builder<F>();
+		for (int i = start; i < end; i++)
+			b.add(f.apply(chars.charAt(i)));
+		return b.build();
+	}
+
+	@Override public Character foldl1(BinaryOperator<Character> op) {
+		if (isEmpty())
+			throw new UnsupportedOperationException("foldl1 emptylist");
+		Character acc = chars.charAt(start);
+		for (int i = start + 1; i < end; i++)
+			acc = op.apply(acc, chars.charAt(i));
+		return acc;
+	}
+
+	@Override public Character foldr1(BinaryOperator<Character> op) {
+		if (isEmpty())
+			throw new UnsupportedOperationException("foldr1 emptylist");
+		Character acc = chars.charAt(end - 1);
+		for (int i = end - 2; i >= start; i--)
+			acc = op.apply(chars.charAt(i), acc);
+		return acc;
+	}
+
+	@Override public <F,G> List<G> zipWith(List<F> that, BiFunction<Character,F,G> op) {
+		Builder<G> b = new Builder<G>();
+		Iterator<F> ys = that.iterator();
+		for (int i = start; i < end && ys.hasNext(); i++)
+			b.add(op.apply(chars.charAt(i), ys.next()));
+		return b.build();
+	}
+
+	@Override public List<Character> intersperse(Character sep) {
+		Builder<Character> b = new Builder<Character>();
+		for (int i = start; i < end; i++) {
+			if (i > start)
+				b.add(sep);
+			b.add(chars.charAt(i));
+		}
+		return b.build();
+	}
+}
@@ -0,0 +1,267 @@
+package puzzle;
+
+/**
+ * Writes a sequence of frames to a terminal. On an ANSI terminal only the chars that differ
+ * from the last frame are sent: the frame is compared with it char by char, and each run of
+ * changes is written after a cursor move to where it starts. Everything for a frame goes out
+ * in one write. The first frame, a frame of a different size, a frame too tall for the
+ * terminal, and every frame on a terminal that is not ANSI-capable are written in full.
+ *
+ * A full frame is followed by a trailer, e.g. some blank lines. On an ANSI terminal the
+ * screen is cleared before a full frame, so the frame is at the top left and the cursor can
+ * be put at any of its chars; after a diff, even one with no changes, the cursor is left
+ * where the trailer would have left it and the rest of the screen is cleared, so that the
+ * text written after each frame appears in the same place. That only holds while nothing
+ * scrolls the screen, so the writer is told how many rows the frame and trailer may take:
+ * the terminal's rows less the lines the caller writes after each frame. A frame that needs
+ * more is always written in full.
+ *
+ * Chars are written one byte each (ISO-8859-1), as Picture.renderTo(ByteBuffer) writes them.
+ * The writer can be pointed at any channel, e.g. one over a byte array standing in for a
+ * terminal. It is not thread-safe.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Scanner;
+
+public final class TerminalWriter {
+
+	private static final String ESC = "\u001b[";
+	/** Move the cursor to the top left and clear the screen */
+	private static final String CLEAR = ESC + "H" + ESC + "2J";
+	/** Clear from the cursor to the end of the screen */
+	private static final String CLEAR_BELOW = ESC + "J";
+
+	private final WritableByteChannel channel;
+	private final boolean ansi;
+	private final String trailer;
+	/** The most rows the frame and its trailer may take without the screen scrolling */
+	private final int rows;
+	/** The last frame, row-major, or null if the next frame must be written in full */
+	private char[] last;
+	private int depth, width;
+	private long bytesWritten;
+
+	/**
+	 * @param channel		the terminal
+	 * @param ansi			true if the terminal understands ANSI cursor moves
+	 * @param trailer		the text written after each full frame
+	 */
+	public TerminalWriter(WritableByteChannel channel, boolean ansi, String trailer) {
+		this(channel, ansi, trailer, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @param channel		the terminal
+	 * @param ansi			true if the terminal understands ANSI cursor moves
+	 * @param trailer		the text written after each full frame
+	 * @param rows			the most rows the frame and trailer may take: the terminal's rows
+	 * 						less the lines written after each frame
+	 */
+	public TerminalWriter(WritableByteChannel channel, boolean ansi, String trailer, int rows) {
+		this.channel = channel;
+		this.ansi = ansi;
+		this.trailer = trailer;
+		this.rows = rows;
+	}
+
+	/**
+	 * Guess whether standard output is an ANSI terminal: it must be a console, and TERM must
+	 * name a terminal other than "dumb" (or, on Windows, the console must be Windows Terminal
+	 * or ANSICON). Run with -Dpuzzle.ansi=true or false to decide instead
+	 * @return		true if standard output looks ANSI-capable
+	 */
+	public static boolean ansiSupported() {
+		String forced = System.getProperty("puzzle.ansi");
+		if (forced != null)
+			return Boolean.parseBoolean(forced);
+		if (System.console() == null)
+			return false;
+		if (System.getProperty("os.name", "").startsWith("Windows"))
+			return System.getenv("WT_SESSION") != null || System.getenv("ANSICON") != null;
+		String term = System.getenv("TERM");
+		return term != null && !term.isEmpty() && !term.equals("dumb");
+	}
+
+	/**
+	 * Find how many rows the terminal has: from -Dpuzzle.rows if it is set, else from the
+	 * LINES environment variable, else by asking stty about the controlling terminal. The
+	 * answer is read once; a terminal resized later is not noticed
+	 * @return		the number of rows, or 24 if they cannot be found
+	 */
+	public static int terminalRows() {
+		String rows = System.getProperty("puzzle.rows", System.getenv("LINES"));
+		try {
+			if (rows != null)
+				return Integer.parseInt(rows.trim());
+			if (System.console() != null && !System.getProperty("os.name", "").startsWith("Windows")) {
+				Process stty = new ProcessBuilder("stty", "size").redirectInput(new File("/dev/tty")).start();
+				try (Scanner size = new Scanner(stty.getInputStream())) {
+					if (stty.waitFor() == 0 && size.hasNextInt())
+						return size.nextInt();
+				}
+			}
+		}
+		catch (NumberFormatException | IOException e) {
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return 24;
+	}
+
+	/**
+	 * Write a frame, or the chars of it that have changed
+	 * @param frame		the frame
+	 * @throws IOException		if the channel does
+	 */
+	public void show(Picture frame) throws IOException {
+		show(frame.toString().replace("\n", "").toCharArray(), frame.depth(), frame.width());
+	}
+
+	/**
+	 * Write a frame, or the chars of it that have changed
+	 * @param frame		the frame
+	 * @throws IOException		if the channel does
+	 */
+	public void show(RasterPicture frame) throws IOException {
+		char[] chars = new char[frame.depth() * frame.width()];
+		frame.blitTo(0, 0, frame.depth(), frame.width(), chars, frame.width(), 0, 0);
+		show(chars, frame.depth(), frame.width());
+	}
+
+	/**
+	 * Forget the last frame, so that the next one is written in full, e.g. after other
+	 * output has moved the frame on the screen
+	 */
+	public void reset() {
+		last = null;
+	}
+
+	/**
+	 * @return		true if frames after the first are written as diffs
+	 */
+	public boolean isAnsi() {
+		return ansi;
+	}
+
+	/**
+	 * @return		the number of bytes written so far
+	 */
+	public long bytesWritten() {
+		return bytesWritten;
+	}
+
+	/**
+	 * Write a frame given as rows of chars
+	 * @param next		the rows, one after another
+	 * @param d			the number of rows
+	 * @param w			the number of chars in each row
+	 */
+	private void show(char[] next, int d, int w) throws IOException {
+		StringBuilder out = new StringBuilder();
+		if (ansi && last != null && d == depth && w == width && d + lineBreaks(trailer) <= rows) {
+			diff(next, out);
+			moveTo(out, d + lineBreaks(trailer), column(trailer));
+			out.append(CLEAR_BELOW);
+		}
+		else {
+			if (ansi)
+				out.append(CLEAR);
+			for (int row = 0; row < d; row++) {
+				if (row > 0)
+					out.append('\n');
+				out.append(next, row * w, w);
+			}
+			out.append(trailer);
+		}
+		last = next;
+		depth = d;
+		width = w;
+		write(out);
+	}
+
+	/**
+	 * Add the cursor moves and chars that turn the last frame into the next. Runs of
+	 * changes in a row are joined when rewriting the unchanged chars between them is no
+	 * longer than the cursor move it saves
+	 * @param next		the next frame
+	 * @param out		the text to add to
+	 */
+	private void diff(char[] next, StringBuilder out) {
+		for (int row = 0; row < depth; row++) {
+			int base = row * width;
+			int col = 0, cursor = -1;
+			while (col < width) {
+				if (next[base + col] == last[base + col]) {
+					col++;
+					continue;
+				}
+				int end = col + 1;
+				while (end < width && next[base + end] != last[base + end])
+					end++;
+				if (cursor >= 0 && col - cursor <= moveLength(row + 1, col + 1))
+					out.append(next, base + cursor, col - cursor);
+				else
+					moveTo(out, row + 1, col + 1);
+				out.append(next, base + col, end - col);
+				cursor = end;
+				col = end;
+			}
+		}
+	}
+
+	/**
+	 * Add a cursor move
+	 * @param out		the text to add to
+	 * @param row		the row, from 1
+	 * @param col		the column, from 1
+	 */
+	private static void moveTo(StringBuilder out, int row, int col) {
+		out.append(ESC).append(row).append(';').append(col).append('H');
+	}
+
+	/**
+	 * @return		the number of chars in a cursor move to (row, col)
+	 */
+	private static int moveLength(int row, int col) {
+		return ESC.length() + Integer.toString(row).length() + Integer.toString(col).length() + 2;
+	}
+
+	/**
+	 * @return		the number of newlines in some text
+	 */
+	private static int lineBreaks(String text) {
+		return (int)text.chars().filter(c -> c == '\n').count();
+	}
+
+	/**
+	 * @return		the column, from 1, that the cursor is in after some text is written at
+	 * 				the end of the last row of the frame
+	 */
+	private int column(String text) {
+		int start = text.lastIndexOf('\n') + 1;
+		int col = start == 0 ? width + 1 : 1;
+		for (int i = start; i < text.length(); i++)
+			col = text.charAt(i) == '\r' ? 1 : col + 1;
+		return col;
+	}
+
+	/**
+	 * Encode the text and write it with one buffer
+	 */
+	private void write(CharSequence text) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(text.length());
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			buffer.put(c < 0x100 ? (byte)c : (byte)'?');
+		}
+		buffer.flip();
+		bytesWritten += buffer.remaining();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+	}
+}
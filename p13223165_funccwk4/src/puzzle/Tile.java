@@ -1,12 +1,43 @@
 package puzzle;
 
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
 /**
  * This class extends Picture and is used to represent a Tile in the grid board of the
  * game. Each tile has an associated ID, which is immutable after initialisation. 
+ * Tiles are immutable, so the game shares one canonical Tile per glyph, number and glyph
+ * set between all its games, see of().
  * @author p13223165
  */
 public class Tile extends Picture{
 	
+	/** The canonical Tiles, by glyph set and then glyph and number; a glyph set no longer in use is dropped */
+	private static final WeakHashMap<GlyphAtlas, HashMap<Key, Tile>> canonical = new WeakHashMap<>();
+	
+	/** The key of a canonical Tile in its glyph set: the glyph's name and the Tile's number */
+	private static final class Key {
+		final String name;
+		final int number;
+		
+		Key(String name, int number) {
+			this.name = name;
+			this.number = number;
+		}
+		
+		@Override public boolean equals(Object that) {
+			if (!(that instanceof Key))
+				return false;
+			Key k = (Key)that;
+			return number == k.number && Objects.equals(name, k.name);
+		}
+		
+		@Override public int hashCode() {
+			return 31 * Objects.hashCode(name) + number;
+		}
+	}
+	
 	/** The number/ID of the Tile, can only be assigned once */
 	private final int number;
 
@@ -25,6 +56,22 @@ public class Tile extends Picture{
 		this.number = number;
 	}
 	
+	/**
+	 * Returns the canonical Tile for a glyph and number in a glyph set, making it from the
+	 * glyph the first time. Every game that uses the same glyph set gets the same Tile objects.
+	 * @param glyphs The glyph set the picture comes from
+	 * @param name The name of the glyph
+	 * @param number The ID of the Tile
+	 * @return The Tile
+	 */
+	public static synchronized Tile of(GlyphAtlas glyphs, String name, int number) {
+		//Find the Tiles of the glyph set, then the Tile with the glyph and number
+		//Make it if this is the first time it is asked for
+		return canonical
+				.computeIfAbsent(glyphs, g -> new HashMap<>())
+				.computeIfAbsent(new Key(name, number), k -> new Tile(glyphs.text(name), number));
+	}
+	
 	/**
 	 * Standard getter to return the ID/number of the Tile.
 	 * @return The state of the Number field.
@@ -0,0 +1,89 @@
+package puzzle;
+
+/**
+ * Measures the cost per move of drawing a board with Game.display() and with a
+ * BoardRenderer, over the same random game, and checks that the renderer's frame is the
+ * same as display()'s after every move:
+ *
+ *	javac -d out src/puzzle/*.java test/puzzle/*.java
+ *	java -cp out puzzle.BoardRendererBenchmark [moves] [rounds]
+ *
+ * Each round prints the mean time and the bytes allocated per move for both. The first
+ * rounds include JIT warm-up; read the later ones. Allocation is measured with the
+ * HotSpot thread MXBean and reads as -1 where that is not available.
+ */
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Random;
+
+public class BoardRendererBenchmark {
+
+	public static void main(String[] args) {
+		int moves = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		List<Tile> start = Game.startNewGame();
+		ArrayList<List<Tile>> boards = game(start, moves, new Random(1));
+
+		//Check the renderer against display() first, so the timed loops draw the same frames
+		BoardRenderer check = new BoardRenderer();
+		check.render(start);
+		for (List<Tile> board : boards) {
+			check.render(board);
+			if (!check.toPicture().toString().equals(Game.display(board).toString()))
+				throw new AssertionError("BoardRenderer and Game.display() differ for " + board);
+		}
+
+		for (int round = 1; round <= rounds; round++) {
+			long sink = 0;
+			long t0 = System.nanoTime(), a0 = allocated();
+			for (List<Tile> board : boards)
+				sink += Game.display(board).depth();
+			long t1 = System.nanoTime(), a1 = allocated();
+
+			BoardRenderer renderer = new BoardRenderer();
+			renderer.render(start);
+			long t2 = System.nanoTime(), a2 = allocated();
+			for (List<Tile> board : boards)
+				sink += renderer.render(board).length();
+			long t3 = System.nanoTime(), a3 = allocated();
+
+			System.out.printf("round %d: display %.1f us, %d B per move | renderer %.1f us, %d B per move (%d)%n",
+					round, (t1 - t0) / 1e3 / moves, perMove(a0, a1, moves),
+					(t3 - t2) / 1e3 / moves, perMove(a2, a3, moves), sink);
+		}
+	}
+
+	/**
+	 * @return		the boards after each of a number of random legal moves
+	 */
+	private static ArrayList<List<Tile>> game(List<Tile> start, int moves, Random random) {
+		ArrayList<List<Tile>> boards = new ArrayList<List<Tile>>(moves);
+		List<Tile> board = start;
+		for (int i = 0; i < moves; i++) {
+			List<Tile> next;
+			do {
+				switch (random.nextInt(4)) {
+				case 0: next = Game.moveUp(board); break;
+				case 1: next = Game.moveDown(board); break;
+				case 2: next = Game.moveLeft(board); break;
+				default: next = Game.moveRight(board);
+				}
+			} while (next == board);
+			boards.add(board = next);
+		}
+		return boards;
+	}
+
+	private static long allocated() {
+		ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+		if (mx instanceof com.sun.management.ThreadMXBean)
+			return ((com.sun.management.ThreadMXBean)mx).getThreadAllocatedBytes(Thread.currentThread().getId());
+		return -1;
+	}
+
+	private static long perMove(long before, long after, int moves) {
+		return before < 0 ? -1 : (after - before) / moves;
+	}
+}
@@ -0,0 +1,88 @@
+package puzzle;
+
+/**
+ * Checks the behaviour of LazyList: that transformations do no work until the result is
+ * consumed, that every thunk is evaluated at most once, and that infinite lists built with
+ * iterate and repeat can be taken from, filtered and zipped. Long runs of rejected items are
+ * filtered with a small thread stack, so a filter that recursed once per item would fail:
+ *
+ *	javac -d out src/puzzle/*.java test/puzzle/*.java
+ *	java -Xss512k -cp out puzzle.LazyListTest
+ *
+ * A failed check throws an AssertionError naming it.
+ */
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LazyListTest {
+
+	public static void main(String[] args) {
+		List<Integer> zeroToNine = List.range(0, 10);
+		LazyList<Integer> nats = LazyList.iterate(i -> i + 1, 0);
+
+		//iterate and take, on an infinite list
+		check(nats.take(10).toList().equals(zeroToNine), "iterate then take");
+		check(nats.at(1000) == 1000, "at on an infinite list");
+		check(nats.take(0).isEmpty() && nats.take(-1).isEmpty(), "take nothing");
+		check(nats.take(5).take(10).length() == 5, "take more than there is");
+		check(LazyList.repeat('x').take(3).toList().equals(List.explode("xxx")), "repeat then take");
+
+		//filter, on an infinite list and over long runs of rejected items
+		check(nats.filter(i -> i % 3 == 0).take(4).toList().equals(List.arrayToList(new Integer[] { 0, 3, 6, 9 })), "filter then take");
+		check(nats.filter(i -> i >= 1_000_000).head() == 1_000_000, "filter skips a long run");
+		check(LazyList.fromList(zeroToNine).filter(i -> i > 9).isEmpty(), "filter rejects everything");
+		check(nats.map(i -> i * 2).filter(i -> i % 4 == 0).at(2) == 8, "map then filter");
+
+		//The other transformations, on infinite lists
+		check(nats.takeWhile(i -> i < 10).toList().equals(zeroToNine), "takeWhile");
+		check(nats.dropWhile(i -> i < 10).head() == 10, "dropWhile");
+		check(nats.drop(5).head() == 5 && LazyList.fromList(zeroToNine).drop(20).isEmpty(), "drop");
+		check(nats.zipWith(LazyList.repeat(10), Integer::sum).take(3).toList().equals(List.rangeClosed(10, 12)), "zipWith infinite");
+		check(nats.zipWith(LazyList.fromList(zeroToNine), Integer::sum).length() == 10, "zipWith shorter");
+		check(LazyList.fromList(zeroToNine).append(nats).at(15) == 5, "append infinite");
+		check(nats.group(3).at(2).equals(List.rangeClosed(6, 8)), "group infinite");
+		check(LazyList.fromList(zeroToNine).group(4).length() == 3, "group ragged");
+		check(nats.any(i -> i == 500) && !nats.all(i -> i < 500), "any and all stop early");
+		check(LazyList.fromList(zeroToNine).foldl(Integer::sum, 0) == 45, "foldl");
+
+		//Laziness and memoisation
+		AtomicInteger calls = new AtomicInteger();
+		LazyList<Integer> counted = nats.map(i -> { calls.incrementAndGet(); return i; });
+		check(calls.get() == 0, "map does no work until consumed");
+		LazyList<Integer> evens = counted.filter(i -> i % 2 == 0);
+		check(calls.get() == 0, "filter does no work until consumed");
+		check(evens.at(3) == 6 && calls.get() == 7, "only the prefix needed is evaluated: " + calls.get());
+		check(evens.at(3) == 6 && counted.at(6) == 6 && calls.get() == 7, "thunks are evaluated once: " + calls.get());
+		check(counted.toString().equals("[0,1,2,3,4,5,6...]"), "toString of a partly evaluated list: " + counted);
+		check(nats.toString().endsWith("...]"), "toString never forces an infinite list");
+		check(LazyList.fromList(List.rangeClosed(1, 3)).take(5).toList().toString().equals("[1,2,3]"), "toList of a finite list");
+
+		//Errors
+		check(throwsNoSuchElement(() -> LazyList.emptyLazyList().head()), "head of an empty list");
+		check(throwsNoSuchElement(() -> LazyList.fromList(zeroToNine).at(10)), "at past the end");
+		try {
+			nats.at(-1);
+			check(false, "at(-1)");
+		}
+		catch (IndexOutOfBoundsException e) {
+		}
+
+		System.out.println("LazyListTest: ok");
+	}
+
+	private static boolean throwsNoSuchElement(Runnable r) {
+		try {
+			r.run();
+			return false;
+		}
+		catch (NoSuchElementException e) {
+			return true;
+		}
+	}
+
+	private static void check(boolean ok, String what) {
+		if (!ok)
+			throw new AssertionError(what);
+	}
+}
@@ -0,0 +1,153 @@
+package puzzle;
+
+/**
+ * Compares List's Nil and Cons cells with the design they replaced, in which every non-empty
+ * list was an anonymous subclass made by addFront, holding its item and the list it was
+ * added to through captured fields. That design is reproduced here as AnonymousList, with
+ * its per-cell getClass() test in equals; its methods are loops, as List's are now, so that
+ * a million-item list does not overflow the stack and the comparison is of the cells and
+ * the dispatch on them, not of recursion against iteration:
+ *
+ *	javac -d out src/puzzle/*.java test/puzzle/*.java
+ *	java -cp out puzzle.ListFootprintBenchmark [items] [rounds]
+ *
+ * The footprint is the bytes allocated per item while consing a list of boxed values made
+ * beforehand, measured with the HotSpot thread MXBean (-1 where that is not available). The
+ * throughput rows are the best time per pass of map, foldl and equals over the whole list.
+ * JMH is not available in this tree, so these are plain timed loops: the first rounds
+ * include JIT warm-up; read the later ones.
+ */
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+public class ListFootprintBenchmark {
+
+	/** The list design List replaced: the empty list is a plain instance, cells are anonymous */
+	private static class AnonymousList<E> {
+
+		boolean isEmpty() {
+			return true;
+		}
+
+		E head() {
+			throw new NoSuchElementException("head");
+		}
+
+		AnonymousList<E> tail() {
+			throw new NoSuchElementException("tail");
+		}
+
+		AnonymousList<E> addFront(E x) {
+			return new AnonymousList<E>() {
+				@Override boolean isEmpty() {
+					return false;
+				}
+
+				@Override E head() {
+					return x;
+				}
+
+				@Override AnonymousList<E> tail() {
+					return AnonymousList.this;
+				}
+			};
+		}
+
+		<F> AnonymousList<F> map(Function<E,F> f) {
+			ArrayList<F> items = new ArrayList<F>();
+			for (AnonymousList<E> xs = this; !xs.isEmpty(); xs = xs.tail())
+				items.add(f.apply(xs.head()));
+			AnonymousList<F> ys = new AnonymousList<F>();
+			for (int i = items.size() - 1; i >= 0; i--)
+				ys = ys.addFront(items.get(i));
+			return ys;
+		}
+
+		<F> F foldl(BiFunction<F,E,F> op, F accumulator) {
+			for (AnonymousList<E> xs = this; !xs.isEmpty(); xs = xs.tail())
+				accumulator = op.apply(accumulator, xs.head());
+			return accumulator;
+		}
+
+		@Override public boolean equals(Object that) {
+			AnonymousList<?> xs = this, ys = (AnonymousList<?>)that;
+			for (; !xs.isEmpty(); xs = xs.tail(), ys = ys.tail())
+				if (xs.getClass() != ys.getClass() || !xs.head().equals(ys.head()))
+					return false;
+			return ys.isEmpty();
+		}
+
+		@Override public int hashCode() {
+			return foldl((h, x) -> 31 * h + x.hashCode(), 1);
+		}
+	}
+
+	public static void main(String[] args) {
+		int items = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		Integer[] values = new Integer[items];
+		for (int i = 0; i < items; i++)
+			values[i] = i;
+
+		for (int round = 1; round <= rounds; round++) {
+			long a0 = allocated();
+			List<Integer> list = List.emptyList();
+			for (int i = items - 1; i >= 0; i--)
+				list = List.cons(values[i], list);
+			long a1 = allocated();
+			AnonymousList<Integer> anonymous = new AnonymousList<Integer>();
+			for (int i = items - 1; i >= 0; i--)
+				anonymous = anonymous.addFront(values[i]);
+			long a2 = allocated();
+
+			List<Integer> listCopy = list.map(x -> x);
+			AnonymousList<Integer> anonymousCopy = anonymous.map(x -> x);
+			if (!list.equals(listCopy) || !anonymous.equals(anonymousCopy)
+					|| list.foldl((s, x) -> s + x, 0L).longValue() != anonymous.foldl((s, x) -> s + x, 0L).longValue())
+				throw new AssertionError("the two designs disagree");
+
+			final List<Integer> xs = list;
+			final AnonymousList<Integer> ys = anonymous;
+			System.out.printf("round %d, %d items: Nil/Cons %d B per item, map %.1f ms, foldl %.1f ms, equals %.1f ms"
+					+ " | anonymous %d B per item, map %.1f ms, foldl %.1f ms, equals %.1f ms%n",
+					round, items, perItem(a0, a1, items),
+					best(() -> xs.map(x -> x + 1).head()), best(() -> xs.foldl((s, x) -> s + x, 0L).intValue()),
+					best(() -> xs.equals(listCopy) ? 1 : 0),
+					perItem(a1, a2, items),
+					best(() -> ys.map(x -> x + 1).head()), best(() -> ys.foldl((s, x) -> s + x, 0L).intValue()),
+					best(() -> ys.equals(anonymousCopy) ? 1 : 0));
+		}
+	}
+
+	/**
+	 * @return		the best milliseconds for one call out of five
+	 */
+	private static double best(IntSupplier op) {
+		long best = Long.MAX_VALUE, sink = 0;
+		for (int i = 0; i < 5; i++) {
+			long t0 = System.nanoTime();
+			sink += op.getAsInt();
+			best = Math.min(best, System.nanoTime() - t0);
+		}
+		if (sink == 42)
+			System.out.print("");
+		return best / 1e6;
+	}
+
+	private static long allocated() {
+		ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+		if (mx instanceof com.sun.management.ThreadMXBean)
+			return ((com.sun.management.ThreadMXBean)mx).getThreadAllocatedBytes(Thread.currentThread().getId());
+		return -1;
+	}
+
+	private static long perItem(long before, long after, int items) {
+		return before < 0 ? -1 : Math.round((after - before) / (double)items);
+	}
+}
@@ -0,0 +1,93 @@
+package puzzle;
+
+/**
+ * Stress tests for the bulk operations of List on lists of a million items and more. Each
+ * operation would overflow the stack if it recursed once per item, so the tests are run with
+ * a small thread stack:
+ *
+ *	javac -d out src/puzzle/*.java test/puzzle/*.java
+ *	java -Xss512k -cp out puzzle.ListStressTest
+ *
+ * A failed check throws an AssertionError naming it.
+ */
+
+import java.util.NoSuchElementException;
+
+public class ListStressTest {
+
+	private static final int N = 2_000_000;
+
+	public static void main(String[] args) {
+		List<Integer> ones = List.repeat(N, 1);
+		List<Integer> nats = List.iterateWhile(i -> i < N, i -> i + 1, 0);
+		long sum = (long)N * (N - 1) / 2;
+
+		check(ones.length() == N && nats.length() == N && nats.at(N - 1) == N - 1, "length and at");
+		check(nats.map(i -> i * 2).at(N - 1) == 2 * (N - 1), "map");
+		check(nats.filter(i -> i % 4 == 0).length() == N / 4, "filter");
+		check(nats.map(i -> i * 2).filter(i -> i % 4 == 0).length() == N / 2, "map then filter");
+		check(nats.foldr((x, acc) -> acc + x, 0L) == sum, "foldr");
+		check(nats.foldl((acc, x) -> acc + x, 0L) == sum, "foldl");
+		check(List.rangeClosed(1, 4).foldr1((p, q) -> p - q) == 1 - (2 - (3 - 4)), "foldr1");
+
+		List<Integer> both = ones.append(nats);
+		check(both.length() == 2 * N && both.at(N) == 0 && both.at(2 * N - 1) == N - 1, "append");
+		check(List.concat(List.cons(nats, List.single(ones))).length() == 2 * N, "concat");
+
+		check(nats.take(N - 5).length() == N - 5 && nats.take(N - 5).at(N - 6) == N - 6, "take");
+		check(nats.drop(N - 1).head() == N - 1, "drop");
+		check(nats.takeWhile(i -> i < N - 1).length() == N - 1, "takeWhile");
+
+		List<Integer> zipped = nats.zipWith(ones, Integer::sum);
+		check(zipped.length() == N && zipped.at(N - 1) == N, "zipWith");
+		check(nats.zipWith(ones.take(10), Integer::sum).length() == 10, "zipWith shorter");
+
+		List<List<Integer>> tall = nats.map(i -> List.cons(i, List.single(-i)));
+		List<List<Integer>> wide = List.transpose(tall);
+		check(wide.length() == 2 && wide.head().equals(nats) && wide.at(1).at(N - 1) == -(N - 1), "transpose tall");
+		List<List<Integer>> back = List.transpose(wide);
+		check(back.length() == N && back.at(N - 1).equals(tall.at(N - 1)), "transpose wide");
+
+		check(ones.intersperse(0).length() == 2 * N - 1, "intersperse");
+		check(nats.reverse().head() == N - 1 && nats.reverse().at(N - 1) == 0, "reverse");
+		check(nats.all(i -> i >= 0) && nats.any(i -> i == N - 1) && !nats.any(i -> i < 0), "all and any");
+		check(nats.equals(List.iterateWhile(i -> i < N, i -> i + 1, 0)) && !nats.equals(ones), "equals");
+		check(nats.hashCode() == List.iterateWhile(i -> i < N, i -> i + 1, 0).hashCode(), "hashCode");
+		check(nats.toString().length() > N, "toString");
+
+		List<Integer> view = nats.take(N - 1);
+		check(view.equals(List.range(0, N - 1)) && !view.equals(nats.take(N - 2).append(List.single(0))), "equals on a view");
+		check(view.takeWhile(i -> i < N - 2).length() == N - 2 && view.dropWhile(i -> i < N - 3).equals(List.rangeClosed(N - 3, N - 2))
+				&& view.dropWhile(i -> true).isEmpty(), "takeWhile and dropWhile on a view");
+		check(view.zipWith(view, Integer::sum).at(N - 2) == 2 * (N - 2) && view.foldl1(Math::max) == N - 2, "zipWith and foldl1 on a view");
+		List<List<Integer>> runs = view.groupBy((p, q) -> p / 1000 == q / 1000);
+		check(runs.length() == (N - 2) / 1000 + 1 && List.concat(runs).equals(view), "groupBy on a view");
+		check(List.transpose(List.repeat(3, view)).at(N - 2).equals(List.repeat(3, N - 2)), "transpose of views");
+
+		for (List<Integer> xs : List.cons(List.<Integer>emptyList(), List.cons(nats.take(3), List.single(nats.drop(N - 3)))))
+			check(throwsAt(xs, -1) instanceof IndexOutOfBoundsException && throwsAt(xs, xs.length()) instanceof NoSuchElementException,
+					"at out of range, length " + xs.length());
+		check(throwsAt(List.explode(""), -1) instanceof IndexOutOfBoundsException
+				&& throwsAt(List.explode("ab"), 2) instanceof NoSuchElementException, "at out of range, string list");
+
+		System.out.println("ListStressTest: ok");
+	}
+
+	/**
+	 * @return		what xs.at(k) throws, or null if it returns
+	 */
+	private static RuntimeException throwsAt(List<?> xs, int k) {
+		try {
+			xs.at(k);
+			return null;
+		}
+		catch (RuntimeException e) {
+			return e;
+		}
+	}
+
+	private static void check(boolean ok, String what) {
+		if (!ok)
+			throw new AssertionError(what);
+	}
+}
@@ -0,0 +1,48 @@
+package puzzle;
+
+/**
+ * Compares the fork/join operations of List with their sequential counterparts. Each list
+ * size is run with a split threshold of 1 (split down to single items), a small odd
+ * threshold, and the default, so both sides of the threshold and lists that split unevenly
+ * are covered:
+ *
+ *	javac -d out src/puzzle/*.java test/puzzle/*.java
+ *	java -cp out puzzle.ParallelListTest
+ *
+ * A failed check throws an AssertionError naming it.
+ */
+
+public class ParallelListTest {
+
+	private static final int[] SIZES = { 0, 1, 2, 7, 1000, List.PARALLEL_THRESHOLD - 1,
+			List.PARALLEL_THRESHOLD, List.PARALLEL_THRESHOLD + 1, 100_000, 1_000_000 };
+	private static final int[] THRESHOLDS = { 1, 7, List.PARALLEL_THRESHOLD };
+
+	public static void main(String[] args) {
+		for (int n : SIZES) {
+			List<Integer> xs = List.range(0, n);
+			for (int t : THRESHOLDS) {
+				String at = " (n=" + n + ", threshold=" + t + ")";
+				check(xs.parallelMap(i -> i * 3, t).equals(xs.map(i -> i * 3)), "parallelMap" + at);
+				check(xs.parallelFilter(i -> i % 7 == 2, t).equals(xs.filter(i -> i % 7 == 2)), "parallelFilter" + at);
+				check(xs.parallelFoldl((s, x) -> s + x, Long::sum, 0L, t).equals(xs.foldl((s, x) -> s + x, 0L)), "parallelFoldl" + at);
+				if (n <= 10_000)
+					check(xs.parallelFoldl((s, x) -> s + x + ",", String::concat, "", t).equals(xs.foldl((s, x) -> s + x + ",", "")),
+							"parallelFoldl keeps order" + at);
+				check(xs.parallelAny(i -> i == n - 1, t) == xs.any(i -> i == n - 1), "parallelAny last" + at);
+				check(xs.parallelAny(i -> i < 0, t) == xs.any(i -> i < 0), "parallelAny none" + at);
+				check(xs.parallelAll(i -> i >= 0, t) == xs.all(i -> i >= 0), "parallelAll every" + at);
+				check(xs.parallelAll(i -> i < n - 1, t) == xs.all(i -> i < n - 1), "parallelAll but last" + at);
+			}
+			check(xs.parallelMap(i -> i + 1).equals(xs.map(i -> i + 1)), "parallelMap default (n=" + n + ")");
+			check(xs.parallelFilter(i -> i % 2 == 0).equals(xs.filter(i -> i % 2 == 0)), "parallelFilter default (n=" + n + ")");
+			check(xs.parallelAll(i -> i < n) && !xs.parallelAny(i -> i >= n), "parallelAll/Any default (n=" + n + ")");
+		}
+		System.out.println("ParallelListTest: ok");
+	}
+
+	private static void check(boolean ok, String what) {
+		if (!ok)
+			throw new AssertionError(what);
+	}
+}
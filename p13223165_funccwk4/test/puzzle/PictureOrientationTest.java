@@ -0,0 +1,131 @@
+package puzzle;
+
+/**
+ * Checks Picture's orientation views (transpose, reflectHorizontal, reflectVertical and rotate)
+ * against eager copies made from the rows with List.transpose, reverse and map(List::reverse),
+ * as those methods were before they became views. Random chains of orientations are applied
+ * to random ragged pictures; views of views must draw what the copies draw, whether or not a
+ * view partway along the chain was drawn first, and must compose with other operations. Then
+ * several threads draw views of the same view at once:
+ *
+ *	javac -d out src/puzzle/*.java test/puzzle/*.java
+ *	java -cp out puzzle.PictureOrientationTest [seed]
+ *
+ * A failed check throws an AssertionError naming it.
+ */
+
+import java.util.Collections;
+import java.util.Random;
+
+public class PictureOrientationTest {
+
+	private static final int CHAINS = 20000;
+	private static final String[] NAMES = { "transpose", "reflectHorizontal", "reflectVertical", "rotate(1)", "rotate(2)", "rotate(3)" };
+
+	public static void main(String[] args) throws InterruptedException {
+		long seed = args.length > 0 ? Long.parseLong(args[0]) : 7;
+		Random random = new Random(seed);
+		for (int i = 0; i < CHAINS; i++)
+			chain(random, i);
+		threads();
+		System.out.println("PictureOrientationTest: ok (" + CHAINS + " chains, seed " + seed + ")");
+	}
+
+	/**
+	 * Apply a random chain of orientations to a random picture, both as views and as copies
+	 */
+	private static void chain(Random random, int i) {
+		Picture p = random.nextInt(10) == 0 ? new Picture(List.<List<Character>>emptyList()) : ragged(random);
+		Picture view = p, copy = p;
+		String steps = "";
+		for (int n = random.nextInt(9); n > 0; n--) {
+			int k = random.nextInt(NAMES.length);
+			steps += "." + NAMES[k];
+			view = orient(view, k);
+			copy = new Picture(eager(rows(copy), k));
+			if (random.nextInt(4) == 0)
+				view.toString();
+			check(view.depth() == copy.depth() && view.width() == copy.width(), "size after " + steps + ", chain " + i);
+		}
+		check(view.toString().equals(copy.toString()), "chain " + i + ": " + steps + " of\n" + p + "\ngave\n" + view + "\nnot\n" + copy);
+		check(view.above(p, Picture.CTR).border('*').toString().equals(copy.above(p, Picture.CTR).border('*').toString()),
+				"chain " + i + ": a view composed with above and border");
+	}
+
+	/**
+	 * Draw views of one view from several threads at once
+	 */
+	private static void threads() throws InterruptedException {
+		Picture big = new Picture(String.join("\n", Collections.nCopies(200, "abcdefghijklmnopqrstuvwxyz0123456789")));
+		String[] want = {
+				new Picture(eager(eager(eager(rows(big), 3), 2), 4)).toString(),
+				new Picture(eager(eager(rows(big), 3), 2)).toString() };
+		for (int round = 0; round < 200; round++) {
+			Picture view = big.rotate(1).reflectVertical();
+			Thread[] threads = new Thread[4];
+			String[] got = new String[threads.length];
+			for (int t = 0; t < threads.length; t++) {
+				int j = t;
+				threads[t] = new Thread(() -> got[j] = (j % 2 == 0 ? view.rotate(2) : view).toString());
+				threads[t].start();
+			}
+			for (Thread t : threads)
+				t.join();
+			for (int t = 0; t < threads.length; t++)
+				check(got[t].equals(want[t % 2]), "thread " + t + ", round " + round);
+		}
+	}
+
+	private static Picture orient(Picture p, int k) {
+		switch (k) {
+		case 0: return p.transpose();
+		case 1: return p.reflectHorizontal();
+		case 2: return p.reflectVertical();
+		case 3: return p.rotate(1);
+		case 4: return p.rotate(2);
+		default: return p.rotate(3);
+		}
+	}
+
+	/**
+	 * @return		the rows oriented as the methods did before they were views
+	 */
+	private static List<List<Character>> eager(List<List<Character>> lines, int k) {
+		switch (k) {
+		case 0: return List.transpose(lines);
+		case 1: return lines.reverse();
+		case 2: return lines.map(List::reverse);
+		case 3: return List.transpose(lines).map(List::reverse);
+		case 4: return lines.reverse().map(List::reverse);
+		default: return List.transpose(lines).reverse();
+		}
+	}
+
+	private static List<List<Character>> rows(Picture p) {
+		List.Builder<List<Character>> b = new List.Builder<List<Character>>();
+		if (p.depth() > 0)
+			for (String line : p.toString().split("\n", -1))
+				b.add(List.explode(line));
+		return b.build();
+	}
+
+	/**
+	 * @return		a picture of up to five rows of up to five random letters
+	 */
+	private static Picture ragged(Random random) {
+		int d = random.nextInt(6), w = random.nextInt(6);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < d; i++) {
+			if (i > 0)
+				sb.append('\n');
+			for (int j = random.nextInt(w + 1); j > 0; j--)
+				sb.append((char)('a' + random.nextInt(26)));
+		}
+		return new Picture(sb.toString());
+	}
+
+	private static void check(boolean ok, String what) {
+		if (!ok)
+			throw new AssertionError(what);
+	}
+}
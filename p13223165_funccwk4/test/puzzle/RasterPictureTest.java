@@ -0,0 +1,206 @@
+package puzzle;
+
+/**
+ * Checks that RasterPicture, RlePicture and LazyPicture draw exactly what Picture draws.
+ * Random layouts are built through the four classes side by side, and after every step they
+ * must have the same depth and width, and Picture, RasterPicture and RlePicture the same
+ * toString(). LazyPicture draws nothing until asked, so it is drawn at a random quarter of
+ * the steps, which checks both layouts made of parts already drawn and parts not yet drawn,
+ * and at the end of each layout. LazyPicture has no map, mapChars, tableRow or tableCol; at
+ * those steps it starts again from the raster. The leaves include empty pictures, pictures
+ * of empty rows, boxes, and ragged multi-line strings; the steps cover every layout
+ * operation, with widths, depths and positions that are negative, zero and out of range as
+ * well as ordinary ones.
+ *
+ *	javac -d out src/puzzle/*.java test/puzzle/*.java
+ *	java -cp out puzzle.RasterPictureTest [seed]
+ *
+ * A mismatch throws an AssertionError showing both pictures.
+ */
+
+import java.util.Random;
+
+public class RasterPictureTest {
+
+	private static final int LAYOUTS = 20000;
+
+	/** The same picture built both ways */
+	private static final class Pair {
+		final Picture list;
+		final RasterPicture raster;
+		final LazyPicture lazy;
+		final RlePicture rle;
+
+		Pair(Picture list, RasterPicture raster, LazyPicture lazy, RlePicture rle) {
+			this.list = list;
+			this.raster = raster;
+			this.lazy = lazy;
+			this.rle = rle;
+			if (list.depth() != raster.depth() || list.width() != raster.width() || !list.toString().equals(raster.toString()))
+				throw new AssertionError("Picture and RasterPicture differ\n"
+						+ list.depth() + "x" + list.width() + "\n" + list + "\n--\n"
+						+ raster.depth() + "x" + raster.width() + "\n" + raster);
+			if (list.depth() != rle.depth() || list.width() != rle.width() || !list.toString().equals(rle.toString()))
+				throw new AssertionError("Picture and RlePicture differ\n"
+						+ list.depth() + "x" + list.width() + "\n" + list + "\n--\n"
+						+ rle.depth() + "x" + rle.width() + "\n" + rle);
+			if (list.depth() != lazy.depth() || list.width() != lazy.width())
+				throw new AssertionError("Picture and LazyPicture differ in size\n"
+						+ list.depth() + "x" + list.width() + "\n" + list + "\n--\n" + lazy.depth() + "x" + lazy.width());
+			if (random.nextInt(4) == 0)
+				checkLazy();
+		}
+
+		/** A LazyPicture that cannot follow a step starts again from the raster */
+		Pair(Picture list, RasterPicture raster, RlePicture rle) {
+			this(list, raster, LazyPicture.of(raster), rle);
+		}
+
+		void checkLazy() {
+			if (!list.toString().equals(lazy.toString()))
+				throw new AssertionError("Picture and LazyPicture differ\n" + list + "\n--\n" + lazy);
+		}
+	}
+
+	private static Random random;
+
+	public static void main(String[] args) {
+		long seed = args.length > 0 ? Long.parseLong(args[0]) : 11;
+		random = new Random(seed);
+		for (int i = 0; i < LAYOUTS; i++)
+			layout(1 + random.nextInt(4)).checkLazy();
+		System.out.println("RasterPictureTest: ok (" + LAYOUTS + " layouts, seed " + seed + ")");
+	}
+
+	private static int position() {
+		return new int[] { -10, 0, 1, 33, 50, 67, 99, 100, 150 }[random.nextInt(9)];
+	}
+
+	private static char fill() {
+		return ".#* ".charAt(random.nextInt(4));
+	}
+
+	/**
+	 * @return		an empty picture, a picture of empty rows, a box, or ragged lines of text
+	 */
+	private static Pair leaf() {
+		switch (random.nextInt(6)) {
+		case 0:
+			return new Pair(Picture.emptyPicture(), RasterPicture.emptyPicture(), LazyPicture.emptyPicture(), RlePicture.emptyPicture());
+		case 1: {
+			int d = random.nextInt(4), w = random.nextInt(4);
+			char c = fill();
+			return new Pair(Picture.box(d, w, c), RasterPicture.box(d, w, c), LazyPicture.box(d, w, c), RlePicture.box(d, w, c));
+		}
+		case 2: {
+			List<List<Character>> rows = List.repeat(random.nextInt(3), List.<Character>emptyList());
+			return new Pair(new Picture(rows), new RasterPicture(rows), new RlePicture(rows));
+		}
+		default: {
+			StringBuilder sb = new StringBuilder();
+			int d = 1 + random.nextInt(5);
+			for (int i = 0; i < d; i++) {
+				if (i > 0)
+					sb.append('\n');
+				int w = random.nextInt(7);
+				for (int j = 0; j < w; j++)
+					sb.append((char)('a' + random.nextInt(26)));
+			}
+			return new Pair(new Picture(sb.toString()), new RasterPicture(sb.toString()), new RlePicture(sb.toString()));
+		}
+		}
+	}
+
+	private static List<Pair> layouts(int depth) {
+		List.Builder<Pair> b = new List.Builder<Pair>();
+		int n = 1 + random.nextInt(4);
+		for (int i = 0; i < n; i++)
+			b.add(layout(depth));
+		return b.build();
+	}
+
+	/**
+	 * @param depth		how many operations deep to build
+	 * @return			a random layout, checked at every step
+	 */
+	private static Pair layout(int depth) {
+		if (depth == 0)
+			return leaf();
+		Pair p = layout(depth - 1);
+		int n = random.nextInt(14) - 1, at = position();
+		char c = fill();
+		switch (random.nextInt(20)) {
+		case 0:
+			return new Pair(p.list.fixWidth(n, at, c), p.raster.fixWidth(n, at, c), p.lazy.fixWidth(n, at, c), p.rle.fixWidth(n, at, c));
+		case 1:
+			return new Pair(p.list.fixDepth(n, at, c), p.raster.fixDepth(n, at, c), p.lazy.fixDepth(n, at, c), p.rle.fixDepth(n, at, c));
+		case 2: {
+			Pair q = layout(depth - 1);
+			return new Pair(p.list.above(q.list, at), p.raster.above(q.raster, at), p.lazy.above(q.lazy, at), p.rle.above(q.rle, at));
+		}
+		case 3: {
+			Pair q = layout(depth - 1);
+			return new Pair(p.list.beside(q.list, at), p.raster.beside(q.raster, at), p.lazy.beside(q.lazy, at), p.rle.beside(q.rle, at));
+		}
+		case 4:
+			return new Pair(p.list.transpose(), p.raster.transpose(), p.lazy.transpose(), p.rle.transpose());
+		case 5:
+			return new Pair(p.list.reflectHorizontal(), p.raster.reflectHorizontal(), p.lazy.reflectHorizontal(), p.rle.reflectHorizontal());
+		case 6:
+			return new Pair(p.list.reflectVertical(), p.raster.reflectVertical(), p.lazy.reflectVertical(), p.rle.reflectVertical());
+		case 7: {
+			int quadrants = random.nextInt(8) - 2;
+			return new Pair(p.list.rotate(quadrants), p.raster.rotate(quadrants), p.lazy.rotate(quadrants), p.rle.rotate(quadrants));
+		}
+		case 8:
+			return new Pair(p.list.border(c), p.raster.border(c), p.lazy.border(c), p.rle.border(c));
+		case 9:
+			return new Pair(p.list.frame(), p.raster.frame(), p.lazy.frame(), p.rle.frame());
+		case 10:
+			return new Pair(p.list.leftBorder(c).topFrame(), p.raster.leftBorder(c).topFrame(), p.lazy.leftBorder(c).topFrame(), p.rle.leftBorder(c).topFrame());
+		case 11:
+			return new Pair(p.list.rightFrame().bottomBorder(c).leftFrame().topBorder(c).bottomFrame().rightBorder(c),
+					p.raster.rightFrame().bottomBorder(c).leftFrame().topBorder(c).bottomFrame().rightBorder(c),
+					p.lazy.rightFrame().bottomBorder(c).leftFrame().topBorder(c).bottomFrame().rightBorder(c),
+					p.rle.rightFrame().bottomBorder(c).leftFrame().topBorder(c).bottomFrame().rightBorder(c));
+		case 12: {
+			List<Pair> ps = layouts(depth - 1);
+			return new Pair(Picture.stack(ps.map(x -> x.list), at, c), RasterPicture.stack(ps.map(x -> x.raster), at, c),
+					LazyPicture.stack(ps.map(x -> x.lazy), at, c),
+					RlePicture.stack(ps.map(x -> x.rle), at, c));
+		}
+		case 13: {
+			List<Pair> ps = layouts(depth - 1);
+			return new Pair(Picture.spread(ps.map(x -> x.list), at, c), RasterPicture.spread(ps.map(x -> x.raster), at, c),
+					LazyPicture.spread(ps.map(x -> x.lazy), at, c),
+					RlePicture.spread(ps.map(x -> x.rle), at, c));
+		}
+		case 14: {
+			List<Pair> ps = layouts(depth - 1);
+			return new Pair(Picture.tableRow(ps.map(x -> x.list), at, c), RasterPicture.tableRow(ps.map(x -> x.raster), at, c),
+					RlePicture.tableRow(ps.map(x -> x.rle), at, c));
+		}
+		case 15: {
+			List<Pair> ps = layouts(depth - 1);
+			return new Pair(Picture.tableCol(ps.map(x -> x.list), at, c), RasterPicture.tableCol(ps.map(x -> x.raster), at, c),
+					RlePicture.tableCol(ps.map(x -> x.rle), at, c));
+		}
+		case 16:
+			return new Pair(p.list.map(Character::toUpperCase), p.raster.map(Character::toUpperCase), p.rle.map(Character::toUpperCase));
+		case 17:
+			return new Pair(p.list.mapChars(ch -> ch == ' ' ? '_' : ch), p.raster.mapChars(ch -> ch == ' ' ? '_' : ch),
+					p.rle.mapChars(ch -> ch == ' ' ? '_' : ch));
+		case 18: {
+			List<Pair> ps = layouts(depth - 1);
+			return new Pair(Picture.stack(ps.map(x -> x.list), at), RasterPicture.stack(ps.map(x -> x.raster), at),
+					LazyPicture.stack(ps.map(x -> x.lazy), at),
+					RlePicture.stack(ps.map(x -> x.rle), at));
+		}
+		default: {
+			Pair converted = new Pair(p.list, RasterPicture.fromPicture(p.list), LazyPicture.of(p.list), RlePicture.fromPicture(p.list));
+			return new Pair(converted.raster.toPicture(), converted.rle.toRaster(), LazyPicture.of(converted.raster),
+					RlePicture.fromRaster(converted.raster));
+		}
+		}
+	}
+}
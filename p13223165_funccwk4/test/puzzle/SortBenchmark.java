@@ -0,0 +1,116 @@
+package puzzle;
+
+/**
+ * Measures List.sort and sortBy against the round trip they replace: toArrayList(),
+ * ArrayList.sort, then arrayListToList(). The items are random keys with many duplicates,
+ * each tagged with its original position, so before timing it checks that every way of
+ * sorting gives the same list and that equal keys keep their original order, on short lists
+ * and on the benchmark list:
+ *
+ *	javac -d out src/puzzle/*.java test/puzzle/*.java
+ *	java -Xss512k -cp out puzzle.SortBenchmark [items] [rounds]
+ *
+ * Each round prints the best time out of five for each way of sorting: sort on one thread
+ * (a threshold above the length), sort and sortBy with the default threshold, which sort a
+ * list this long on the common ForkJoinPool, and the ArrayList round trip. The first rounds
+ * include JIT warm-up; read the later ones.
+ */
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.function.Supplier;
+
+public class SortBenchmark {
+
+	/** A key with the position it started at */
+	private static final class Item {
+		final int key, position;
+
+		Item(int key, int position) {
+			this.key = key;
+			this.position = position;
+		}
+
+		int getKey() {
+			return key;
+		}
+
+		@Override public String toString() {
+			return key + "@" + position;
+		}
+	}
+
+	private static final Comparator<Item> BY_KEY = Comparator.comparingInt(Item::getKey);
+
+	public static void main(String[] args) {
+		int items = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		Random random = new Random(3);
+
+		for (int n = 0; n < 200; n++)
+			same(list(n, 1 + n / 4, random));
+		List<Item> list = list(items, items / 10, random);
+		same(list);
+
+		for (int round = 1; round <= rounds; round++)
+			System.out.printf("round %d, %d items: sort on one thread %.1f ms | sort %.1f ms | sortBy %.1f ms | "
+					+ "ArrayList.sort round trip %.1f ms%n", round, items,
+					best(() -> list.sort(BY_KEY, Integer.MAX_VALUE)), best(() -> list.sort(BY_KEY)),
+					best(() -> list.sortBy(Item::getKey)), best(() -> roundTrip(list)));
+	}
+
+	/**
+	 * @return		n items with random keys below a bound, tagged with their positions
+	 */
+	private static List<Item> list(int n, int keys, Random random) {
+		List.Builder<Item> b = new List.Builder<Item>();
+		for (int i = 0; i < n; i++)
+			b.add(new Item(random.nextInt(keys), i));
+		return b.build();
+	}
+
+	private static List<Item> roundTrip(List<Item> list) {
+		ArrayList<Item> items = list.toArrayList();
+		items.sort(BY_KEY);
+		return List.arrayListToList(items);
+	}
+
+	/**
+	 * Check that every way of sorting gives the round trip's list, and that it is sorted stably
+	 */
+	private static void same(List<Item> list) {
+		List<Item> expected = roundTrip(list);
+		check(list.sort(BY_KEY, Integer.MAX_VALUE).equals(expected), "sort on one thread", list);
+		check(list.sort(BY_KEY, 7).equals(expected), "sort split to 7 items", list);
+		check(list.sort(BY_KEY).equals(expected), "sort", list);
+		check(list.sortBy(Item::getKey, 7).equals(expected), "sortBy split to 7 items", list);
+		check(list.sortBy(Item::getKey).equals(expected), "sortBy", list);
+		check(expected.length() == list.length(), "round trip length", list);
+		Item last = null;
+		for (Item x : expected) {
+			check(last == null || last.key < x.key || last.key == x.key && last.position < x.position, "stable", list);
+			last = x;
+		}
+	}
+
+	/**
+	 * @return		the best milliseconds for one call out of five
+	 */
+	private static double best(Supplier<List<Item>> op) {
+		long best = Long.MAX_VALUE, sink = 0;
+		for (int i = 0; i < 5; i++) {
+			long t0 = System.nanoTime();
+			sink += op.get().length();
+			best = Math.min(best, System.nanoTime() - t0);
+		}
+		if (sink == 42)
+			System.out.print("");
+		return best / 1e6;
+	}
+
+	private static void check(boolean ok, String what, List<Item> list) {
+		if (!ok)
+			throw new AssertionError(what + (list.length() <= 20 ? " of " + list : " of " + list.length() + " items"));
+	}
+}
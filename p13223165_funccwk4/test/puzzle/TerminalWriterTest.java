@@ -0,0 +1,225 @@
+package puzzle;
+
+/**
+ * Checks the bytes TerminalWriter sends to a fake terminal: a channel over a byte array.
+ * Small frames are checked byte for byte. Then whole games are played through a
+ * BoardRenderer, and the bytes for each frame are fed to a minimal ANSI screen that knows
+ * only the escapes the writer uses; the screen must show what Game.display() gives, with the
+ * cursor where the trailer leaves it, and every frame after the first must be nothing but
+ * cursor moves, changed chars and a final cursor move and clear. A writer told the terminal
+ * is too short for the frame and trailer must write every frame in full:
+ *
+ *	javac -d out src/puzzle/*.java test/puzzle/*.java
+ *	java -cp out puzzle.TerminalWriterTest
+ *
+ * A failed check throws an AssertionError naming it.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+public class TerminalWriterTest {
+
+	private static final String ESC = "\u001b[";
+	private static final String TRAILER = "\n\n\r\n";
+	/** What the game writes below the board, including the move typed and an error */
+	private static final String PROMPT = "u - Up  d - Down\n\nEnter next move: x\nIncorrect move\n";
+	/** A diff: runs of chars each after a cursor move, if any changed, then a cursor move and a clear below */
+	private static final Pattern DIFF = Pattern.compile("(\u001b\\[\\d+;\\d+H[^\u001b]+)*\u001b\\[\\d+;\\d+H\u001b\\[J");
+
+	public static void main(String[] args) throws IOException {
+		plainTerminal();
+		ansiFrames();
+		shortTerminal();
+		games(20, 60);
+		System.out.println("TerminalWriterTest: ok");
+	}
+
+	/**
+	 * A terminal that is not ANSI-capable gets every frame in full, as before
+	 */
+	private static void plainTerminal() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		TerminalWriter writer = new TerminalWriter(Channels.newChannel(out), false, TRAILER);
+		Picture frame = new Picture("ab\ncd");
+		writer.show(frame);
+		writer.show(frame);
+		check(text(out).equals("ab\ncd" + TRAILER + "ab\ncd" + TRAILER), "plain terminal: " + text(out));
+		check(!writer.isAnsi() && writer.bytesWritten() == out.size(), "plain terminal: bytesWritten");
+	}
+
+	/**
+	 * Byte for byte: the first frame, a one-char change, an unchanged frame, which must still
+	 * put the cursor back below the frame and clear what was written there, changes close
+	 * together and far apart in a row, and a frame of a different size
+	 */
+	private static void ansiFrames() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		TerminalWriter writer = new TerminalWriter(Channels.newChannel(out), true, TRAILER);
+
+		writer.show(new Picture("ab\ncd"));
+		check(text(out).equals(ESC + "H" + ESC + "2J" + "ab\ncd" + TRAILER), "first frame: " + text(out));
+
+		out.reset();
+		writer.show(new Picture("ab\nxd"));
+		check(text(out).equals(ESC + "2;1H" + "x" + ESC + "5;1H" + ESC + "J"), "one change: " + text(out));
+
+		out.reset();
+		writer.show(new Picture("ab\nxd"));
+		check(text(out).equals(ESC + "5;1H" + ESC + "J"), "unchanged frame: " + text(out));
+
+		out.reset();
+		writer.show(RasterPicture.fromPicture(new Picture("ab\nxd")));
+		check(text(out).equals(ESC + "5;1H" + ESC + "J"), "unchanged raster frame: " + text(out));
+
+		writer.show(new Picture("abcdefghijklmnopqrstuvwxyz\n" + ".........................."));
+		out.reset();
+		writer.show(new Picture("AbCdefghijklmnopqrstuvwxyZ\n" + ".........................."));
+		check(text(out).equals(ESC + "1;1H" + "AbC" + ESC + "1;26H" + "Z" + ESC + "5;1H" + ESC + "J"),
+				"close changes joined, far ones not: " + text(out));
+
+		out.reset();
+		writer.show(new Picture("abc\nxd"));
+		check(text(out).startsWith(ESC + "H" + ESC + "2J"), "new size is drawn in full: " + text(out));
+
+		out.reset();
+		writer.reset();
+		writer.show(new Picture("abc\nxd"));
+		check(text(out).startsWith(ESC + "H" + ESC + "2J"), "reset draws in full: " + text(out));
+	}
+
+	/**
+	 * The frame and trailer of "ab\ncd" take five rows. With room for five every frame after
+	 * the first is a diff; with room for four every frame is drawn in full, as the cursor moves
+	 * of a diff would be wrong once the screen has scrolled
+	 */
+	private static void shortTerminal() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		TerminalWriter fits = new TerminalWriter(Channels.newChannel(out), true, TRAILER, 5);
+		fits.show(new Picture("ab\ncd"));
+		out.reset();
+		fits.show(new Picture("ab\ncd"));
+		check(text(out).equals(ESC + "5;1H" + ESC + "J"), "room for five rows: " + text(out));
+
+		TerminalWriter tooShort = new TerminalWriter(Channels.newChannel(out), true, TRAILER, 4);
+		String full = ESC + "H" + ESC + "2J" + "ab\ncd" + TRAILER;
+		for (String frame : new String[] { "ab\ncd", "ab\nxd", "ab\nxd" }) {
+			out.reset();
+			tooShort.show(new Picture(frame));
+			check(text(out).equals(full.replace("ab\ncd", frame)), "room for four rows: " + text(out));
+		}
+	}
+
+	/**
+	 * Play random games through a renderer and a writer, and check the emulated screen
+	 */
+	private static void games(int games, int moves) throws IOException {
+		Random random = new Random(5);
+		for (int g = 0; g < games; g++) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			TerminalWriter writer = new TerminalWriter(Channels.newChannel(out), true, TRAILER);
+			BoardRenderer renderer = new BoardRenderer();
+			Screen screen = new Screen(60, 80);
+			List<Tile> board = Game.startNewGame();
+			for (int m = 0; m < moves; m++) {
+				renderer.render(board);
+				out.reset();
+				writer.show(renderer.toRaster());
+				screen.apply(text(out));
+				String[] rows = Game.display(board).toString().split("\n");
+				for (int row = 0; row < rows.length; row++)
+					check(screen.row(row, rows[row].length()).equals(rows[row]), "game " + g + ", move " + m + ": screen row " + row);
+				if (m > 0)
+					check(DIFF.matcher(text(out)).matches(), "game " + g + ", move " + m + ": not a diff: " + text(out));
+				check(screen.row == rows.length + 2 && screen.col == 0, "game " + g + ", move " + m + ": cursor at "
+						+ screen.row + "," + screen.col);
+				check(screen.row(rows.length + 2, 40).trim().isEmpty(), "game " + g + ", move " + m + ": prompt not cleared");
+				screen.apply(PROMPT);
+				board = move(board, random.nextInt(4));
+			}
+		}
+	}
+
+	private static List<Tile> move(List<Tile> board, int direction) {
+		switch (direction) {
+		case 0: return Game.moveUp(board);
+		case 1: return Game.moveDown(board);
+		case 2: return Game.moveLeft(board);
+		default: return Game.moveRight(board);
+		}
+	}
+
+	/**
+	 * A screen that understands the escapes TerminalWriter uses: ESC[H, ESC[r;cH, ESC[2J and
+	 * ESC[J, and the chars \n and \r
+	 */
+	private static final class Screen {
+		final char[][] cells;
+		int row, col;
+
+		Screen(int depth, int width) {
+			cells = new char[depth][width];
+			for (char[] r : cells)
+				Arrays.fill(r, ' ');
+		}
+
+		void apply(String text) {
+			for (int i = 0; i < text.length(); i++) {
+				char c = text.charAt(i);
+				if (c == '\u001b') {
+					int end = i + 2;
+					while (!Character.isLetter(text.charAt(end)))
+						end++;
+					escape(text.substring(i + 2, end), text.charAt(end));
+					i = end;
+				}
+				else if (c == '\n') {
+					row++;
+					col = 0;
+				}
+				else if (c == '\r')
+					col = 0;
+				else
+					cells[row][col++] = c;
+			}
+		}
+
+		void escape(String parameters, char command) {
+			if (command == 'H' && parameters.isEmpty())
+				row = col = 0;
+			else if (command == 'H') {
+				String[] rc = parameters.split(";");
+				row = Integer.parseInt(rc[0]) - 1;
+				col = Integer.parseInt(rc[1]) - 1;
+			}
+			else if (command == 'J' && parameters.equals("2"))
+				for (char[] r : cells)
+					Arrays.fill(r, ' ');
+			else if (command == 'J' && parameters.isEmpty()) {
+				Arrays.fill(cells[row], col, cells[row].length, ' ');
+				for (int r = row + 1; r < cells.length; r++)
+					Arrays.fill(cells[r], ' ');
+			}
+			else
+				throw new AssertionError("unexpected escape " + parameters + command);
+		}
+
+		String row(int r, int width) {
+			return new String(cells[r], 0, width);
+		}
+	}
+
+	private static String text(ByteArrayOutputStream out) {
+		return new String(out.toByteArray(), StandardCharsets.ISO_8859_1);
+	}
+
+	private static void check(boolean ok, String what) {
+		if (!ok)
+			throw new AssertionError(what);
+	}
+}
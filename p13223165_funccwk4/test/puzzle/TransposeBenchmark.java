@@ -0,0 +1,123 @@
+package puzzle;
+
+/**
+ * Measures List.transpose, and Picture.transpose and rotate drawn to a string, on square
+ * pictures (1000 by 1000 by default), against the recursive Haskell-style transpose that
+ * List.transpose replaced. Before timing it checks that List.transpose gives the same
+ * result as that definition on random ragged lists, including empty rows, and on the
+ * benchmark list itself, and that the picture views draw what the eager definitions draw:
+ *
+ *	javac -d out src/puzzle/*.java test/puzzle/*.java
+ *	java -Xss512k -cp out puzzle.TransposeBenchmark [size] [rounds]
+ *
+ * Each round prints the mean time per call. The first rounds include JIT warm-up; read
+ * the later ones. The Haskell-style definition recurses once per column, so it is run on a
+ * thread of its own with a large stack; everything else runs on the small main stack.
+ */
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+public class TransposeBenchmark {
+
+	public static void main(String[] args) throws InterruptedException {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+		//Ragged rows: column j holds the j-th item of every row long enough to have one
+		Random random = new Random(9);
+		for (int i = 0; i < 2000; i++) {
+			List<List<Integer>> ragged = ragged(random);
+			List<List<Integer>> expected = onBigStack(() -> haskellTranspose(ragged));
+			if (!List.transpose(ragged).equals(expected))
+				throw new AssertionError("transpose " + ragged + " gave " + List.transpose(ragged) + ", not " + expected);
+		}
+
+		List<List<Character>> lines = square(size);
+		Picture picture = new Picture(lines);
+		List<List<Character>> transposed = onBigStack(() -> haskellTranspose(lines));
+		if (!List.transpose(lines).equals(transposed))
+			throw new AssertionError("List.transpose differs on " + size + "x" + size);
+		String[] eager = {
+				new Picture(transposed).toString(),
+				new Picture(transposed.map(List::reverse)).toString(),
+				new Picture(transposed.reverse()).toString() };
+		String[] views = { picture.transpose().toString(), picture.rotate(1).toString(), picture.rotate(3).toString() };
+		for (int i = 0; i < views.length; i++)
+			if (!views[i].equals(eager[i]))
+				throw new AssertionError(new String[] { "transpose", "rotate(1)", "rotate(3)" }[i] + " differs on " + size + "x" + size);
+
+		for (int round = 1; round <= rounds; round++) {
+			double haskell = onBigStack(() -> time(() -> haskellTranspose(lines).length()));
+			double list = time(() -> List.transpose(lines).length());
+			double transpose = time(() -> picture.transpose().toString().length());
+			double rotate1 = time(() -> picture.rotate(1).toString().length());
+			double rotate3 = time(() -> picture.rotate(3).toString().length());
+			System.out.printf("round %d, %dx%d: Haskell-style transpose %.2f ms | List.transpose %.2f ms | "
+					+ "Picture.transpose %.2f ms, rotate(1) %.2f ms, rotate(3) %.2f ms%n",
+					round, size, size, haskell, list, transpose, rotate1, rotate3);
+		}
+	}
+
+	/**
+	 * The definition List.transpose replaced, a direct port of Haskell's: one level of
+	 * recursion per column, re-filtering the rows each time
+	 */
+	private static <E> List<List<E>> haskellTranspose(List<List<E>> list) {
+		if (list.isEmpty())
+			return List.emptyList();
+		else if (list.head().isEmpty())
+			return haskellTranspose(list.tail());
+		else {
+			E x = list.head().head();
+			List<E> xs = list.head().tail();
+			List<List<E>> xss = list.tail().filter(l -> !l.isEmpty());
+			return List.cons(List.cons(x, xss.map(List::head)), haskellTranspose(List.cons(xs, xss.map(List::tail))));
+		}
+	}
+
+	private static List<List<Integer>> ragged(Random random) {
+		List.Builder<List<Integer>> rows = new List.Builder<List<Integer>>();
+		int depth = random.nextInt(7);
+		for (int i = 0; i < depth; i++)
+			rows.add(List.range(10 * i, 10 * i + random.nextInt(6)));
+		return rows.build();
+	}
+
+	private static List<List<Character>> square(int size) {
+		List.Builder<List<Character>> rows = new List.Builder<List<Character>>();
+		for (int i = 0; i < size; i++) {
+			List.Builder<Character> row = new List.Builder<Character>();
+			for (int j = 0; j < size; j++)
+				row.add((char)('a' + (i * 31 + j * 7) % 26));
+			rows.add(row.build());
+		}
+		return rows.build();
+	}
+
+	/**
+	 * @return		the mean milliseconds per call over at least a quarter of a second
+	 */
+	private static double time(Supplier<Integer> op) {
+		long sink = 0, start = System.nanoTime(), end;
+		int calls = 0;
+		do {
+			sink += op.get();
+			calls++;
+			end = System.nanoTime();
+		} while (end - start < 250_000_000L);
+		if (sink == 42)
+			System.out.print("");
+		return (end - start) / 1e6 / calls;
+	}
+
+	private static <T> T onBigStack(Supplier<T> op) throws InterruptedException {
+		Object[] result = new Object[1];
+		Thread thread = new Thread(null, () -> result[0] = op.get(), "transpose", 1L << 28);
+		thread.start();
+		thread.join();
+		@SuppressWarnings("unchecked")
+		T t = (T)result[0];
+		return t;
+	}
+}